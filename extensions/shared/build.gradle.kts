@@ -31,6 +31,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_17
         targetCompatibility = JavaVersion.VERSION_17
     }
+
+    testOptions {
+        unitTests.isReturnDefaultValues = TRUE
+    }
 }
 
 dependencies {
@@ -57,6 +61,10 @@ dependencies {
 
     coreLibraryDesugaring(libs.desugar.jdk.libs)
     compileOnly(project(":extensions:shared:stub"))
+
+    testImplementation(libs.annotation)
+    testImplementation(libs.junit)
+    testImplementation(libs.robolectric)
 }
 
 protobuf {
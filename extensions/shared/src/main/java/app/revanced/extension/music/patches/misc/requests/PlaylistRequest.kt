@@ -1,11 +1,12 @@
 package app.revanced.extension.music.patches.misc.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_PLAYLIST_PAGE
+import app.revanced.extension.shared.requests.JsonPathExtractor
 import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.SingleFlightCache
 import app.revanced.extension.shared.settings.AppLanguage
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.Utils
@@ -24,10 +25,6 @@ class PlaylistRequest private constructor(
     private val playlistId: String,
     private val playlistIndex: Int,
 ) {
-    /**
-     * Time this instance and the fetch future was created.
-     */
-    private val timeFetched = System.currentTimeMillis()
     private val future: Future<String> = Utils.submitOnBackgroundThread {
         fetch(
             videoId,
@@ -36,14 +33,11 @@ class PlaylistRequest private constructor(
         )
     }
 
-    fun isExpired(now: Long): Boolean {
-        val timeSinceCreation = now - timeFetched
-        if (timeSinceCreation > CACHE_RETENTION_TIME_MILLISECONDS) {
-            return true
-        }
-
-        // Only expired if the fetch failed (API null response).
-        return (fetchCompleted() && stream.isEmpty())
+    /**
+     * @return if the fetch failed (API null response).
+     */
+    fun fetchFailed(): Boolean {
+        return fetchCompleted() && stream.isEmpty()
     }
 
     /**
@@ -86,8 +80,17 @@ class PlaylistRequest private constructor(
 
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 10 * 1000L // 10 seconds
 
-        @GuardedBy("itself")
-        private val cache: MutableMap<String, PlaylistRequest> = HashMap()
+        private val EXTRACTOR = JsonPathExtractor(
+            "contents.singleColumnWatchNextResults.playlist.playlist.title",
+            "contents.singleColumnWatchNextResults.playlist.playlist.contents.playlistPanelVideoRenderer.navigationEndpoint.watchEndpoint.videoId"
+        )
+
+        private const val CACHE_LIMIT = 50
+
+        private val cache = SingleFlightCache<String, PlaylistRequest>(
+            CACHE_LIMIT,
+            CACHE_RETENTION_TIME_MILLISECONDS,
+        ) { request -> !request.fetchFailed() }
 
         @JvmStatic
         fun fetchRequestIfNeeded(
@@ -96,28 +99,18 @@ class PlaylistRequest private constructor(
             playlistIndex: Int,
         ) {
             Objects.requireNonNull(videoId)
-            synchronized(cache) {
-                val now = System.currentTimeMillis()
-                cache.values.removeIf { request: PlaylistRequest ->
-                    val expired = request.isExpired(now)
-                    if (expired) Logger.printDebug { "Removing expired stream: " + request.videoId }
-                    expired
-                }
-                if (!cache.containsKey(videoId)) {
-                    cache[videoId] = PlaylistRequest(
-                        videoId,
-                        playlistId,
-                        playlistIndex,
-                    )
-                }
+            cache.getOrCreate(videoId) {
+                PlaylistRequest(
+                    videoId,
+                    playlistId,
+                    playlistIndex,
+                )
             }
         }
 
         @JvmStatic
         fun getRequestForVideoId(videoId: String): PlaylistRequest? {
-            synchronized(cache) {
-                return cache[videoId]
-            }
+            return cache.get(videoId)
         }
 
         private fun handleConnectionError(toastMessage: String, ex: Exception?) {
@@ -165,7 +158,7 @@ class PlaylistRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
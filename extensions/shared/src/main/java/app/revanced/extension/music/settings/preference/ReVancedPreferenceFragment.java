@@ -25,6 +25,7 @@ import static app.revanced.extension.music.utils.ExtendedUtils.getDialogBuilder;
 import static app.revanced.extension.music.utils.ExtendedUtils.getLayoutParams;
 import static app.revanced.extension.music.utils.RestartUtils.showRestartDialog;
 import static app.revanced.extension.shared.patches.PatchStatus.PatchVersion;
+import static app.revanced.extension.shared.settings.BaseSettings.LITHO_LAYOUT_THREAD_POOL_SIZE;
 import static app.revanced.extension.shared.settings.BaseSettings.RETURN_YOUTUBE_USERNAME_DISPLAY_FORMAT;
 import static app.revanced.extension.shared.settings.BaseSettings.RETURN_YOUTUBE_USERNAME_YOUTUBE_DATA_API_V3_DEVELOPER_KEY;
 import static app.revanced.extension.shared.settings.Setting.getSettingFromPath;
@@ -65,6 +66,7 @@ import app.revanced.extension.music.settings.Settings;
 import app.revanced.extension.music.utils.ExtendedUtils;
 import app.revanced.extension.shared.settings.BooleanSetting;
 import app.revanced.extension.shared.settings.EnumSetting;
+import app.revanced.extension.shared.settings.IntegerSetting;
 import app.revanced.extension.shared.settings.Setting;
 import app.revanced.extension.shared.settings.StringSetting;
 import app.revanced.extension.shared.settings.preference.YouTubeDataAPIDialogBuilder;
@@ -174,6 +176,12 @@ public class ReVancedPreferenceFragment extends PreferenceFragment {
                 } else {
                     Logger.printDebug(() -> "Failed to find the right value: " + dataString);
                 }
+            } else if (settings instanceof IntegerSetting integerSetting) {
+                if (settings.equals(LITHO_LAYOUT_THREAD_POOL_SIZE)) {
+                    ResettableEditTextPreference.showDialog(mActivity, integerSetting);
+                } else {
+                    Logger.printDebug(() -> "Failed to find the right value: " + dataString);
+                }
             } else if (settings instanceof EnumSetting<?> enumSetting) {
                 if (settings.equals(CHANGE_START_PAGE)
                         || settings.equals(DISABLE_MUSIC_VIDEO_IN_ALBUM_REDIRECT_TYPE)
@@ -5,6 +5,7 @@ import static app.revanced.extension.music.utils.ExtendedUtils.getLayoutParams;
 import static app.revanced.extension.shared.utils.StringRef.str;
 
 import android.app.Activity;
+import android.text.InputType;
 import android.widget.EditText;
 import android.widget.FrameLayout;
 
@@ -12,15 +13,27 @@ import androidx.annotation.NonNull;
 
 import com.google.android.material.textfield.TextInputLayout;
 
+import app.revanced.extension.shared.settings.IntegerSetting;
 import app.revanced.extension.shared.settings.Setting;
 import app.revanced.extension.shared.utils.Logger;
 
 public class ResettableEditTextPreference {
 
     public static void showDialog(Activity mActivity, @NonNull Setting<String> setting) {
+        showDialog(mActivity, setting, false);
+    }
+
+    public static void showDialog(Activity mActivity, @NonNull IntegerSetting setting) {
+        showDialog(mActivity, setting, true);
+    }
+
+    private static void showDialog(Activity mActivity, @NonNull Setting<?> setting, boolean isNumber) {
         try {
             final EditText textView = new EditText(mActivity);
-            textView.setText(setting.get());
+            textView.setText(setting.get().toString());
+            if (isNumber) {
+                textView.setInputType(InputType.TYPE_CLASS_NUMBER);
+            }
 
             TextInputLayout textInputLayout = new TextInputLayout(mActivity);
             textInputLayout.setLayoutParams(getLayoutParams());
@@ -38,7 +51,12 @@ public class ResettableEditTextPreference {
                         ReVancedPreferenceFragment.showRebootDialog();
                     })
                     .setPositiveButton(android.R.string.ok, (dialog, which) -> {
-                        setting.save(textView.getText().toString().trim());
+                        try {
+                            setting.saveValueFromString(textView.getText().toString().trim());
+                        } catch (NumberFormatException ex) {
+                            Logger.printInfo(() -> "Invalid number: " + textView.getText(), ex);
+                            setting.resetToDefault();
+                        }
                         ReVancedPreferenceFragment.showRebootDialog();
                     })
                     .show();
@@ -19,6 +19,7 @@ import app.revanced.extension.music.sponsorblock.objects.SponsorSegment;
 import app.revanced.extension.music.sponsorblock.requests.SBRequester;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.shared.utils.Utils.TaskPriority;
 
 /**
  * Handles showing, scheduling, and skipping of all {@link SponsorSegment} for the current video.
@@ -27,6 +28,12 @@ import app.revanced.extension.shared.utils.Utils;
  */
 @SuppressWarnings("unused")
 public class SegmentPlaybackController {
+    /**
+     * Key of the segment download task. A download for a previous video that has not started yet
+     * is cancelled when a new video starts.
+     */
+    private static final String DOWNLOAD_SEGMENTS_TASK_KEY = SegmentPlaybackController.class.getName() + ".downloadSegments";
+
     @Nullable
     private static String currentVideoId;
     @Nullable
@@ -102,7 +109,8 @@ public class SegmentPlaybackController {
             currentVideoId = videoId;
             Logger.printDebug(() -> "setCurrentVideoId: " + videoId);
 
-            Utils.runOnBackgroundThread(() -> {
+            // Segments of the previous video are no longer needed if not yet downloaded.
+            Utils.runOnBackgroundThread(TaskPriority.PLAYBACK, DOWNLOAD_SEGMENTS_TASK_KEY, () -> {
                 try {
                     executeDownloadSegments(videoId);
                 } catch (Exception e) {
@@ -25,6 +25,7 @@ import app.revanced.extension.shared.requests.Route;
 import app.revanced.extension.shared.sponsorblock.requests.SBRoutes;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.shared.utils.Utils.TaskPriority;
 
 public class SBRequester {
     /**
@@ -116,7 +117,7 @@ public class SBRequester {
         if (now < (Settings.SB_LAST_VIP_CHECK.get() + TimeUnit.DAYS.toMillis(3))) {
             return;
         }
-        Utils.runOnBackgroundThread(() -> {
+        Utils.runOnBackgroundThread(TaskPriority.BACKGROUND, () -> {
             try {
                 JSONObject json = getJSONObject(SponsorBlockSettings.getSBPrivateUserID());
                 boolean vip = json.getBoolean("vip");
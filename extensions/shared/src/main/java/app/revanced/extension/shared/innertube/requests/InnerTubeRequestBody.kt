@@ -12,12 +12,14 @@ import org.apache.commons.lang3.StringUtils
 import org.json.JSONArray
 import org.json.JSONException
 import org.json.JSONObject
+import java.io.ByteArrayOutputStream
 import java.io.IOException
 import java.net.HttpURLConnection
 import java.nio.charset.StandardCharsets
 import java.util.Date
 import java.util.Locale
 import java.util.TimeZone
+import java.util.concurrent.ConcurrentHashMap
 
 @Suppress("deprecation")
 object InnerTubeRequestBody {
@@ -45,6 +47,56 @@ object InnerTubeRequestBody {
     private val TIME_ZONE_ID: String = TIME_ZONE.id
     private val UTC_OFFSET_MINUTES: Int = TIME_ZONE.getOffset(Date().time) / 60000
 
+    /**
+     * Serialized request bodies without the per-request fields, by client and language.
+     * The client context is the same for every request of a client, so it is serialized only once.
+     */
+    private val templates = ConcurrentHashMap<String, ByteArray>()
+
+    /**
+     * Request body built by adding the per-request fields to a template.
+     */
+    private class RequestBody(template: ByteArray) {
+        private val output = ByteArrayOutputStream(template.size + 256)
+
+        init {
+            // Template is a JSON object without the closing brace.
+            output.write(template, 0, template.size)
+        }
+
+        /**
+         * @param value String, boolean, number, [JSONObject] or [JSONArray].
+         */
+        fun put(key: String, value: Any): RequestBody {
+            val separator = if (output.size() > 1) "," else ""
+            val field = separator + JSONObject.quote(key) + ":" +
+                    if (value is String) JSONObject.quote(value) else value.toString()
+            val bytes = field.toByteArray(StandardCharsets.UTF_8)
+            output.write(bytes, 0, bytes.size)
+            return this
+        }
+
+        fun toByteArray(): ByteArray {
+            output.write('}'.code)
+            return output.toByteArray()
+        }
+    }
+
+    private fun getTemplate(key: String, createBody: () -> JSONObject): ByteArray {
+        return templates.getOrPut(key) {
+            val json = createBody().toString()
+            // Remove the closing brace, so more fields can be added.
+            json.substring(0, json.length - 1).toByteArray(StandardCharsets.UTF_8)
+        }
+    }
+
+    private fun getLanguage(setLocale: Boolean, language: String) =
+        if (setLocale && language.isNotEmpty()) {
+            language
+        } else {
+            LOCALE_LANGUAGE
+        }
+
     @JvmStatic
     fun createApplicationRequestBody(
         clientType: YouTubeClient.ClientType,
@@ -53,6 +105,19 @@ object InnerTubeRequestBody {
         setLocale: Boolean = !clientType.supportsCookies,
         language: String = "",
     ): ByteArray {
+        val innerTubeBody = applicationInnerTubeBody(clientType, getLanguage(setLocale, language))
+        innerTubeBody.put("videoId", videoId)
+        if (playlistId != null) {
+            innerTubeBody.put("playlistId", playlistId)
+        }
+
+        return innerTubeBody.toByteArray()
+    }
+
+    private fun applicationInnerTubeBody(
+        clientType: YouTubeClient.ClientType,
+        language: String,
+    ) = RequestBody(getTemplate("${clientType.name}/$language") {
         val innerTubeBody = JSONObject()
 
         try {
@@ -66,14 +131,7 @@ object InnerTubeRequestBody {
             if (clientType.androidSdkVersion != null) {
                 client.put("androidSdkVersion", clientType.androidSdkVersion)
             }
-            client.put(
-                "hl",
-                if (setLocale && language.isNotEmpty()) {
-                    language
-                } else {
-                    LOCALE_LANGUAGE
-                }
-            )
+            client.put("hl", language)
             client.put("gl", LOCALE_COUNTRY)
             client.put("timeZone", TIME_ZONE_ID)
             client.put("utcOffsetMinutes", "$UTC_OFFSET_MINUTES")
@@ -84,17 +142,12 @@ object InnerTubeRequestBody {
             innerTubeBody.put("context", context)
             innerTubeBody.put("contentCheckOk", true)
             innerTubeBody.put("racyCheckOk", true)
-            innerTubeBody.put("videoId", videoId)
-
-            if (playlistId != null) {
-                innerTubeBody.put("playlistId", playlistId)
-            }
         } catch (e: JSONException) {
             Logger.printException({ "Failed to create application innerTubeBody" }, e)
         }
 
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
-    }
+        innerTubeBody
+    })
 
     @JvmStatic
     fun createJSRequestBody(
@@ -106,48 +159,14 @@ object InnerTubeRequestBody {
         isGVS: Boolean = false,
         isInlinePlayback: Boolean = false,
     ): ByteArray {
-        val innerTubeBody = JSONObject()
-
-        try {
-            val client = JSONObject()
-            client.put("clientName", clientType.clientName)
-            client.put("clientVersion", ThrottlingParameterUtils.getClientVersion(clientType))
-            client.put("platform", clientType.clientPlatform)
-            client.put("clientScreen", clientType.clientScreen)
-            client.put(
-                "hl",
-                if (setLocale && language.isNotEmpty()) {
-                    language
-                } else {
-                    LOCALE_LANGUAGE
-                }
-            )
-            client.put("gl", LOCALE_COUNTRY)
-            client.put("timeZone", TIME_ZONE_ID)
-            client.put("utcOffsetMinutes", UTC_OFFSET_MINUTES.toString())
-
-            if (clientType.name.startsWith("TV")) {
-                val configInfo = JSONObject()
-                configInfo.put("appInstallData", "")
-                client.put("configInfo", configInfo)
-            }
-
-            val context = JSONObject()
-            context.put("client", client)
-
-            innerTubeBody.put("context", context)
-            innerTubeBody.put("racyCheckOk", true)
-            innerTubeBody.put("contentCheckOk", true)
-            innerTubeBody.put("videoId", videoId)
-            if (cpn.isNotEmpty()) {
-                innerTubeBody.put("cpn", cpn)
-            }
-
-            val user = JSONObject()
-            user.put("lockedSafetyMode", false)
-            context.put("user", user)
+        val innerTubeBody = jsInnerTubeBody(clientType, getLanguage(setLocale, language))
+        innerTubeBody.put("videoId", videoId)
+        if (cpn.isNotEmpty()) {
+            innerTubeBody.put("cpn", cpn)
+        }
 
-            if (isGVS) {
+        if (isGVS) {
+            try {
                 val contentPlaybackContext = JSONObject()
                 val requirePoToken = clientType.requirePoToken
                 if (clientType.refererFormat != null) {
@@ -178,80 +197,81 @@ object InnerTubeRequestBody {
                         innerTubeBody.put("serviceIntegrityDimensions", serviceIntegrityDimensions)
                     }
                 }
+            } catch (e: JSONException) {
+                Logger.printException({ "Failed to create js innerTubeBody" }, e)
             }
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create js innerTubeBody" }, e)
         }
 
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
+        return innerTubeBody.toByteArray()
     }
 
-    private fun androidInnerTubeBody(
-        clientType: YouTubeClient.ClientType = YouTubeClient.ClientType.ANDROID
-    ): JSONObject {
-        val innerTubeBody = JSONObject()
+    private fun jsInnerTubeBody(
+        clientType: YouTubeClient.ClientType,
+        language: String,
+    ): RequestBody {
+        // Client version of some clients is fetched, and can change.
+        val clientVersion = ThrottlingParameterUtils.getClientVersion(clientType)
+
+        return RequestBody(getTemplate("js/${clientType.name}/$clientVersion/$language") {
+            val innerTubeBody = JSONObject()
+
+            try {
+                val client = JSONObject()
+                client.put("clientName", clientType.clientName)
+                client.put("clientVersion", clientVersion)
+                client.put("platform", clientType.clientPlatform)
+                client.put("clientScreen", clientType.clientScreen)
+                client.put("hl", language)
+                client.put("gl", LOCALE_COUNTRY)
+                client.put("timeZone", TIME_ZONE_ID)
+                client.put("utcOffsetMinutes", UTC_OFFSET_MINUTES.toString())
+
+                if (clientType.name.startsWith("TV")) {
+                    val configInfo = JSONObject()
+                    configInfo.put("appInstallData", "")
+                    client.put("configInfo", configInfo)
+                }
 
-        try {
-            val client = JSONObject()
-            client.put("deviceMake", clientType.deviceMake)
-            client.put("deviceModel", clientType.deviceModel)
-            client.put("clientName", clientType.clientName)
-            client.put("clientVersion", clientType.clientVersion)
-            client.put("osName", clientType.osName)
-            client.put("osVersion", clientType.osVersion)
-            client.put("androidSdkVersion", clientType.androidSdkVersion)
-            client.put("hl", LOCALE_LANGUAGE)
-            client.put("gl", LOCALE_COUNTRY)
-            client.put("timeZone", TIME_ZONE_ID)
-            client.put("utcOffsetMinutes", UTC_OFFSET_MINUTES.toString())
+                val context = JSONObject()
+                context.put("client", client)
 
-            val context = JSONObject()
-            context.put("client", client)
+                val user = JSONObject()
+                user.put("lockedSafetyMode", false)
+                context.put("user", user)
 
-            innerTubeBody.put("context", context)
-            innerTubeBody.put("contentCheckOk", true)
-            innerTubeBody.put("racyCheckOk", true)
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create android innerTubeBody" }, e)
-        }
+                innerTubeBody.put("context", context)
+                innerTubeBody.put("racyCheckOk", true)
+                innerTubeBody.put("contentCheckOk", true)
+            } catch (e: JSONException) {
+                Logger.printException({ "Failed to create js innerTubeBody" }, e)
+            }
 
-        return innerTubeBody
+            innerTubeBody
+        })
     }
 
+    private fun androidInnerTubeBody() =
+        applicationInnerTubeBody(YouTubeClient.ClientType.ANDROID, LOCALE_LANGUAGE)
+
     @JvmStatic
     fun createPlaylistRequestBody(
         videoId: String,
     ): ByteArray {
-        val innerTubeBody = androidInnerTubeBody()
-
-        try {
-            innerTubeBody.put("params", "CAQ%3D")
+        return androidInnerTubeBody()
+            .put("params", "CAQ%3D")
             // TODO: Implement an AlertDialog that allows changing the title of the playlist.
-            innerTubeBody.put("title", str("revanced_queue_manager_queue"))
-
-            val videoIds = JSONArray()
-            videoIds.put(0, videoId)
-            innerTubeBody.put("videoIds", videoIds)
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create create/playlist innerTubeBody" }, e)
-        }
-
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
+            .put("title", str("revanced_queue_manager_queue"))
+            .put("videoIds", JSONArray().put(videoId))
+            .toByteArray()
     }
 
     @JvmStatic
     fun deletePlaylistRequestBody(
         playlistId: String,
     ): ByteArray {
-        val innerTubeBody = androidInnerTubeBody()
-
-        try {
-            innerTubeBody.put("playlistId", playlistId)
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create delete/playlist innerTubeBody" }, e)
-        }
-
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
+        return androidInnerTubeBody()
+            .put("playlistId", playlistId)
+            .toByteArray()
     }
 
     @JvmStatic
@@ -260,44 +280,29 @@ object InnerTubeRequestBody {
         playlistId: String,
         setVideoId: String?,
     ): ByteArray {
-        val innerTubeBody = androidInnerTubeBody()
-
-        try {
-            innerTubeBody.put("playlistId", playlistId)
-
-            val actionsObject = JSONObject()
-            if (setVideoId != null && setVideoId.isNotEmpty()) {
-                actionsObject.put("action", "ACTION_REMOVE_VIDEO")
-                actionsObject.put("setVideoId", setVideoId)
-            } else {
-                actionsObject.put("action", "ACTION_ADD_VIDEO")
-                actionsObject.put("addedVideoId", videoId)
-            }
-
-            val actionsArray = JSONArray()
-            actionsArray.put(0, actionsObject)
-            innerTubeBody.put("actions", actionsArray)
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create edit/playlist innerTubeBody" }, e)
+        val actionsObject = JSONObject()
+        if (setVideoId != null && setVideoId.isNotEmpty()) {
+            actionsObject.put("action", "ACTION_REMOVE_VIDEO")
+            actionsObject.put("setVideoId", setVideoId)
+        } else {
+            actionsObject.put("action", "ACTION_ADD_VIDEO")
+            actionsObject.put("addedVideoId", videoId)
         }
 
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
+        return androidInnerTubeBody()
+            .put("playlistId", playlistId)
+            .put("actions", JSONArray().put(actionsObject))
+            .toByteArray()
     }
 
     @JvmStatic
     fun getPlaylistsRequestBody(
         playlistId: String,
     ): ByteArray {
-        val innerTubeBody = androidInnerTubeBody()
-
-        try {
-            innerTubeBody.put("playlistId", playlistId)
-            innerTubeBody.put("excludeWatchLater", false)
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create get/playlists innerTubeBody" }, e)
-        }
-
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
+        return androidInnerTubeBody()
+            .put("playlistId", playlistId)
+            .put("excludeWatchLater", false)
+            .toByteArray()
     }
 
     @JvmStatic
@@ -305,23 +310,14 @@ object InnerTubeRequestBody {
         playlistId: String,
         libraryId: String,
     ): ByteArray {
-        val innerTubeBody = androidInnerTubeBody()
-
-        try {
-            innerTubeBody.put("playlistId", playlistId)
-
-            val actionsObject = JSONObject()
-            actionsObject.put("action", "ACTION_ADD_PLAYLIST")
-            actionsObject.put("addedFullListId", libraryId)
-
-            val actionsArray = JSONArray()
-            actionsArray.put(0, actionsObject)
-            innerTubeBody.put("actions", actionsArray)
-        } catch (e: JSONException) {
-            Logger.printException({ "Failed to create save/playlist innerTubeBody" }, e)
-        }
-
-        return innerTubeBody.toString().toByteArray(StandardCharsets.UTF_8)
+        val actionsObject = JSONObject()
+            .put("action", "ACTION_ADD_PLAYLIST")
+            .put("addedFullListId", libraryId)
+
+        return androidInnerTubeBody()
+            .put("playlistId", playlistId)
+            .put("actions", JSONArray().put(actionsObject))
+            .toByteArray()
     }
 
     @JvmStatic
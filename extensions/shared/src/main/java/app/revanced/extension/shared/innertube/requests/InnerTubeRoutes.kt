@@ -31,12 +31,6 @@ object InnerTubeRoutes {
         )
     )
 
-    @JvmField
-    val GET_CATEGORY = compileRoute(
-        endpoint = "player",
-        params = arrayOf("fields=microformat.playerMicroformatRenderer.category"),
-    )
-
     @JvmField
     val GET_PLAYLISTS = compileRoute(
         endpoint = "playlist/get_add_to_playlist",
@@ -53,39 +47,25 @@ object InnerTubeRoutes {
         ),
     )
 
-    @JvmField
-    val GET_PLAYLIST_ENDPOINT = compileRoute(
-        endpoint = "next",
-        params = arrayOf(
-            "fields=contents.singleColumnWatchNextResults." +
-                    "playlist.playlist.contents.playlistPanelVideoRenderer." +
-                    "navigationEndpoint"
-        ),
-    )
-
     @JvmField
     val GET_PLAYLIST_PAGE = compileRoute(
         endpoint = "next",
         params = arrayOf("fields=contents.singleColumnWatchNextResults.playlist.playlist"),
     )
 
-    @JvmField
-    val GET_VIDEO_ACTION_BUTTON = compileRoute(
-        endpoint = "next",
-        params = arrayOf(
-            "fields=contents.singleColumnWatchNextResults." +
-                    "results.results.contents.slimVideoMetadataSectionRenderer." +
-                    "contents.elementRenderer.newElement.type.componentType." +
-                    "model.videoActionBarModel.videoActionBarData.buttons." +
-                    "buttonViewModel"
+    /**
+     * Route of the endpoint that only returns the given fields.
+     *
+     * @param fields Comma separated field masks.
+     */
+    fun getFieldsRoute(
+        endpoint: String,
+        fields: String,
+    ): CompiledRoute =
+        compileRoute(
+            endpoint = endpoint,
+            params = arrayOf("fields=$fields"),
         )
-    )
-
-    @JvmField
-    val GET_VIDEO_DETAILS = compileRoute(
-        endpoint = "player",
-        params = arrayOf("fields=videoDetails")
-    )
 
     fun getStreamingDataRoute(
         tParameter: String,
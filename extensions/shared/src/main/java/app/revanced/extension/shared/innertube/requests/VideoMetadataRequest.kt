@@ -0,0 +1,345 @@
+package app.revanced.extension.shared.innertube.requests
+
+import androidx.annotation.GuardedBy
+import app.revanced.extension.shared.innertube.client.YouTubeClient.ClientType
+import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
+import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createJSRequestBody
+import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
+import app.revanced.extension.shared.requests.JsonPathExtractor
+import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.Route.CompiledRoute
+import app.revanced.extension.shared.utils.Logger
+import app.revanced.extension.shared.utils.Utils
+import app.revanced.extension.shared.utils.Utils.TaskPriority
+import org.json.JSONObject
+import java.io.IOException
+import java.net.SocketTimeoutException
+import java.util.EnumSet
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Fetches the metadata of a video for all consumers with as few InnerTube requests as possible.
+ *
+ * Each consumer asks for a [Field] of a video, using a client and optionally the account request header
+ * and a playlist. Consumers asking for the same video, endpoint, client, playlist and account
+ * share a single request with the fields of all of them.
+ * A request is sent shortly after the first consumer asked for it, so consumers asking
+ * at about the same time (such as when a video starts) are included in the same request.
+ *
+ * The response is parsed once for each consumer, and the result is cached for the most recent videos.
+ */
+object VideoMetadataRequest {
+    private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000L // 20 seconds
+
+    /**
+     * How long to wait for other consumers of the same video, before a request is sent.
+     */
+    private const val MILLISECONDS_TO_COALESCE_REQUESTS = 50L
+
+    private const val CACHE_LIMIT = 50
+
+    enum class Endpoint(val path: String) {
+        PLAYER("player"),
+        NEXT("next"),
+    }
+
+    /**
+     * Part of the response a consumer needs, and the endpoint that returns it.
+     *
+     * @param mask  Field mask of the request.
+     * @param paths Paths of the response that are parsed, if only part of the mask is used.
+     */
+    enum class Field(
+        val endpoint: Endpoint,
+        val mask: String,
+        paths: Array<String>? = null,
+    ) {
+        VIDEO_DETAILS(
+            Endpoint.PLAYER,
+            "videoDetails",
+            arrayOf(
+                "videoDetails.author",
+                "videoDetails.channelId",
+                "videoDetails.isLiveContent",
+                "videoDetails.isUpcoming",
+                "videoDetails.shortDescription",
+                "videoDetails.title",
+            )
+        ),
+        CATEGORY(
+            Endpoint.PLAYER,
+            "microformat.playerMicroformatRenderer.category"
+        ),
+        ACTION_BUTTONS(
+            Endpoint.NEXT,
+            "contents.singleColumnWatchNextResults." +
+                    "results.results.contents.slimVideoMetadataSectionRenderer." +
+                    "contents.elementRenderer.newElement.type.componentType." +
+                    "model.videoActionBarModel.videoActionBarData.buttons." +
+                    "buttonViewModel"
+        ),
+        PLAYLIST_ENDPOINT(
+            Endpoint.NEXT,
+            "contents.singleColumnWatchNextResults." +
+                    "playlist.playlist.contents.playlistPanelVideoRenderer." +
+                    "navigationEndpoint"
+        );
+
+        val paths: Array<String> = paths ?: arrayOf(mask)
+    }
+
+    /**
+     * How the request is sent.
+     *
+     * @param requestHeader Account request header, or null if the request does not need to be logged in.
+     * @param playlistId    Playlist the video is opened in.
+     */
+    class RequestOptions @JvmOverloads constructor(
+        val clientType: ClientType,
+        val requestHeader: Map<String, String>? = null,
+        val playlistId: String? = null,
+    )
+
+    private class Call(
+        val videoId: String,
+        val endpoint: Endpoint,
+        val options: RequestOptions,
+    ) {
+        @GuardedBy("cache")
+        val fields: EnumSet<Field> = EnumSet.noneOf(Field::class.java)
+
+        /**
+         * If the request is sent, after which no more fields can be added.
+         */
+        @GuardedBy("cache")
+        var sent = false
+
+        /**
+         * Completed with null if the request failed.
+         */
+        val response = CompletableFuture<JSONObject?>()
+
+        fun isSameRequest(endpoint: Endpoint, options: RequestOptions) =
+            this.endpoint == endpoint
+                    && this.options.clientType == options.clientType
+                    && this.options.playlistId == options.playlistId
+                    && this.options.requestHeader == options.requestHeader
+    }
+
+    private class Video {
+        val calls = ArrayList<Call>(2)
+
+        /**
+         * Parsed result of each consumer.
+         */
+        val results = HashMap<String, CompletableFuture<*>>(4)
+    }
+
+    @GuardedBy("itself")
+    private val cache = object : LinkedHashMap<String, Video>(2 * CACHE_LIMIT) {
+        override fun removeEldestEntry(eldest: Map.Entry<String, Video>): Boolean {
+            return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
+        }
+    }
+
+    /**
+     * Routes by endpoint and fields.
+     */
+    private val routes = ConcurrentHashMap<String, CompiledRoute>()
+
+    /**
+     * Extractors by fields.
+     */
+    private val extractors = ConcurrentHashMap<String, JsonPathExtractor>()
+
+    /**
+     * Fetches the field of the video for the consumer, unless it was already fetched.
+     *
+     * @param consumer Name of the consumer. A consumer gets the same result for the same video.
+     * @param options  Requests to try in order, until a request does not fail.
+     * @param parse    Parses the field of the consumer from the response, for the client that was used.
+     */
+    @JvmStatic
+    fun <T> fetchIfNeeded(
+        videoId: String,
+        consumer: String,
+        field: Field,
+        options: List<RequestOptions>,
+        parse: (ClientType, JSONObject) -> T?,
+    ) {
+        synchronized(cache) {
+            val video = cache.getOrPut(videoId) { Video() }
+            if (!video.results.containsKey(consumer)) {
+                video.results[consumer] = fetch(videoId, field, options, 0, parse)
+            }
+        }
+    }
+
+    /**
+     * @return The result of the consumer, or null if the consumer did not fetch the video.
+     */
+    @JvmStatic
+    fun <T> getResult(videoId: String, consumer: String): Future<T?>? {
+        synchronized(cache) {
+            @Suppress("UNCHECKED_CAST")
+            return cache[videoId]?.results?.get(consumer) as Future<T?>?
+        }
+    }
+
+    /**
+     * Removes the results of the consumer. The next fetch sends a new request.
+     */
+    @JvmStatic
+    fun clear(consumer: String) {
+        synchronized(cache) {
+            for (video in cache.values) {
+                if (video.results.remove(consumer) != null) {
+                    video.calls.clear()
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the result.
+     *
+     * @return The result, or null if the request failed or timed out.
+     */
+    @JvmStatic
+    fun <T> await(future: Future<T?>, consumer: String): T? {
+        try {
+            return future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH, TimeUnit.MILLISECONDS]
+        } catch (ex: TimeoutException) {
+            Logger.printInfo({ "$consumer timed out" }, ex)
+        } catch (ex: InterruptedException) {
+            Logger.printException({ "$consumer interrupted" }, ex)
+            Thread.currentThread().interrupt() // Restore interrupt status flag.
+        } catch (ex: ExecutionException) {
+            Logger.printException({ "$consumer failure" }, ex)
+        }
+
+        return null
+    }
+
+    private fun <T> fetch(
+        videoId: String,
+        field: Field,
+        options: List<RequestOptions>,
+        index: Int,
+        parse: (ClientType, JSONObject) -> T?,
+    ): CompletableFuture<T?> {
+        val requestOptions = options[index]
+        // Async, so the response is never parsed on the calling thread while it holds the lock of the cache.
+        return getCall(videoId, field, requestOptions).response.thenComposeAsync({ json ->
+            if (json == null && index + 1 < options.size) {
+                fetch(videoId, field, options, index + 1, parse)
+            } else {
+                CompletableFuture.completedFuture(json?.let { parse(requestOptions.clientType, it) })
+            }
+        }, TaskPriority.USER_VISIBLE)
+    }
+
+    /**
+     * @return A request that includes the field, which is either pending, sent or a new request.
+     */
+    private fun getCall(videoId: String, field: Field, options: RequestOptions): Call {
+        synchronized(cache) {
+            val video = cache.getOrPut(videoId) { Video() }
+            for (call in video.calls) {
+                if (call.isSameRequest(field.endpoint, options)) {
+                    if (!call.sent) {
+                        call.fields.add(field)
+                        return call
+                    }
+                    if (call.fields.contains(field)) {
+                        return call
+                    }
+                }
+            }
+
+            val call = Call(videoId, field.endpoint, options)
+            call.fields.add(field)
+            video.calls.add(call)
+            Utils.runOnBackgroundThreadDelayed(TaskPriority.USER_VISIBLE, MILLISECONDS_TO_COALESCE_REQUESTS) {
+                send(call)
+            }
+            return call
+        }
+    }
+
+    private fun send(call: Call) {
+        val fields = synchronized(cache) {
+            call.sent = true
+            call.fields.toList()
+        }
+
+        val json = try {
+            sendRequest(call, fields)
+        } catch (ex: Exception) {
+            Logger.printException({ "send failed" }, ex)
+            null
+        }
+        call.response.complete(json)
+    }
+
+    private fun sendRequest(call: Call, fieldList: List<Field>): JSONObject? {
+        val fields = fieldList.joinToString(separator = ",") { it.mask }
+        val videoId = call.videoId
+        val clientType = call.options.clientType
+        val clientTypeName = clientType.name
+        val startTime = System.currentTimeMillis()
+        Logger.printDebug { "Fetching ${call.endpoint.path} request for: $videoId, fields: $fields, using client: $clientTypeName" }
+
+        try {
+            val route = routes.getOrPut(call.endpoint.path + fields) {
+                InnerTubeRoutes.getFieldsRoute(call.endpoint.path, fields)
+            }
+            val connection = getInnerTubeResponseConnectionFromRoute(
+                route,
+                clientType,
+                call.options.requestHeader,
+            )
+            val requestBody = if (clientType.requireJS) {
+                createJSRequestBody(
+                    clientType = clientType,
+                    videoId = videoId,
+                )
+            } else {
+                createApplicationRequestBody(
+                    clientType = clientType,
+                    videoId = videoId,
+                    playlistId = call.options.playlistId,
+                )
+            }
+
+            connection.setFixedLengthStreamingMode(requestBody.size)
+            connection.outputStream.write(requestBody)
+
+            val responseCode = connection.responseCode
+            if (responseCode == 200) {
+                val extractor = extractors.getOrPut(fields) {
+                    JsonPathExtractor(*fieldList.flatMap { it.paths.asList() }.toTypedArray())
+                }
+                return Requester.parseJSONObject(connection, extractor)
+            }
+
+            Logger.printInfo {
+                (clientTypeName + " not available with response code: "
+                        + responseCode + " message: " + connection.responseMessage)
+            }
+        } catch (ex: SocketTimeoutException) {
+            Logger.printInfo({ "Connection timeout" }, ex)
+        } catch (ex: IOException) {
+            Logger.printInfo({ "Network error" }, ex)
+        } finally {
+            Logger.printDebug { "video: " + videoId + " took: " + (System.currentTimeMillis() - startTime) + "ms" }
+        }
+
+        return null
+    }
+}
@@ -5,6 +5,7 @@ import android.util.Pair;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.liskovsoft.googlecommon.common.js.V8Executor;
 import com.liskovsoft.sharedutils.helpers.Helpers;
 import com.liskovsoft.youtubeapi.app.playerdata.PlayerDataExtractor;
 
@@ -411,7 +412,10 @@ public class ThrottlingParameterUtils {
     private static PlayerDataExtractor setExtractor() {
         String playerJs = getPlayerJs();
         if (playerJs != null) {
-            return new PlayerDataExtractor(playerJs, useEJS);
+            PlayerDataExtractor extractor = new PlayerDataExtractor(playerJs, useEJS);
+            // All javascript is executed on a single V8 thread, log how long the player took to initialize.
+            V8Executor.instance().logExecutionStatistics();
+            return extractor;
         }
         return null;
     }
@@ -431,6 +435,10 @@ public class ThrottlingParameterUtils {
     @Nullable
     public static String fetch(@NonNull String url, boolean isTV) {
         try {
+            if (!Utils.isCurrentlyOnMainThread()) {
+                // Called by background tasks, which must not wait for another background task.
+                return fetchUrl(url, isTV);
+            }
             return Utils.submitOnBackgroundThread(() -> fetchUrl(url, isTV)).get();
         } catch (ExecutionException | InterruptedException ex) {
             Logger.printDebug(() -> "Could not fetch url: " + url, ex);
@@ -41,6 +41,10 @@ public class AuthRequest {
     @Nullable
     public static JSONObject fetch(RequestType requestType, @Nullable String token) {
         try {
+            if (!Utils.isCurrentlyOnMainThread()) {
+                // Called by background tasks, which must not wait for another background task.
+                return fetchUrl(requestType, token);
+            }
             return Utils.submitOnBackgroundThread(() -> fetchUrl(requestType, token)).get();
         } catch (ExecutionException | InterruptedException ex) {
             Logger.printDebug(() -> "fetch failed: " + requestType, ex);
@@ -73,7 +73,9 @@ public abstract class Filter {
      * Default implementation is to always filter the matched component and log the action.
      * Subclasses can perform additional or different checks if needed.
      * <p>
-     * Method is called off the main thread.
+     * Method is called off the main thread, and can be called by multiple litho layout threads at the same time.
+     * Implementations must not keep per-call state in fields, and any state shared between calls
+     * must be published as a single immutable object or guarded by a lock.
      *
      * @param matchedGroup The actual filter that matched.
      * @param contentType  The type of content matched.
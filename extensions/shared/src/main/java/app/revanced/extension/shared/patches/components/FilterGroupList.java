@@ -25,12 +25,16 @@ public abstract class FilterGroupList<V, T extends FilterGroup<V>> implements It
     public final void addAll(final T... groups) {
         filterGroups.addAll(Arrays.asList(groups));
 
+        // Patterns are added in one call, so the search graph is built in a single pass.
+        List<V> patterns = new ArrayList<>();
+        List<TrieSearch.TriePatternMatchedCallback<V>> callbacks = new ArrayList<>();
         for (T group : groups) {
             if (!group.includeInSearch()) {
                 continue;
             }
             for (V pattern : group.filters) {
-                search.addPattern(pattern, (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+                patterns.add(pattern);
+                callbacks.add((textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
                     if (group.isEnabled()) {
                         FilterGroup.FilterGroupResult result = (FilterGroup.FilterGroupResult) callbackParameter;
                         result.setValues(group.setting, matchedStartIndex, matchedLength);
@@ -40,6 +44,7 @@ public abstract class FilterGroupList<V, T extends FilterGroup<V>> implements It
                 });
             }
         }
+        search.addPatterns(patterns, callbacks);
     }
 
     @NonNull
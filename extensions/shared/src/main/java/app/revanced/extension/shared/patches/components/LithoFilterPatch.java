@@ -6,11 +6,13 @@ import androidx.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
 
 import app.revanced.extension.shared.settings.BaseSettings;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.StringTrieSearch;
+import app.revanced.extension.shared.utils.TrieSearch;
 
 @SuppressWarnings("unused")
 public final class LithoFilterPatch {
@@ -77,7 +79,7 @@ public final class LithoFilterPatch {
     }
 
     /**
-     * Litho layout fixed thread pool size override.
+     * Litho layout fixed thread pool size, used if {@link BaseSettings#LITHO_LAYOUT_THREAD_POOL_SIZE} is invalid.
      * <p>
      * Unpatched YouTube uses a layout fixed thread pool between 1 and 3 threads:
      * <pre>
@@ -87,10 +89,16 @@ public final class LithoFilterPatch {
      * </pre>
      * <p>
      * Using more than 1 thread causes layout issues such as the You tab watch/playlist shelf
-     * that is sometimes incorrectly hidden (ReVanced is not hiding it), and seems to
-     * fix a race issue if using the active navigation tab status with litho filtering.
+     * that is sometimes incorrectly hidden (ReVanced is not hiding it).
+     * Filtering itself is safe to use with multiple threads,
+     * so 1 thread is only kept as the default and as a fallback for this issue.
      */
-    private static final int LITHO_LAYOUT_THREAD_POOL_SIZE = 1;
+    private static final int LITHO_LAYOUT_THREAD_POOL_SIZE_FALLBACK = 1;
+
+    /**
+     * Setting value to use the thread pool size of the unpatched app.
+     */
+    private static final int LITHO_LAYOUT_THREAD_POOL_SIZE_ORIGINAL = 0;
 
     private static final Filter[] filters = new Filter[]{
             new DummyFilter() // Replaced patching, do not touch.
@@ -102,30 +110,78 @@ public final class LithoFilterPatch {
 
     private static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
+    /**
+     * Hands off the proto buffer from {@link #setProtoBuffer(byte[])} to {@link #isFiltered(StringBuilder, String, Object)}.
+     * Each litho layout thread has its own instance. The last buffer set is kept and used for every
+     * component filtered by the thread, until a new buffer is set.
+     */
+    private static final class ProtoBufferHandoff {
+        @Nullable
+        private byte[] buffer;
+
+        void set(@Nullable byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * @return The last buffer that was set, or null if no buffer was set yet.
+         */
+        @Nullable
+        byte[] get() {
+            return buffer;
+        }
+    }
+
     /**
      * Because litho filtering is multi-threaded and the buffer is passed in from a different injection point,
-     * the buffer is saved to a ThreadLocal so each calling thread does not interfere with other threads.
+     * the buffer is handed off per thread so each calling thread does not interfere with other threads.
      */
-    private static final ThreadLocal<byte[]> bufferThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<ProtoBufferHandoff> bufferHandoff = ThreadLocal.withInitial(ProtoBufferHandoff::new);
+
+    /**
+     * Patterns and callbacks of a search tree, collected from all filters
+     * so the tree can be built in one pass.
+     */
+    private static final class SearchTreePatterns {
+        final List<String> patterns = new ArrayList<>();
+        final List<TrieSearch.TriePatternMatchedCallback<String>> callbacks = new ArrayList<>();
+
+        void buildInto(StringTrieSearch searchTree) {
+            searchTree.addPatterns(patterns, callbacks);
+        }
+    }
 
     static {
+        final long startTime = System.nanoTime();
+
+        SearchTreePatterns identifierPatterns = new SearchTreePatterns();
+        SearchTreePatterns pathPatterns = new SearchTreePatterns();
+        SearchTreePatterns allValuePatterns = new SearchTreePatterns();
+
         for (Filter filter : filters) {
-            filterUsingCallbacks(identifierSearchTree, filter,
+            filterUsingCallbacks(identifierPatterns, filter,
                     filter.identifierCallbacks, Filter.FilterContentType.IDENTIFIER);
-            filterUsingCallbacks(pathSearchTree, filter,
+            filterUsingCallbacks(pathPatterns, filter,
                     filter.pathCallbacks, Filter.FilterContentType.PATH);
-            filterUsingCallbacks(allValueSearchTree, filter,
+            filterUsingCallbacks(allValuePatterns, filter,
                     filter.allValueCallbacks, Filter.FilterContentType.ALLVALUE);
         }
 
+        identifierPatterns.buildInto(identifierSearchTree);
+        pathPatterns.buildInto(pathSearchTree);
+        allValuePatterns.buildInto(allValueSearchTree);
+
         Logger.printDebug(() -> "Using: "
                 + identifierSearchTree.numberOfPatterns() + " identifier filters"
                 + " (" + identifierSearchTree.getEstimatedMemorySize() + " KB), "
                 + pathSearchTree.numberOfPatterns() + " path filters"
-                + " (" + pathSearchTree.getEstimatedMemorySize() + " KB)");
+                + " (" + pathSearchTree.getEstimatedMemorySize() + " KB), "
+                + allValueSearchTree.numberOfPatterns() + " all value filters"
+                + " (" + allValueSearchTree.getEstimatedMemorySize() + " KB)"
+                + " built in: " + (System.nanoTime() - startTime) / 1_000_000 + "ms");
     }
 
-    private static void filterUsingCallbacks(StringTrieSearch pathSearchTree,
+    private static void filterUsingCallbacks(SearchTreePatterns searchTreePatterns,
                                              Filter filter, List<StringFilterGroup> groups,
                                              Filter.FilterContentType type) {
         String filterSimpleName = filter.getClass().getSimpleName();
@@ -136,8 +192,9 @@ public final class LithoFilterPatch {
             }
 
             for (String pattern : group.filters) {
-                pathSearchTree.addPattern(pattern, (textSearched, matchedStartIndex,
-                                                    matchedLength, callbackParameter) -> {
+                searchTreePatterns.patterns.add(pattern);
+                searchTreePatterns.callbacks.add((textSearched, matchedStartIndex,
+                                                  matchedLength, callbackParameter) -> {
                             if (!group.isEnabled()) return false;
 
                             LithoFilterParameters parameters = (LithoFilterParameters) callbackParameter;
@@ -169,11 +226,11 @@ public final class LithoFilterPatch {
      * Targets 20.22+.
      */
     public static void setProtoBuffer(byte[] buffer) {
-        // Set the buffer to a thread local.  The buffer will remain in memory, even after the call to #filter completes.
+        // Hand off the buffer to this thread.  The buffer will remain in memory, even after the call to #filter completes.
         // This is intentional, as it appears the buffer can be set once and then filtered multiple times.
         // The buffer will be cleared from memory after a new buffer is set by the same thread,
         // or when the calling thread eventually dies.
-        bufferThreadLocal.set(buffer);
+        bufferHandoff.get().set(buffer);
     }
 
     /**
@@ -181,10 +238,6 @@ public final class LithoFilterPatch {
      * Targets 20.21 and lower.
      */
     public static void setProtoBuffer(@Nullable ByteBuffer buffer) {
-        // Set the buffer to a thread local.  The buffer will remain in memory, even after the call to #filter completes.
-        // This is intentional, as it appears the buffer can be set once and then filtered multiple times.
-        // The buffer will be cleared from memory after a new buffer is set by the same thread,
-        // or when the calling thread eventually dies.
         if (buffer == null || !buffer.hasArray()) {
             // It appears the buffer can be cleared out just before the call to #filter()
             // Ignore this null value and retain the last buffer that was set.
@@ -203,7 +256,7 @@ public final class LithoFilterPatch {
                 return false;
             }
 
-            byte[] buffer = bufferThreadLocal.get();
+            byte[] buffer = bufferHandoff.get().get();
             // Potentially the buffer may have been null or never set up until now.
             // Use an empty buffer so the litho id/path filters still work correctly.
             if (buffer == null) {
@@ -232,28 +285,48 @@ public final class LithoFilterPatch {
         return false;
     }
 
+    private static int getLayoutThreadPoolSize(int originalSize) {
+        try {
+            final int poolSize = BaseSettings.LITHO_LAYOUT_THREAD_POOL_SIZE.get();
+            if (poolSize == LITHO_LAYOUT_THREAD_POOL_SIZE_ORIGINAL) {
+                return originalSize;
+            }
+            if (poolSize > 0 && poolSize <= Runtime.getRuntime().availableProcessors()) {
+                return poolSize;
+            }
+
+            Logger.printDebug(() -> "Invalid litho layout thread pool size: " + poolSize);
+        } catch (Exception ex) {
+            Logger.printException(() -> "getLayoutThreadPoolSize failure", ex);
+        }
+
+        return LITHO_LAYOUT_THREAD_POOL_SIZE_FALLBACK;
+    }
+
     /**
      * Injection point.
      */
     public static int getExecutorCorePoolSize(int originalCorePoolSize) {
-        if (originalCorePoolSize != LITHO_LAYOUT_THREAD_POOL_SIZE) {
+        final int corePoolSize = getLayoutThreadPoolSize(originalCorePoolSize);
+        if (originalCorePoolSize != corePoolSize) {
             Logger.printDebug(() -> "Overriding core thread pool size from: " + originalCorePoolSize
-                    + " to: " + LITHO_LAYOUT_THREAD_POOL_SIZE);
+                    + " to: " + corePoolSize);
         }
 
-        return LITHO_LAYOUT_THREAD_POOL_SIZE;
+        return corePoolSize;
     }
 
     /**
      * Injection point.
      */
     public static int getExecutorMaxThreads(int originalMaxThreads) {
-        if (originalMaxThreads != LITHO_LAYOUT_THREAD_POOL_SIZE) {
+        final int maxThreads = getLayoutThreadPoolSize(originalMaxThreads);
+        if (originalMaxThreads != maxThreads) {
             Logger.printDebug(() -> "Overriding max thread pool size from: " + originalMaxThreads
-                    + " to: " + LITHO_LAYOUT_THREAD_POOL_SIZE);
+                    + " to: " + maxThreads);
         }
 
-        return LITHO_LAYOUT_THREAD_POOL_SIZE;
+        return maxThreads;
     }
 }
 
@@ -16,15 +16,15 @@ import app.revanced.extension.shared.innertube.utils.ThrottlingParameterUtils
 import app.revanced.extension.shared.patches.auth.AuthPatch
 import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup
 import app.revanced.extension.shared.patches.spoof.StreamingDataOuterClassPatch.parseFrom
+import app.revanced.extension.shared.requests.Requester
 import app.revanced.extension.shared.settings.BaseSettings
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.StringRef.str
 import app.revanced.extension.shared.utils.Utils
+import app.revanced.extension.shared.utils.Utils.TaskPriority
 import com.google.protos.youtube.api.innertube.StreamingDataOuterClass.StreamingData
 import com.liskovsoft.youtubeapi.app.PoTokenGate
 import org.apache.commons.lang3.StringUtils
-import java.io.BufferedInputStream
-import java.io.ByteArrayOutputStream
 import java.io.IOException
 import java.net.HttpURLConnection
 import java.net.SocketTimeoutException
@@ -60,7 +60,7 @@ class StreamingDataRequest private constructor(
     init {
         Objects.requireNonNull(requestHeader)
         this.videoId = videoId
-        this.future = Utils.submitOnBackgroundThread {
+        this.future = Utils.submitOnBackgroundThread(TaskPriority.PLAYBACK) {
             fetch(
                 videoId = videoId,
                 tParameter = tParameter,
@@ -488,95 +488,83 @@ class StreamingDataRequest private constructor(
                         if (connection.contentLength == 0) {
                             Logger.printDebug { "Received empty response (clientType: $clientType, videoId: $videoId)" }
                         } else {
-                            BufferedInputStream(connection.inputStream).use { inputStream ->
-                                ByteArrayOutputStream().use { stream ->
-                                    val buffer = ByteArray(2048)
-                                    var bytesRead: Int
-                                    while ((inputStream.read(buffer)
-                                            .also { bytesRead = it }) >= 0
-                                    ) {
-                                        stream.write(buffer, 0, bytesRead)
-                                    }
-                                    // Android Creator can't play livestreams, but it doesn't have an empty response (no formats available).
-                                    // Since it doesn't have an empty response, the app doesn't try to fetch with another client, and it tries to play the livestream.
-                                    // However, the response doesn't contain any formats available, so an exception is thrown.
-                                    // As a workaround for this issue, if Android Creator is used for fetching, it should check if the video is a livestream.
-                                    if (clientType == ClientType.ANDROID_CREATOR
-                                        && liveStreams.check(buffer).isFiltered //
-                                    ) {
-                                        Logger.printDebug { "Ignore Android Studio spoofing as it is a livestream (videoId: $videoId)" }
-                                    } else {
-                                        lastSpoofedClient = null
-
-                                        // Parses the Proto Buffer and returns StreamingData (GeneratedMessage).
-                                        val streamBytes: ByteArray = stream.toByteArray()
-
-                                        val playabilityStatus =
-                                            getPlayabilityStatus(videoId, streamBytes)
-                                        if (playabilityStatus == "OK") {
-                                            var streamingData =
-                                                parseFrom(ByteBuffer.wrap(streamBytes))
-
-                                            if (streamingData != null) {
-                                                if (clientType.requireJS) {
-                                                    // ArrayList containing the deobfuscated streamingUrl
-                                                    val arrayLists = getDeobfuscatedUrlArrayList(
-                                                        clientType,
-                                                        videoId,
-                                                        cpn,
-                                                        streamBytes
+                            val streamBytes: ByteArray = Requester.parseBytes(connection)
+                            // Android Creator can't play livestreams, but it doesn't have an empty response (no formats available).
+                            // Since it doesn't have an empty response, the app doesn't try to fetch with another client, and it tries to play the livestream.
+                            // However, the response doesn't contain any formats available, so an exception is thrown.
+                            // As a workaround for this issue, if Android Creator is used for fetching, it should check if the video is a livestream.
+                            if (clientType == ClientType.ANDROID_CREATOR
+                                && liveStreams.check(streamBytes).isFiltered //
+                            ) {
+                                Logger.printDebug { "Ignore Android Studio spoofing as it is a livestream (videoId: $videoId)" }
+                            } else {
+                                lastSpoofedClient = null
+
+                                // Parses the Proto Buffer and returns StreamingData (GeneratedMessage).
+                                val playabilityStatus =
+                                    getPlayabilityStatus(videoId, streamBytes)
+                                if (playabilityStatus == "OK") {
+                                    var streamingData =
+                                        parseFrom(ByteBuffer.wrap(streamBytes))
+
+                                    if (streamingData != null) {
+                                        if (clientType.requireJS) {
+                                            // ArrayList containing the deobfuscated streamingUrl
+                                            val arrayLists = getDeobfuscatedUrlArrayList(
+                                                clientType,
+                                                videoId,
+                                                cpn,
+                                                streamBytes
+                                            )
+                                            if (arrayLists != null) {
+                                                // MutableMap containing the deobfuscated streamingUrl.
+                                                // This is used for clients where streamingUrl is obfuscated.
+                                                val deobfuscatedAdaptiveFormatsArrayList =
+                                                    arrayLists.first
+                                                val deobfuscatedFormatsArrayList =
+                                                    arrayLists.second
+                                                val serverAbrStreamingUrl =
+                                                    arrayLists.third
+                                                if (!deobfuscatedAdaptiveFormatsArrayList.isNullOrEmpty()) {
+                                                    streamingData =
+                                                        deobfuscateStreamingData(
+                                                            deobfuscatedUrlArrayList = deobfuscatedAdaptiveFormatsArrayList,
+                                                            isAdaptiveFormats = true,
+                                                            streamingData = streamingData
+                                                        )
+                                                }
+                                                if (!deobfuscatedFormatsArrayList.isNullOrEmpty()) {
+                                                    streamingData =
+                                                        deobfuscateStreamingData(
+                                                            deobfuscatedUrlArrayList = deobfuscatedFormatsArrayList,
+                                                            isAdaptiveFormats = false,
+                                                            streamingData = streamingData
+                                                        )
+                                                }
+                                                if (!serverAbrStreamingUrl.isNullOrEmpty()) {
+                                                    setServerAbrStreamingUrl(
+                                                        streamingData,
+                                                        serverAbrStreamingUrl
                                                     )
-                                                    if (arrayLists != null) {
-                                                        // MutableMap containing the deobfuscated streamingUrl.
-                                                        // This is used for clients where streamingUrl is obfuscated.
-                                                        val deobfuscatedAdaptiveFormatsArrayList =
-                                                            arrayLists.first
-                                                        val deobfuscatedFormatsArrayList =
-                                                            arrayLists.second
-                                                        val serverAbrStreamingUrl =
-                                                            arrayLists.third
-                                                        if (!deobfuscatedAdaptiveFormatsArrayList.isNullOrEmpty()) {
-                                                            streamingData =
-                                                                deobfuscateStreamingData(
-                                                                    deobfuscatedUrlArrayList = deobfuscatedAdaptiveFormatsArrayList,
-                                                                    isAdaptiveFormats = true,
-                                                                    streamingData = streamingData
-                                                                )
-                                                        }
-                                                        if (!deobfuscatedFormatsArrayList.isNullOrEmpty()) {
-                                                            streamingData =
-                                                                deobfuscateStreamingData(
-                                                                    deobfuscatedUrlArrayList = deobfuscatedFormatsArrayList,
-                                                                    isAdaptiveFormats = false,
-                                                                    streamingData = streamingData
-                                                                )
-                                                        }
-                                                        if (!serverAbrStreamingUrl.isNullOrEmpty()) {
-                                                            setServerAbrStreamingUrl(
-                                                                streamingData,
-                                                                serverAbrStreamingUrl
-                                                            )
-                                                        }
-
-                                                        lastSpoofedClient = clientType
-                                                        overrideLanguage = ""
-                                                        return streamingData
-                                                    }
-                                                } else {
-                                                    lastSpoofedClient = clientType
-                                                    overrideLanguage = ""
-                                                    return streamingData
                                                 }
-                                            } else {
-                                                Logger.printDebug { "Ignore empty streamingData, (clientType: $clientType, videoId: $videoId)" }
+
+                                                lastSpoofedClient = clientType
+                                                overrideLanguage = ""
+                                                return streamingData
                                             }
-                                        } else if (playabilityStatus == "LIVE_STREAM_OFFLINE") {
-                                            Logger.printDebug { "Ignore UPCOMING video (videoId: $videoId)" }
-                                            return null
                                         } else {
-                                            Logger.printDebug { "Ignore unplayable video, (playabilityStatus: $playabilityStatus, clientType: $clientType, videoId: $videoId)" }
+                                            lastSpoofedClient = clientType
+                                            overrideLanguage = ""
+                                            return streamingData
                                         }
+                                    } else {
+                                        Logger.printDebug { "Ignore empty streamingData, (clientType: $clientType, videoId: $videoId)" }
                                     }
+                                } else if (playabilityStatus == "LIVE_STREAM_OFFLINE") {
+                                    Logger.printDebug { "Ignore UPCOMING video (videoId: $videoId)" }
+                                    return null
+                                } else {
+                                    Logger.printDebug { "Ignore unplayable video, (playabilityStatus: $playabilityStatus, clientType: $clientType, videoId: $videoId)" }
                                 }
                             }
                         }
@@ -0,0 +1,222 @@
+package app.revanced.extension.shared.requests;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads only the given paths of a JSON object, while the JSON is streamed.
+ * <p>
+ * Values that are not on a path are skipped without being parsed into objects,
+ * and reading stops as soon as every path is found.
+ * The result is a {@link JSONObject} with the same structure as the original JSON,
+ * but containing only the values of the paths.
+ * <p>
+ * Paths use the same dot notation as the InnerTube 'fields' parameter, such as 'videoDetails.title'.
+ * Arrays on a path are searched element by element, and elements with nothing on the path
+ * are kept as empty objects so array indexes do not change.
+ * <p>
+ * Instances are immutable and can be used from any thread.
+ */
+public final class JsonPathExtractor {
+
+    private static final class PathNode {
+        final Map<String, PathNode> children = new HashMap<>(4);
+        /**
+         * If the entire value at this node is extracted.
+         */
+        boolean extractValue;
+    }
+
+    /**
+     * State of a single extraction.
+     */
+    private static final class Extraction {
+        final JsonReader reader;
+        /**
+         * Number of paths not yet found.
+         */
+        int remainingPaths;
+        /**
+         * If a path goes through an array, in which case all of the JSON must be read
+         * (as any further array element can also match).
+         */
+        boolean pathInArray;
+
+        Extraction(JsonReader reader, int remainingPaths) {
+            this.reader = reader;
+            this.remainingPaths = remainingPaths;
+        }
+
+        boolean isDone() {
+            return remainingPaths == 0 && !pathInArray;
+        }
+    }
+
+    private final PathNode root = new PathNode();
+    private final int pathCount;
+
+    public JsonPathExtractor(@NonNull String... paths) {
+        for (String path : paths) {
+            PathNode node = root;
+            for (String name : path.split("\\.")) {
+                if (node.extractValue) break; // A parent path is already extracted entirely.
+
+                PathNode child = node.children.get(name);
+                if (child == null) {
+                    child = new PathNode();
+                    node.children.put(name, child);
+                }
+                node = child;
+            }
+            node.extractValue = true;
+            node.children.clear();
+        }
+        pathCount = countPaths(root);
+        if (pathCount == 0) {
+            throw new IllegalArgumentException("No paths");
+        }
+    }
+
+    private static int countPaths(PathNode node) {
+        if (node.extractValue) return 1;
+        int count = 0;
+        for (PathNode child : node.children.values()) {
+            count += countPaths(child);
+        }
+        return count;
+    }
+
+    /**
+     * Reads the paths from a JSON object. The reader is not closed,
+     * and it is not read further once all paths are found.
+     */
+    @NonNull
+    public JSONObject extract(@NonNull Reader reader) throws IOException, JSONException {
+        try {
+            Extraction extraction = new Extraction(new JsonReader(reader), pathCount);
+            if (extraction.reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new JSONException("Not a JSON object: " + extraction.reader.peek());
+            }
+            return readObject(extraction, root);
+        } catch (IllegalStateException | NumberFormatException ex) {
+            // Thrown by the reader if the JSON is not as expected.
+            JSONException jsonException = new JSONException(ex.getMessage());
+            jsonException.initCause(ex);
+            throw jsonException;
+        }
+    }
+
+    private static JSONObject readObject(Extraction extraction, PathNode node)
+            throws IOException, JSONException {
+        final JsonReader reader = extraction.reader;
+        JSONObject result = new JSONObject();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            PathNode child = node.children.get(name);
+            if (child == null) {
+                reader.skipValue();
+                continue;
+            }
+
+            Object value;
+            if (child.extractValue) {
+                value = readValue(reader);
+                extraction.remainingPaths--;
+            } else {
+                value = readPath(extraction, child);
+            }
+            if (value != null) {
+                result.put(name, value);
+            }
+
+            if (extraction.isDone()) {
+                // Remaining JSON is not needed.
+                return result;
+            }
+        }
+        reader.endObject();
+
+        return result;
+    }
+
+    /**
+     * @return The value on the path, or null if the value is not an object or array.
+     */
+    @Nullable
+    private static Object readPath(Extraction extraction, PathNode node)
+            throws IOException, JSONException {
+        final JsonReader reader = extraction.reader;
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                return readObject(extraction, node);
+            case BEGIN_ARRAY:
+                extraction.pathInArray = true;
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    Object element = readPath(extraction, node);
+                    array.put(element == null ? new JSONObject() : element);
+                }
+                reader.endArray();
+                return array;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    /**
+     * Reads the entire value.
+     */
+    private static Object readValue(JsonReader reader) throws IOException, JSONException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                JSONObject object = new JSONObject();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    object.put(name, readValue(reader));
+                }
+                reader.endObject();
+                return object;
+            case BEGIN_ARRAY:
+                JSONArray array = new JSONArray();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    array.put(readValue(reader));
+                }
+                reader.endArray();
+                return array;
+            case STRING:
+                return reader.nextString();
+            case NUMBER:
+                String number = reader.nextString();
+                try {
+                    return Long.parseLong(number);
+                } catch (NumberFormatException ex) {
+                    return Double.parseDouble(number);
+                }
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected token: " + reader.peek());
+        }
+    }
+}
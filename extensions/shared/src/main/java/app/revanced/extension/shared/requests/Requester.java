@@ -8,13 +8,38 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import app.revanced.extension.shared.utils.PackageUtils;
 
 @SuppressWarnings("unused")
 public class Requester {
+    /**
+     * Largest response length that is allocated before the response is read.
+     */
+    private static final int MAX_CONTENT_LENGTH_TO_PREALLOCATE = 16 * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Largest read buffer that is kept for later responses.
+     */
+    private static final int MAX_READ_BUFFER_SIZE = 512 * 1024;
+
+    /**
+     * Buffer of each thread for reading responses of unknown length.
+     */
+    private static final ThreadLocal<byte[]> readBuffer = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[READ_BUFFER_SIZE];
+        }
+    };
+
     private Requester() {
     }
 
@@ -37,27 +62,64 @@ public class Requester {
     }
 
     /**
-     * Parse the {@link HttpURLConnection}, and closes the underlying InputStream.
+     * Read the {@link InputStream} of a response, and closes the InputStream.
+     * <p>
+     * If the length of the response is known, the response is read directly into an array of that length.
+     * Otherwise (such as when the response was gzip encoded and is decompressed while reading)
+     * it is read into a buffer that is reused by later responses of the same thread.
+     *
+     * @param contentLength Length of the response, or -1 if not known.
      */
-    private static String parseInputStreamAndClose(InputStream inputStream) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            StringBuilder jsonBuilder = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                jsonBuilder.append(line);
-                jsonBuilder.append('\n');
+    private static byte[] readInputStreamAndClose(InputStream inputStream, int contentLength) throws IOException {
+        try (InputStream stream = inputStream) {
+            if (contentLength >= 0 && contentLength <= MAX_CONTENT_LENGTH_TO_PREALLOCATE) {
+                byte[] bytes = new byte[contentLength];
+                int length = 0;
+                while (length < contentLength) {
+                    final int read = stream.read(bytes, length, contentLength - length);
+                    if (read < 0) {
+                        // Connection closed before the entire response was received.
+                        return Arrays.copyOf(bytes, length);
+                    }
+                    length += read;
+                }
+                return bytes;
             }
-            return jsonBuilder.toString();
+
+            byte[] buffer = readBuffer.get();
+            int length = 0;
+            int read;
+            while ((read = stream.read(buffer, length, buffer.length - length)) >= 0) {
+                length += read;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            if (buffer.length <= MAX_READ_BUFFER_SIZE) {
+                readBuffer.set(buffer);
+            }
+            return Arrays.copyOf(buffer, length);
         }
     }
 
+    /**
+     * Parse the {@link HttpURLConnection} response as bytes, and closes the underlying InputStream.
+     * This does not close the url connection.
+     * <p>
+     * The connection uses gzip encoding if the server supports it,
+     * and the response is decompressed while it is read.
+     */
+    public static byte[] parseBytes(HttpURLConnection connection) throws IOException {
+        return readInputStreamAndClose(connection.getInputStream(), connection.getContentLength());
+    }
+
     /**
      * Parse the {@link HttpURLConnection} response as a String.
      * This does not close the url connection. If further requests to this host are unlikely
      * in the near future, then instead use {@link #parseStringAndDisconnect(HttpURLConnection)}.
      */
     public static String parseString(HttpURLConnection connection) throws IOException {
-        return parseInputStreamAndClose(connection.getInputStream());
+        return new String(parseBytes(connection), StandardCharsets.UTF_8);
     }
 
     /**
@@ -82,7 +144,7 @@ public class Requester {
         if (errorStream == null) {
             return "";
         }
-        return parseInputStreamAndClose(errorStream);
+        return new String(readInputStreamAndClose(errorStream, connection.getContentLength()), StandardCharsets.UTF_8);
     }
 
     /**
@@ -108,6 +170,19 @@ public class Requester {
         return new JSONObject(parseString(connection));
     }
 
+    /**
+     * Parse only the paths of the extractor from the {@link HttpURLConnection} response,
+     * and closes the underlying InputStream.
+     * The rest of the response is skipped without being parsed,
+     * and is not read at all once all paths are found.
+     * This does not close the url connection.
+     */
+    public static JSONObject parseJSONObject(HttpURLConnection connection, JsonPathExtractor extractor) throws JSONException, IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            return extractor.extract(reader);
+        }
+    }
+
     /**
      * Parse the {@link HttpURLConnection}, close the underlying InputStream, and disconnect.
      * <p>
@@ -0,0 +1,135 @@
+package app.revanced.extension.shared.requests;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Requests by key, where everyone asking for the same key gets the same request
+ * instead of sending the request again.
+ * <p>
+ * A request fetches its result when it is created (such as with a background future),
+ * so callers asking for a key while it is still being fetched all wait for the same fetch,
+ * and callers asking later get the result of that fetch.
+ * <p>
+ * Requests are kept until the cache is full (the oldest request is removed),
+ * until they are older than the retention time, or until they are removed.
+ *
+ * @param <K> Key of the request. The key must include all parameters that change the result.
+ * @param <R> Request.
+ */
+public final class SingleFlightCache<K, R> {
+
+    private static final class Entry<R> {
+        final R request;
+        final long timeCreated;
+
+        Entry(R request, long timeCreated) {
+            this.request = request;
+            this.timeCreated = timeCreated;
+        }
+    }
+
+    /**
+     * How long requests are kept, or zero to keep requests until they are removed.
+     */
+    private final long retentionMilliseconds;
+
+    /**
+     * If a request can be shared with later callers, such as only if it did not fail.
+     */
+    @Nullable
+    private final Predicate<R> isReusable;
+
+    @GuardedBy("itself")
+    private final LinkedHashMap<K, Entry<R>> cache;
+
+    public SingleFlightCache(int limit) {
+        this(limit, 0, null);
+    }
+
+    /**
+     * @param limit                 Maximum number of requests, after which the oldest request is removed.
+     * @param retentionMilliseconds How long requests are kept, or zero to keep requests until removed.
+     * @param isReusable            If an existing request can be shared with a new caller.
+     *                              If not, the request is sent again. Null if all requests can be shared.
+     */
+    public SingleFlightCache(int limit, long retentionMilliseconds, @Nullable Predicate<R> isReusable) {
+        this.retentionMilliseconds = retentionMilliseconds;
+        this.isReusable = isReusable;
+        this.cache = new LinkedHashMap<>(2 * limit) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<R>> eldest) {
+                return size() > limit; // Evict the oldest entry if over the cache limit.
+            }
+        };
+    }
+
+    @GuardedBy("cache")
+    private void removeExpired(long now) {
+        if (retentionMilliseconds <= 0) return;
+
+        // Entries are in the order they were created, so only the oldest entries can be expired.
+        Iterator<Entry<R>> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().timeCreated <= retentionMilliseconds) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @param createRequest Creates the request of the key, if there is no request that can be shared.
+     * @return The existing request of the key, or a new request.
+     */
+    @NonNull
+    public R getOrCreate(@NonNull K key, @NonNull Function<K, R> createRequest) {
+        synchronized (cache) {
+            final long now = System.currentTimeMillis();
+            removeExpired(now);
+
+            Entry<R> entry = cache.get(key);
+            if (entry != null && (isReusable == null || isReusable.test(entry.request))) {
+                return entry.request;
+            }
+
+            R request = createRequest.apply(key);
+            // Remove first, so the new entry is last in order.
+            cache.remove(key);
+            cache.put(key, new Entry<>(request, now));
+            return request;
+        }
+    }
+
+    /**
+     * @return The request of the key, or null if there is no request.
+     */
+    @Nullable
+    public R get(@NonNull K key) {
+        synchronized (cache) {
+            removeExpired(System.currentTimeMillis());
+
+            Entry<R> entry = cache.get(key);
+            return entry == null ? null : entry.request;
+        }
+    }
+
+    public void remove(@NonNull K key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
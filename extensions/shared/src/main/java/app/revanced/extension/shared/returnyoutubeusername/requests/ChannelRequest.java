@@ -2,7 +2,6 @@ package app.revanced.extension.shared.returnyoutubeusername.requests;
 
 import static app.revanced.extension.shared.returnyoutubeusername.requests.ChannelRoutes.GET_CHANNEL_DETAILS;
 
-import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -12,10 +11,7 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -23,6 +19,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import app.revanced.extension.shared.requests.Requester;
+import app.revanced.extension.shared.requests.SingleFlightCache;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
 
@@ -37,30 +34,17 @@ public class ChannelRequest {
      */
     private static final int MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 6 * 1000;
 
-    @GuardedBy("itself")
-    private static final Map<String, ChannelRequest> cache = Collections.synchronizedMap(
-            new LinkedHashMap<>(200) {
-                private static final int CACHE_LIMIT = 100;
+    private static final int CACHE_LIMIT = 100;
 
-                @Override
-                protected boolean removeEldestEntry(Entry eldest) {
-                    return size() > CACHE_LIMIT; // Evict the oldest entry if over the cache limit.
-                }
-            });
+    private static final SingleFlightCache<String, ChannelRequest> cache = new SingleFlightCache<>(CACHE_LIMIT);
 
     public static void fetchRequestIfNeeded(@NonNull String handle, @NonNull String apiKey, Boolean userNameFirst) {
-        synchronized (cache) {
-            if (cache.get(handle) == null) {
-                cache.put(handle, new ChannelRequest(handle, apiKey, userNameFirst));
-            }
-        }
+        cache.getOrCreate(handle, key -> new ChannelRequest(key, apiKey, userNameFirst));
     }
 
     @Nullable
     public static ChannelRequest getRequestForHandle(@NonNull String handle) {
-        synchronized (cache) {
-            return cache.get(handle);
-        }
+        return cache.get(handle);
     }
 
     private static void handleConnectionError(String toastMessage, @Nullable Exception ex) {
@@ -96,5 +96,7 @@ public class BaseSettings {
     // The official ReVanced does not offer this, so it has been removed from the settings only. Users can still access settings through import / export settings.
     public static final StringSetting BYPASS_IMAGE_REGION_RESTRICTIONS_DOMAIN = new StringSetting("revanced_bypass_image_region_restrictions_domain", "yt4.ggpht.com", true);
 
+    public static final IntegerSetting LITHO_LAYOUT_THREAD_POOL_SIZE = new IntegerSetting("revanced_litho_layout_thread_pool_size", 1, true);
+
     public static final BooleanSetting SANITIZE_SHARING_LINKS = new BooleanSetting("revanced_sanitize_sharing_links", TRUE, true);
 }
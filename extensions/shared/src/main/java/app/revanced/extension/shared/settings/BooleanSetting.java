@@ -54,6 +54,7 @@ public class BooleanSetting extends Setting<Boolean> {
      * accidental usage when {@link #save(Boolean)} was intnded.
      */
     public static void privateSetValue(@NonNull BooleanSetting setting, @NonNull Boolean newValue) {
+        setting.ensureLoaded();
         setting.value = Objects.requireNonNull(newValue);
 
         if (setting.isSetToDefault()) {
@@ -78,6 +79,7 @@ public class BooleanSetting extends Setting<Boolean> {
 
     @Override
     public void saveValueFromString(@NonNull String newValue) {
+        ensureLoaded();
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
     }
@@ -90,6 +92,7 @@ public class BooleanSetting extends Setting<Boolean> {
     @NonNull
     @Override
     public Boolean get() {
+        ensureLoaded();
         return value;
     }
 }
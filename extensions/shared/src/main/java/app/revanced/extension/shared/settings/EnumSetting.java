@@ -76,7 +76,7 @@ public class EnumSetting<T extends Enum<?>> extends Setting<T> {
     @Override
     protected void writeToJSON(JSONObject json, String importExportKey) throws JSONException {
         // Use lowercase to keep the output less ugly.
-        json.put(importExportKey, value.name().toLowerCase(Locale.ENGLISH));
+        json.put(importExportKey, get().name().toLowerCase(Locale.ENGLISH));
     }
 
     /**
@@ -103,6 +103,7 @@ public class EnumSetting<T extends Enum<?>> extends Setting<T> {
 
     @Override
     public void saveValueFromString(@NonNull String newValue) {
+        ensureLoaded();
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
     }
@@ -115,6 +116,7 @@ public class EnumSetting<T extends Enum<?>> extends Setting<T> {
     @NonNull
     @Override
     public T get() {
+        ensureLoaded();
         return value;
     }
 
@@ -64,6 +64,7 @@ public class FloatSetting extends Setting<Float> {
 
     @Override
     public void saveValueFromString(@NonNull String newValue) {
+        ensureLoaded();
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
     }
@@ -76,6 +77,7 @@ public class FloatSetting extends Setting<Float> {
     @NonNull
     @Override
     public Float get() {
+        ensureLoaded();
         return value;
     }
 }
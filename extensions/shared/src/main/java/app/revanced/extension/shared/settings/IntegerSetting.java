@@ -64,6 +64,7 @@ public class IntegerSetting extends Setting<Integer> {
 
     @Override
     public void saveValueFromString(@NonNull String newValue) {
+        ensureLoaded();
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
     }
@@ -76,6 +77,7 @@ public class IntegerSetting extends Setting<Integer> {
     @NonNull
     @Override
     public Integer get() {
+        ensureLoaded();
         return value;
     }
 }
@@ -64,6 +64,7 @@ public class LongSetting extends Setting<Long> {
 
     @Override
     public void saveValueFromString(@NonNull String newValue) {
+        ensureLoaded();
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
     }
@@ -76,6 +77,7 @@ public class LongSetting extends Setting<Long> {
     @NonNull
     @Override
     public Long get() {
+        ensureLoaded();
         return value;
     }
 }
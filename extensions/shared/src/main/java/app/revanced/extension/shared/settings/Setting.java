@@ -3,6 +3,7 @@ package app.revanced.extension.shared.settings;
 import static app.revanced.extension.shared.utils.StringRef.str;
 
 import android.content.Context;
+import android.view.Choreographer;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -17,6 +18,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import app.revanced.extension.shared.settings.preference.SharedPrefCategory;
 import app.revanced.extension.shared.utils.Logger;
@@ -139,6 +141,35 @@ public abstract class Setting<T> {
      */
     public static final SharedPrefCategory preferences = new SharedPrefCategory("revanced");
 
+    /**
+     * If settings are loaded on the first {@link #get()} instead of when they are created.
+     * <p>
+     * Settings classes declare hundreds of settings in a static initializer,
+     * which runs on the main thread during app startup, but only a fraction of them are read before the first frame.
+     * Settings loaded before the first frame read from a single {@link SharedPrefCategory#takeSnapshot()}.
+     */
+    private static final boolean LAZY_LOAD = true;
+
+    /**
+     * Number of settings loaded before the first frame was drawn.
+     */
+    private static final AtomicInteger startupLoadCount = new AtomicInteger();
+    private static final long classInitTimeMillis = System.currentTimeMillis();
+    private static volatile boolean firstFrameDrawn;
+
+    static {
+        if (LAZY_LOAD) {
+            preferences.takeSnapshot();
+            Utils.runOnMainThread(() -> Choreographer.getInstance().postFrameCallback(frameTimeNanos -> {
+                firstFrameDrawn = true;
+                preferences.clearSnapshot();
+                Logger.printDebug(() -> "Settings startup: " + startupLoadCount.get() + " of " + SETTINGS.size()
+                        + " settings loaded before first frame, first frame drawn after: "
+                        + (System.currentTimeMillis() - classInitTimeMillis) + "ms");
+            }));
+        }
+    }
+
     @Nullable
     public static Setting<?> getSettingFromPath(String str) {
         return PATH_TO_SETTINGS.get(str);
@@ -201,6 +232,11 @@ public abstract class Setting<T> {
      */
     protected volatile T value;
 
+    /**
+     * If {@link #value} was loaded from {@link #preferences}.
+     */
+    private volatile boolean loaded;
+
     public Setting(String key, T defaultValue) {
         this(key, defaultValue, false, true, null, null);
     }
@@ -263,7 +299,29 @@ public abstract class Setting<T> {
                     + " error: Duplicate Setting key found: " + key);
         }
 
-        load();
+        if (!LAZY_LOAD) {
+            ensureLoaded();
+        }
+    }
+
+    /**
+     * Loads the value if it was not loaded yet.
+     * Must be called before {@link #value} is read or written.
+     */
+    protected final void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!loaded) {
+                load();
+                loaded = true;
+                if (!firstFrameDrawn) {
+                    startupLoadCount.incrementAndGet();
+                }
+            }
+        }
     }
 
     /**
@@ -274,7 +332,7 @@ public abstract class Setting<T> {
 
         if (!oldSetting.isSetToDefault()) {
             Logger.printInfo(() -> "Migrating old setting value: " + oldSetting + " into replacement setting: " + newSetting);
-            newSetting.save(oldSetting.value);
+            newSetting.save(oldSetting.get());
             oldSetting.resetToDefault();
         }
     }
@@ -305,11 +363,11 @@ public abstract class Setting<T> {
         } else {
             Logger.printException(() -> "Unknown setting: " + setting);
             // Remove otherwise it'll show a toast on every launch.
-            oldPrefs.preferences.edit().remove(settingKey).apply();
+            oldPrefs.removeKey(settingKey);
             return;
         }
 
-        oldPrefs.preferences.edit().remove(settingKey).apply(); // Remove the old setting.
+        oldPrefs.removeKey(settingKey); // Remove the old setting.
         if (migratedValue.equals(newValue)) {
             Logger.printDebug(() -> "Value does not need migrating: " + settingKey);
             return; // Old value is already equal to the new setting value.
@@ -320,6 +378,14 @@ public abstract class Setting<T> {
         setting.save(migratedValue);
     }
 
+    /**
+     * Runs the task and persists all settings it saves or resets with a single preferences write.
+     * Use when changing many settings at once.
+     */
+    public static void runInBatch(Runnable task) {
+        preferences.runInBatch(task);
+    }
+
     /**
      * Sets, but does _not_ persistently save the value.
      * This method is only to be used by the Settings preference code.
@@ -328,6 +394,7 @@ public abstract class Setting<T> {
      * accidental usage when {@link #save(Object)} was intended.
      */
     public static void privateSetValueFromString(Setting<?> setting, String newValue) {
+        setting.ensureLoaded();
         setting.setValueFromString(newValue);
 
         // Clear the preference value since default is used, to allow changing
@@ -352,6 +419,7 @@ public abstract class Setting<T> {
      * Persistently saves the value.
      */
     public final void save(T newValue) {
+        ensureLoaded();
         if (value.equals(newValue)) {
             return;
         }
@@ -417,6 +485,7 @@ public abstract class Setting<T> {
      * @return if the currently set value is the same as {@link #defaultValue}
      */
     public boolean isSetToDefault() {
+        ensureLoaded();
         return value.equals(defaultValue);
     }
 
@@ -459,6 +528,7 @@ public abstract class Setting<T> {
      * then subclasses can override this method and write out a String value representing the value.
      */
     protected void writeToJSON(JSONObject json, String importExportKey) throws JSONException {
+        ensureLoaded();
         json.put(importExportKey, value);
     }
 
@@ -509,22 +579,28 @@ public abstract class Setting<T> {
 
             boolean rebootSettingChanged = false;
             int numberOfSettingsImported = 0;
-            //noinspection rawtypes
-            for (Setting setting : SETTINGS) {
-                String key = setting.getImportExportKey();
-                if (json.has(key)) {
-                    Object value = setting.readFromJSON(json, key);
-                    if (!setting.get().equals(value)) {
+            // All changes are written at once when the batch ends.
+            preferences.beginBatch();
+            try {
+                //noinspection rawtypes
+                for (Setting setting : SETTINGS) {
+                    String key = setting.getImportExportKey();
+                    if (json.has(key)) {
+                        Object value = setting.readFromJSON(json, key);
+                        if (!setting.get().equals(value)) {
+                            rebootSettingChanged |= setting.rebootApp;
+                            //noinspection unchecked
+                            setting.save(value);
+                        }
+                        numberOfSettingsImported++;
+                    } else if (setting.includeWithImportExport && !setting.isSetToDefault()) {
+                        Logger.printDebug(() -> "Resetting to default: " + setting);
                         rebootSettingChanged |= setting.rebootApp;
-                        //noinspection unchecked
-                        setting.save(value);
+                        setting.resetToDefault();
                     }
-                    numberOfSettingsImported++;
-                } else if (setting.includeWithImportExport && !setting.isSetToDefault()) {
-                    Logger.printDebug(() -> "Resetting to default: " + setting);
-                    rebootSettingChanged |= setting.rebootApp;
-                    setting.resetToDefault();
                 }
+            } finally {
+                preferences.endBatch();
             }
 
             for (ImportExportCallback callback : importExportCallbacks) {
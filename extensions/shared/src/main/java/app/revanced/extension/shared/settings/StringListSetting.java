@@ -0,0 +1,135 @@
+package app.revanced.extension.shared.settings;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import app.revanced.extension.shared.utils.StringTrieSearch;
+
+/**
+ * A string setting where each line (or each word) is an item of a list, such as user defined filter strings.
+ * <p>
+ * The list and its matchers are built once when the value changes (saved, imported or reset),
+ * instead of splitting the string each time a hook is called.
+ */
+@SuppressWarnings("unused")
+public class StringListSetting extends StringSetting {
+
+    public enum Delimiter {
+        /**
+         * Each line is an item.
+         */
+        LINE("\\n"),
+        /**
+         * Items are separated by any whitespace.
+         */
+        WHITESPACE("\\s+");
+
+        private final String regex;
+
+        Delimiter(String regex) {
+            this.regex = regex;
+        }
+    }
+
+    /**
+     * Items parsed from a single setting value.
+     */
+    private static final class Items {
+        final String value;
+        final List<String> list;
+        /**
+         * Non empty items.
+         */
+        final Set<String> set;
+        final StringTrieSearch search;
+
+        Items(String value, Delimiter delimiter) {
+            this.value = value;
+            list = Collections.unmodifiableList(Arrays.asList(value.split(delimiter.regex)));
+            set = new HashSet<>(list.size());
+            for (String item : list) {
+                if (!item.isEmpty()) {
+                    set.add(item);
+                }
+            }
+            search = new StringTrieSearch(set.toArray(new String[0]));
+        }
+    }
+
+    private final Delimiter delimiter;
+
+    @Nullable
+    private volatile Items items;
+
+    public StringListSetting(String key, String defaultValue) {
+        this(key, defaultValue, false, null, Delimiter.LINE);
+    }
+
+    public StringListSetting(String key, String defaultValue, boolean rebootApp) {
+        this(key, defaultValue, rebootApp, null, Delimiter.LINE);
+    }
+
+    public StringListSetting(String key, String defaultValue, boolean rebootApp, Delimiter delimiter) {
+        this(key, defaultValue, rebootApp, null, delimiter);
+    }
+
+    public StringListSetting(String key, String defaultValue, boolean rebootApp, Availability availability) {
+        this(key, defaultValue, rebootApp, availability, Delimiter.LINE);
+    }
+
+    public StringListSetting(@NonNull String key, @NonNull String defaultValue, boolean rebootApp,
+                             @Nullable Availability availability, @NonNull Delimiter delimiter) {
+        super(key, defaultValue, rebootApp, true, null, availability);
+        this.delimiter = delimiter;
+    }
+
+    @NonNull
+    private Items getItems() {
+        final String value = get();
+        Items current = items;
+        // Every change of the value sets a new string, no matter if it was saved, imported or loaded.
+        //noinspection StringEquality
+        if (current == null || current.value != value) {
+            current = new Items(value, delimiter);
+            items = current;
+        }
+        return current;
+    }
+
+    /**
+     * @return All items, including empty items. The list cannot be modified.
+     */
+    @NonNull
+    public List<String> getList() {
+        return getItems().list;
+    }
+
+    /**
+     * @return If the text equals any non empty item.
+     */
+    public boolean containsItem(@Nullable String text) {
+        return text != null && getItems().set.contains(text);
+    }
+
+    /**
+     * @return If the text contains any non empty item.
+     */
+    public boolean anyItemContainedIn(@Nullable String text) {
+        return text != null && getItems().search.matches(text);
+    }
+
+    /**
+     * @param contains If the text can contain an item, otherwise the text must equal an item.
+     */
+    public boolean matches(@Nullable String text, boolean contains) {
+        return contains
+                ? anyItemContainedIn(text)
+                : containsItem(text);
+    }
+}
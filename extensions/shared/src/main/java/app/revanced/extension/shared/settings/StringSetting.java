@@ -64,6 +64,7 @@ public class StringSetting extends Setting<String> {
 
     @Override
     public void saveValueFromString(@NonNull String newValue) {
+        ensureLoaded();
         setValueFromString(newValue);
         preferences.saveString(key, newValue);
     }
@@ -76,6 +77,7 @@ public class StringSetting extends Setting<String> {
     @NonNull
     @Override
     public String get() {
+        ensureLoaded();
         return value;
     }
 }
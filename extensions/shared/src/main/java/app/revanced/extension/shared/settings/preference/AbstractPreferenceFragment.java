@@ -56,6 +56,11 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragment {
      */
     private static boolean showingRestartDialog;
 
+    /**
+     * If an availability update is already posted to the main thread.
+     */
+    private boolean availabilityUpdatePending;
+
     /**
      * Used to prevent showing reboot dialog, if user cancels a setting user dialog.
      */
@@ -103,7 +108,7 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragment {
             // Updating here can cause a recursive call back into this same method.
             updatePreference(pref, setting, true, settingImportInProgress);
             // Update any other preference availability that may now be different.
-            updateUIAvailability();
+            scheduleUIAvailabilityUpdate();
             updatingPreference = false;
         } catch (Exception ex) {
             Logger.printException(() -> "OnSharedPreferenceChangeListener failure", ex);
@@ -192,6 +197,21 @@ public abstract class AbstractPreferenceFragment extends PreferenceFragment {
         updatePreferenceScreen(getPreferenceScreen(), false, false);
     }
 
+    /**
+     * Batched setting changes (such as importing) notify about every changed key at once.
+     * Update the availability only once after all the changes.
+     */
+    private void scheduleUIAvailabilityUpdate() {
+        if (availabilityUpdatePending) {
+            return;
+        }
+        availabilityUpdatePending = true;
+        Utils.runOnMainThread(() -> {
+            availabilityUpdatePending = false;
+            updateUIAvailability();
+        });
+    }
+
     /**
      * @return If the preference is currently set to the default value of the Setting.
      */
@@ -2,10 +2,13 @@ package app.revanced.extension.shared.settings.preference;
 
 import static app.revanced.extension.shared.utils.StringRef.str;
 
-import java.util.Deque;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import app.revanced.extension.shared.settings.BaseSettings;
 import app.revanced.extension.shared.utils.Logger;
@@ -15,47 +18,159 @@ import app.revanced.extension.shared.utils.Utils;
  * Manages a buffer for storing debug logs from {@link Logger}.
  * Stores just under 1MB of the most recent log data.
  * <p>
+ * Log entries are copied into a fixed size ring of chars, and the oldest entries are overwritten
+ * when the ring is full. Appending does not lock or allocate, so logging threads never wait on each other.
+ * <p>
  * All methods are thread-safe.
  */
 public final class LogBufferManager {
     /**
-     * Maximum byte size of all buffer entries. Must be less than Android's 1 MB Binder transaction limit.
+     * Maximum number of chars of all buffer entries. Must be less than Android's 1 MB Binder transaction limit.
      */
-    private static final int BUFFER_MAX_BYTES = 900_000;
+    private static final int BUFFER_MAX_CHARS = 900_000;
     /**
      * Limit number of log lines.
      */
     private static final int BUFFER_MAX_SIZE = 10_000;
+    /**
+     * Longer entries are truncated, so a single entry cannot overwrite most of the buffer.
+     */
+    private static final int ENTRY_MAX_CHARS = BUFFER_MAX_CHARS / 8;
+    private static final String PREFIX_SEPARATOR = ": ";
 
-    private static final Deque<String> logBuffer = new ConcurrentLinkedDeque<>();
-    private static final AtomicInteger logBufferByteSize = new AtomicInteger();
+    private static final char[] chars = new char[BUFFER_MAX_CHARS];
+    /**
+     * Total number of chars ever reserved. Position in {@link #chars} is this value modulo the buffer size.
+     */
+    private static final AtomicLong charCursor = new AtomicLong();
+    /**
+     * Total number of entries ever appended.
+     */
+    private static final AtomicLong entryCursor = new AtomicLong();
+    /**
+     * Entries are indexed by their sequence number modulo {@link #BUFFER_MAX_SIZE}.
+     */
+    private static final AtomicLongArray entryStart = new AtomicLongArray(BUFFER_MAX_SIZE);
+    private static final AtomicIntegerArray entryLength = new AtomicIntegerArray(BUFFER_MAX_SIZE);
+    /**
+     * Sequence number of the entry stored at the index, written last after the chars are copied.
+     */
+    private static final AtomicLongArray entrySequence = new AtomicLongArray(BUFFER_MAX_SIZE);
+    /**
+     * Entries with a lower sequence number were cleared.
+     */
+    private static volatile long clearedBeforeSequence;
+
+    static {
+        for (int i = 0; i < BUFFER_MAX_SIZE; i++) {
+            entrySequence.set(i, -1);
+        }
+    }
 
     /**
      * Appends a log message to the internal buffer if debugging is enabled.
-     * The buffer is limited to approximately {@link #BUFFER_MAX_BYTES} or {@link #BUFFER_MAX_SIZE}
+     * The buffer is limited to approximately {@link #BUFFER_MAX_CHARS} or {@link #BUFFER_MAX_SIZE}
      * to prevent excessive memory usage.
      *
      * @param message The log message to append.
      */
     public static void appendToLogBuffer(String message) {
+        appendToLogBuffer("", message);
+    }
+
+    /**
+     * Appends '{prefix}: {message}' to the internal buffer, without concatenating the strings.
+     *
+     * @param prefix  Prefix of the log message, such as the class name. Nothing is added if empty.
+     * @param message The log message to append.
+     */
+    public static void appendToLogBuffer(String prefix, String message) {
+        Objects.requireNonNull(prefix);
         Objects.requireNonNull(message);
 
         // It's very important that no Settings are used in this method,
         // as this code is used when a context is not set and thus referencing
         // a setting will crash the app.
-        logBuffer.addLast(message);
-        int newSize = logBufferByteSize.addAndGet(message.length());
-
-        // Remove oldest entries if over the log size limits.
-        while (newSize > BUFFER_MAX_BYTES || logBuffer.size() > BUFFER_MAX_SIZE) {
-            String removed = logBuffer.pollFirst();
-            if (removed == null) {
-                // Thread race of two different calls to this method, and the other thread won.
-                return;
+        final int prefixLength = prefix.isEmpty() ? 0 : prefix.length() + PREFIX_SEPARATOR.length();
+        final int messageLength = Math.min(message.length(), Math.max(0, ENTRY_MAX_CHARS - prefixLength));
+        final int length = prefixLength + messageLength;
+
+        final long sequence = entryCursor.getAndIncrement();
+        final long start = charCursor.getAndAdd(length);
+
+        long position = start;
+        if (prefixLength > 0) {
+            position = copyToBuffer(prefix, prefix.length(), position);
+            position = copyToBuffer(PREFIX_SEPARATOR, PREFIX_SEPARATOR.length(), position);
+        }
+        copyToBuffer(message, messageLength, position);
+
+        // Publish the entry.
+        final int index = (int) (sequence % BUFFER_MAX_SIZE);
+        entryStart.set(index, start);
+        entryLength.set(index, length);
+        entrySequence.set(index, sequence);
+    }
+
+    /**
+     * @return The position after the copied chars.
+     */
+    private static long copyToBuffer(String string, int length, long position) {
+        final int offset = (int) (position % BUFFER_MAX_CHARS);
+        final int firstPart = Math.min(length, BUFFER_MAX_CHARS - offset);
+        string.getChars(0, firstPart, chars, offset);
+        if (firstPart < length) {
+            // Wrap around to the start of the buffer.
+            string.getChars(firstPart, length, chars, 0);
+        }
+        return position + length;
+    }
+
+    /**
+     * Writes all entries, oldest first and separated by new lines.
+     * Entries that are overwritten while exporting are skipped.
+     *
+     * @return Number of entries written.
+     */
+    private static int writeEntries(Writer writer) throws IOException {
+        final long lastSequence = entryCursor.get();
+        final long firstSequence = Math.max(clearedBeforeSequence, lastSequence - BUFFER_MAX_SIZE);
+        final char[] entryChars = new char[ENTRY_MAX_CHARS];
+        int written = 0;
+
+        for (long sequence = firstSequence; sequence < lastSequence; sequence++) {
+            final int index = (int) (sequence % BUFFER_MAX_SIZE);
+            if (entrySequence.get(index) != sequence) {
+                continue; // Not yet published, or already overwritten.
+            }
+            final long start = entryStart.get(index);
+            final int length = entryLength.get(index);
+            if (start < charCursor.get() - BUFFER_MAX_CHARS) {
+                continue; // Chars were overwritten by newer entries.
+            }
+
+            final int offset = (int) (start % BUFFER_MAX_CHARS);
+            final int firstPart = Math.min(length, BUFFER_MAX_CHARS - offset);
+            System.arraycopy(chars, offset, entryChars, 0, firstPart);
+            System.arraycopy(chars, 0, entryChars, firstPart, length - firstPart);
+
+            // Verify nothing was overwritten while copying.
+            if (entrySequence.get(index) != sequence || start < charCursor.get() - BUFFER_MAX_CHARS) {
+                continue;
             }
 
-            newSize = logBufferByteSize.addAndGet(-removed.length());
+            if (written > 0) {
+                writer.write('\n');
+            }
+            writer.write(entryChars, 0, length);
+            written++;
         }
+
+        return written;
+    }
+
+    private static boolean isEmpty() {
+        return entryCursor.get() <= clearedBeforeSequence;
     }
 
     /**
@@ -90,13 +205,15 @@ public final class LogBufferManager {
                 return null;
             }
 
-            if (logBuffer.isEmpty()) {
+            if (isEmpty()) {
                 Utils.showToastShort(str("revanced_debug_logs_none_found"));
                 clearLogBufferData(); // Clear toast log entry that was just created.
                 return null;
             }
 
-            return String.join("\n", logBuffer);
+            StringWriter writer = new StringWriter();
+            writeEntries(writer);
+            return writer.toString();
         } catch (Exception ex) {
             // Handle security exception if clipboard access is denied.
             String errorMessage = String.format(str("revanced_debug_logs_failed_to_export"), ex.getMessage());
@@ -106,16 +223,29 @@ public final class LogBufferManager {
         return null;
     }
 
-    private static void clearLogBufferData() {
-        // Cannot simply clear the log buffer because there is no
-        // write lock for both the deque and the atomic int.
-        // Instead pop off log entries and decrement the size one by one.
-        while (!logBuffer.isEmpty()) {
-            String removed = logBuffer.pollFirst();
-            if (removed != null) {
-                logBufferByteSize.addAndGet(-removed.length());
-            }
+    /**
+     * Streams all logs to the writer, without building a single String of all logs.
+     *
+     * @return If any logs were written.
+     */
+    public static boolean exportToWriter(Writer writer) throws IOException {
+        if (!BaseSettings.DEBUG.get()) {
+            Utils.showToastShort(str("revanced_debug_logs_disabled"));
+            return false;
+        }
+
+        if (isEmpty()) {
+            Utils.showToastShort(str("revanced_debug_logs_none_found"));
+            clearLogBufferData(); // Clear toast log entry that was just created.
+            return false;
         }
+
+        return writeEntries(writer) > 0;
+    }
+
+    private static void clearLogBufferData() {
+        // Entries are not removed, but are skipped when exporting.
+        clearedBeforeSequence = entryCursor.get();
     }
 
     /**
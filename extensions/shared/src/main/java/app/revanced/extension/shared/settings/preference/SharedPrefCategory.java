@@ -7,6 +7,7 @@ import android.preference.PreferenceFragment;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Map;
 import java.util.Objects;
 
 import app.revanced.extension.shared.utils.Logger;
@@ -27,29 +28,153 @@ public class SharedPrefCategory {
     @NonNull
     public final SharedPreferences preferences;
 
+    /**
+     * Copy of all preferences, used to read many values at once without locking the preferences for each read.
+     * Discarded as soon as any value is changed.
+     */
+    @Nullable
+    private volatile Map<String, ?> snapshot;
+
+    /**
+     * Preferences keeps only a weak reference to listeners.
+     */
+    private final SharedPreferences.OnSharedPreferenceChangeListener snapshotInvalidator =
+            (sharedPreferences, key) -> clearSnapshot();
+
     public SharedPrefCategory(@NonNull String name) {
         this.name = Objects.requireNonNull(name);
         preferences = Objects.requireNonNull(Utils.getContext()).getSharedPreferences(name, Context.MODE_PRIVATE);
     }
 
+    /**
+     * Reads all preferences at once. Following reads use the snapshot until {@link #clearSnapshot()} is called,
+     * or until any preference is changed.
+     */
+    public void takeSnapshot() {
+        preferences.registerOnSharedPreferenceChangeListener(snapshotInvalidator);
+        snapshot = preferences.getAll();
+    }
+
+    public void clearSnapshot() {
+        if (snapshot != null) {
+            snapshot = null;
+            preferences.unregisterOnSharedPreferenceChangeListener(snapshotInvalidator);
+        }
+    }
+
+    @Nullable
+    private String readString(@NonNull String key, @Nullable String _default) {
+        Map<String, ?> snapshot = this.snapshot;
+        if (snapshot == null) {
+            return preferences.getString(key, _default);
+        }
+        Object value = snapshot.get(key);
+        return value == null ? _default : (String) value;
+    }
+
+    private boolean readBoolean(@NonNull String key, boolean _default) {
+        Map<String, ?> snapshot = this.snapshot;
+        if (snapshot == null) {
+            return preferences.getBoolean(key, _default);
+        }
+        Object value = snapshot.get(key);
+        return value == null ? _default : (Boolean) value;
+    }
+
     private void removeConflictingPreferenceKeyValue(@NonNull String key) {
         Logger.printException(() -> "Found conflicting preference: " + key);
         removeKey(key);
     }
 
+    // region Batch
+
+    /**
+     * Editor of the batch started by the current thread.
+     */
+    private static final class Batch {
+        final SharedPreferences.Editor editor;
+        int depth;
+
+        Batch(SharedPreferences.Editor editor) {
+            this.editor = editor;
+        }
+    }
+
+    private final ThreadLocal<Batch> batch = new ThreadLocal<>();
+
+    /**
+     * Starts collecting all changes made by the current thread into a single editor,
+     * until the matching {@link #endBatch()} is called.
+     * Batches can be nested, changes are committed when the outermost batch ends.
+     * <p>
+     * Prefer {@link #runInBatch(Runnable)}.
+     */
+    public void beginBatch() {
+        Batch current = batch.get();
+        if (current == null) {
+            current = new Batch(preferences.edit());
+            batch.set(current);
+        }
+        current.depth++;
+    }
+
+    /**
+     * Ends a batch started with {@link #beginBatch()},
+     * and applies all changes with a single write if this is the outermost batch.
+     */
+    public void endBatch() {
+        Batch current = batch.get();
+        if (current == null) {
+            throw new IllegalStateException("No batch in progress");
+        }
+        if (--current.depth == 0) {
+            batch.remove();
+            current.editor.apply();
+        }
+    }
+
+    /**
+     * Runs the task and applies all changes it made with a single write.
+     */
+    public void runInBatch(@NonNull Runnable task) {
+        beginBatch();
+        try {
+            task.run();
+        } finally {
+            endBatch();
+        }
+    }
+
+    private SharedPreferences.Editor edit() {
+        clearSnapshot();
+        Batch current = batch.get();
+        return current == null
+                ? preferences.edit()
+                : current.editor;
+    }
+
+    private void apply(SharedPreferences.Editor editor) {
+        Batch current = batch.get();
+        if (current == null || current.editor != editor) {
+            editor.apply();
+        }
+    }
+
+    // endregion
+
     private void saveObjectAsString(@NonNull String key, @Nullable Object value) {
-        preferences.edit().putString(key, (value == null ? null : value.toString())).apply();
+        apply(edit().putString(key, (value == null ? null : value.toString())));
     }
 
     /**
      * Removes any preference data type that has the specified key.
      */
     public void removeKey(@NonNull String key) {
-        preferences.edit().remove(Objects.requireNonNull(key)).apply();
+        apply(edit().remove(Objects.requireNonNull(key)));
     }
 
     public void saveBoolean(@NonNull String key, boolean value) {
-        preferences.edit().putBoolean(key, value).apply();
+        apply(edit().putBoolean(key, value));
     }
 
     /**
@@ -91,7 +216,7 @@ public class SharedPrefCategory {
     public String getString(@NonNull String key, @NonNull String _default) {
         Objects.requireNonNull(_default);
         try {
-            return preferences.getString(key, _default);
+            return readString(key, _default);
         } catch (ClassCastException ex) {
             // Value stored is a completely different type (should never happen).
             removeConflictingPreferenceKeyValue(key);
@@ -103,7 +228,7 @@ public class SharedPrefCategory {
     public <T extends Enum<?>> T getEnum(@NonNull String key, @NonNull T _default) {
         Objects.requireNonNull(_default);
         try {
-            String enumName = preferences.getString(key, null);
+            String enumName = readString(key, null);
             if (enumName != null) {
                 try {
                     // noinspection unchecked
@@ -123,7 +248,7 @@ public class SharedPrefCategory {
 
     public boolean getBoolean(@NonNull String key, boolean _default) {
         try {
-            return preferences.getBoolean(key, _default);
+            return readBoolean(key, _default);
         } catch (ClassCastException ex) {
             // Value stored is a completely different type (should never happen).
             removeConflictingPreferenceKeyValue(key);
@@ -134,7 +259,7 @@ public class SharedPrefCategory {
     @NonNull
     public Integer getIntegerString(@NonNull String key, @NonNull Integer _default) {
         try {
-            String value = preferences.getString(key, null);
+            String value = readString(key, null);
             if (value != null) {
                 return Integer.valueOf(value);
             }
@@ -153,7 +278,7 @@ public class SharedPrefCategory {
     @NonNull
     public Long getLongString(@NonNull String key, @NonNull Long _default) {
         try {
-            String value = preferences.getString(key, null);
+            String value = readString(key, null);
             if (value != null) {
                 return Long.valueOf(value);
             }
@@ -170,7 +295,7 @@ public class SharedPrefCategory {
     @NonNull
     public Float getFloatString(@NonNull String key, @NonNull Float _default) {
         try {
-            String value = preferences.getString(key, null);
+            String value = readString(key, null);
             if (value != null) {
                 return Float.valueOf(value);
             }
@@ -198,10 +198,7 @@ public class ToolbarPreferenceFragment extends AbstractPreferenceFragment {
             if (settingExportInProgress) {
                 printWriter.write(Setting.exportToJson(context));
             } else {
-                String message = LogBufferManager.exportToString();
-                if (message != null) {
-                    printWriter.write(message);
-                }
+                LogBufferManager.exportToWriter(printWriter);
             }
             printWriter.close();
             jsonFileWriter.close();
@@ -8,6 +8,9 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import app.revanced.extension.shared.settings.BaseSettings;
 import app.revanced.extension.shared.settings.preference.LogBufferManager;
 
@@ -45,6 +48,12 @@ public class Logger {
      */
     private static final String REVANCED_LOG_TAG_PREFIX = "Extended: ";
 
+    /**
+     * Outer class name and log tag of each {@link LogMessage} lambda class.
+     * Each lambda call site has its own class, so the names only need to be resolved once per call site.
+     */
+    private static final Map<Class<?>, String[]> LOG_SOURCE_NAMES = new ConcurrentHashMap<>();
+
     /**
      * @return For outer classes, this returns {@link Class#getSimpleName()}.
      * For static, inner, or anonymous classes, this returns the simple name of the enclosing class.
@@ -56,8 +65,7 @@ public class Logger {
      * com.company.SomethingView$1
      * </code>
      */
-    private static String getOuterClassSimpleName(Object obj) {
-        Class<?> logClass = obj.getClass();
+    private static String getOuterClassSimpleName(Class<?> logClass) {
         String fullClassName = logClass.getName();
         final int dollarSignIndex = fullClassName.indexOf('$');
         if (dollarSignIndex < 0) {
@@ -71,6 +79,20 @@ public class Logger {
         return fullClassName.substring(simpleClassNameStartIndex, dollarSignIndex);
     }
 
+    /**
+     * @return Array of the outer class simple name and the log tag.
+     */
+    private static String[] getLogSourceNames(Object obj) {
+        Class<?> logClass = obj.getClass();
+        String[] names = LOG_SOURCE_NAMES.get(logClass);
+        if (names == null) {
+            String className = getOuterClassSimpleName(logClass);
+            names = new String[]{className, REVANCED_LOG_TAG_PREFIX + className};
+            LOG_SOURCE_NAMES.put(logClass, names);
+        }
+        return names;
+    }
+
     /**
      * Internal method to handle logging to Android Log and {@link LogBufferManager}.
      * Appends the log message, stack trace (if enabled), and exception (if present) to logBuffer
@@ -86,7 +108,8 @@ public class Logger {
         // as this code is used when a context is not set and thus referencing
         // a setting will crash the app.
         String messageString = message.buildMessageString();
-        String className = getOuterClassSimpleName(message);
+        String[] logSourceNames = getLogSourceNames(message);
+        String className = logSourceNames[0];
 
         String logText = messageString;
 
@@ -99,10 +122,9 @@ public class Logger {
         }
 
         // Do not include "revanced:" prefix in clipboard logs.
-        String managerToastString = className + ": " + logText;
-        LogBufferManager.appendToLogBuffer(managerToastString);
+        LogBufferManager.appendToLogBuffer(className, logText);
 
-        String logTag = REVANCED_LOG_TAG_PREFIX + className;
+        String logTag = logSourceNames[1];
         switch (logLevel) {
             case DEBUG:
                 if (ex == null) Log.d(logTag, logText);
@@ -127,7 +149,7 @@ public class Logger {
         }
 
         if (showToast) {
-            Utils.showToastLong(managerToastString);
+            Utils.showToastLong(className + ": " + logText);
         }
     }
 
@@ -0,0 +1,105 @@
+package app.revanced.extension.shared.utils;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resource identifiers by type and name.
+ * <p>
+ * {@link android.content.res.Resources#getIdentifier(String, String, String)} is a slow lookup by name,
+ * so each identifier is looked up only once.
+ * Identifiers of app resources used by the extension are already known during patching,
+ * and are loaded from {@link #patchedIdentifiers()} without any lookup.
+ */
+final class ResourceIdentifiers {
+
+    /**
+     * Identifiers of each resource type, by resource name.
+     */
+    private static final Map<String, Map<String, Integer>> identifiers = new ConcurrentHashMap<>();
+
+    static {
+        loadPatchedIdentifiers();
+    }
+
+    private ResourceIdentifiers() {
+    } // utility class
+
+    /**
+     * Resource identifiers added during patching, in the format {@code type/name=hexId;type/name=hexId;}.
+     */
+    private static String patchedIdentifiers() {
+        // Modified by a patch. Do not touch.
+        return "";
+    }
+
+    private static void loadPatchedIdentifiers() {
+        try {
+            final String table = patchedIdentifiers();
+            final int length = table.length();
+            int count = 0;
+            int start = 0;
+
+            while (start < length) {
+                final int typeEnd = table.indexOf('/', start);
+                final int nameEnd = table.indexOf('=', typeEnd);
+                final int end = table.indexOf(';', nameEnd);
+
+                put(table.substring(start, typeEnd),
+                        table.substring(typeEnd + 1, nameEnd),
+                        Integer.parseUnsignedInt(table.substring(nameEnd + 1, end), 16));
+                count++;
+                start = end + 1;
+            }
+
+            final int identifiersLoaded = count;
+            Logger.printDebug(() -> "Loaded " + identifiersLoaded + " patched resource identifiers");
+        } catch (Exception ex) {
+            // Table is only a shortcut, and all identifiers can still be looked up.
+            Logger.printException(() -> "loadPatchedIdentifiers failure", ex);
+        }
+    }
+
+    private static void put(@NonNull String type, @NonNull String name, int identifier) {
+        Map<String, Integer> typeIdentifiers = identifiers.get(type);
+        if (typeIdentifiers == null) {
+            typeIdentifiers = new ConcurrentHashMap<>();
+            Map<String, Integer> existing = identifiers.putIfAbsent(type, typeIdentifiers);
+            if (existing != null) {
+                typeIdentifiers = existing;
+            }
+        }
+        typeIdentifiers.put(name, identifier);
+    }
+
+    /**
+     * @return zero, if the resource is not found
+     */
+    @SuppressLint("DiscouragedApi")
+    static int get(@NonNull Context context, @NonNull String name, @Nullable String type) {
+        if (type == null) {
+            // Name includes the type, such as 'string/revanced_settings'.
+            return context.getResources().getIdentifier(name, null, context.getPackageName());
+        }
+
+        Map<String, Integer> typeIdentifiers = identifiers.get(type);
+        if (typeIdentifiers != null) {
+            Integer identifier = typeIdentifiers.get(name);
+            if (identifier != null) {
+                return identifier;
+            }
+        }
+
+        final int identifier = context.getResources().getIdentifier(name, type, context.getPackageName());
+        if (identifier != 0) {
+            put(type, name, identifier);
+        }
+        return identifier;
+    }
+}
@@ -35,7 +35,7 @@ public class ResourceUtils extends Utils {
     public static int getIdentifier(@NonNull String str, @NonNull ResourceType resourceType,
                                     @NonNull Context context) {
         try {
-            return context.getResources().getIdentifier(str, resourceType.getType(), context.getPackageName());
+            return ResourceIdentifiers.get(context, str, resourceType.getType());
         } catch (Exception ex) {
             handleException(str, resourceType);
         }
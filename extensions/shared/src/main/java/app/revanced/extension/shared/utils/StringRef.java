@@ -113,8 +113,7 @@ public class StringRef extends Utils {
                     resources = context.getResources();
                 }
                 if (resources != null) {
-                    final String packageName = context.getPackageName();
-                    final int identifier = resources.getIdentifier(value, "string", packageName);
+                    final int identifier = ResourceIdentifiers.get(context, value, "string");
                     if (identifier == 0)
                         Logger.printException(() -> "Resource not found: " + value);
                     else
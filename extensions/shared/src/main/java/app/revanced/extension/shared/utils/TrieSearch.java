@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -11,6 +12,9 @@ import java.util.Objects;
 /**
  * Searches for a group of different patterns using a trie (prefix tree).
  * Can significantly speed up searching for multiple patterns.
+ * <p>
+ * Patterns are added to a graph of nodes, and on the first search the graph is converted
+ * to a flat array layout and discarded. Adding more patterns after searching rebuilds the graph.
  */
 public abstract class TrieSearch<T> {
 
@@ -52,20 +56,6 @@ public abstract class TrieSearch<T> {
             this.patternLength = patternLength;
             this.callback = callback;
         }
-
-        boolean matches(TrieNode<T> enclosingNode, // Used only for the get character method.
-                        T searchText, int searchTextLength, int searchTextIndex, Object callbackParameter) {
-            if (searchTextLength - searchTextIndex < patternLength - patternStartIndex) {
-                return false; // Remaining search text is shorter than the remaining leaf pattern and they cannot match.
-            }
-            for (int i = searchTextIndex, j = patternStartIndex; j < patternLength; i++, j++) {
-                if (enclosingNode.getCharValue(searchText, i) != enclosingNode.getCharValue(pattern, j)) {
-                    return false;
-                }
-            }
-            return callback == null || callback.patternMatched(searchText,
-                    searchTextIndex - patternStartIndex, patternLength, callbackParameter);
-        }
     }
 
     static abstract class TrieNode<T> {
@@ -175,6 +165,89 @@ public abstract class TrieSearch<T> {
             child.addPattern(pattern, patternIndex + 1, patternLength, callback);
         }
 
+        /**
+         * Builds this node and all children in a single pass.
+         * Each children array is sized once to a perfect hash of all child characters,
+         * instead of repeatedly resizing as patterns are added one at a time.
+         *
+         * @param patterns   Patterns sorted by character value, shorter patterns first
+         *                   and in order of insertion if equal.
+         * @param from       First pattern index this node represents, inclusive.
+         * @param to         Last pattern index this node represents, exclusive.
+         * @param depth      Number of characters all patterns in the range share with this node.
+         */
+        private void buildPatterns(List<T> patterns, List<TriePatternMatchedCallback<T>> callbacks,
+                                   int from, int to, int depth) {
+            // Patterns ending at this node sort first.
+            while (from < to && getTextLength(patterns.get(from)) == depth) {
+                if (endOfPatternCallback == null) {
+                    endOfPatternCallback = new ArrayList<>(1);
+                }
+                endOfPatternCallback.add(callbacks.get(from));
+                from++;
+            }
+            if (from == to) {
+                return;
+            }
+            if (to - from == 1) {
+                T pattern = patterns.get(from);
+                leaf = new TrieCompressedPath<>(pattern, depth, getTextLength(pattern), callbacks.get(from));
+                return;
+            }
+
+            // Find the start of each group of patterns with the same next character.
+            final int[] groupStarts = new int[to - from];
+            int groupCount = 0;
+            char lastCharacter = 0;
+            for (int i = from; i < to; i++) {
+                final char character = getCharValue(patterns.get(i), depth);
+                if (groupCount == 0 || character != lastCharacter) {
+                    groupStarts[groupCount++] = i;
+                    lastCharacter = character;
+                }
+            }
+
+            int arraySize = 1;
+            while (true) {
+                //noinspection unchecked
+                TrieNode<T>[] array = new TrieNode[arraySize];
+                boolean collision = false;
+                for (int group = 0; group < groupCount; group++) {
+                    TrieNode<T> child = createNode(getCharValue(patterns.get(groupStarts[group]), depth));
+                    if (!addNodeToArray(array, child)) {
+                        collision = true;
+                        break;
+                    }
+                }
+                if (!collision) {
+                    children = array;
+                    break;
+                }
+                arraySize += CHILDREN_ARRAY_INCREASE_SIZE_INCREMENT;
+            }
+
+            for (int group = 0; group < groupCount; group++) {
+                final int groupStart = groupStarts[group];
+                final int groupEnd = group + 1 < groupCount ? groupStarts[group + 1] : to;
+                final char character = getCharValue(patterns.get(groupStart), depth);
+                TrieNode<T> child = Objects.requireNonNull(children[hashIndexForTableSize(children.length, character)]);
+                child.buildPatterns(patterns, callbacks, groupStart, groupEnd, depth + 1);
+            }
+        }
+
+        private int compareTo(T first, T second) {
+            final int firstLength = getTextLength(first);
+            final int secondLength = getTextLength(second);
+            final int commonLength = Math.min(firstLength, secondLength);
+            for (int i = 0; i < commonLength; i++) {
+                final int difference = getCharValue(first, i) - getCharValue(second, i);
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return firstLength - secondLength;
+        }
+
         /**
          * Resizes the children table until all nodes hash to exactly one array index.
          */
@@ -216,51 +289,332 @@ public abstract class TrieSearch<T> {
         }
 
         /**
-         * This method is static and uses a loop to avoid all recursion.
+         * Removes all children, leaves and callbacks from this node.
+         */
+        private void clear() {
+            leaf = null;
+            children = null;
+            endOfPatternCallback = null;
+        }
+
+        abstract TrieNode<T> createNode(char nodeValue);
+
+        abstract char getCharValue(T text, int index);
+
+        abstract int getTextLength(T text);
+    }
+
+    /**
+     * Flat array layout of a built tree, used for all searching.
+     * <p>
+     * Nodes are numbered in breadth first order, and each node is a fixed size record in {@link #nodes}
+     * that points to ranges of the other primitive arrays (compressed sparse row layout).
+     * Children tables use the same perfect hashing as {@link TrieNode#children}.
+     * Callbacks are referenced by index, so searching only walks primitive arrays
+     * instead of following pointers through thousands of small node objects.
+     * <p>
+     * Most nodes have no callbacks or leaf, so these are kept in a separate {@link #matches} record
+     * and a search that only passes through a node reads a single node record.
+     * <p>
+     * Most searches end at the root node, so the root children of ASCII characters
+     * are also indexed directly by character in {@link #rootChildren}.
+     * This avoids the modulo and the bounds checks of the children table for every search start index.
+     */
+    private static final class CompactTrie<T> {
+        // Fields of each node record.
+        private static final int NODE_TABLE_START = 0;
+        private static final int NODE_TABLE_SIZE = 1;
+        /**
+         * Start index of the match record, or -1 if the node has no callbacks and no leaf.
+         */
+        private static final int NODE_MATCH = 2;
+        private static final int NODE_RECORD_SIZE = 3;
+
+        // Fields of each match record.
+        private static final int MATCH_CALLBACK_START = 0;
+        /**
+         * End of the end of pattern callbacks. If the node has a leaf, the leaf callback is at this index.
+         */
+        private static final int MATCH_CALLBACK_END = 1;
+        /**
+         * Index of the leaf pattern, or -1 if the node has no leaf.
+         */
+        private static final int MATCH_LEAF = 2;
+        private static final int MATCH_LEAF_START_INDEX = 3;
+        private static final int MATCH_LEAF_LENGTH = 4;
+        private static final int MATCH_RECORD_SIZE = 5;
+
+        /**
+         * Characters below this value are looked up in {@link #rootChildren}.
+         */
+        private static final int ROOT_CHILDREN_SIZE = 128;
+
+        /**
+         * Used only for the get character methods.
+         */
+        final TrieNode<T> charAccessor;
+
+        /**
+         * Node records. The root node is at index zero.
+         */
+        final int[] nodes;
+
+        /**
+         * Character of each children table entry.
+         */
+        final char[] childValues;
+        /**
+         * Node record start index of each children table entry, or -1 if the entry is empty.
+         */
+        final int[] childNodes;
+
+        final int[] matches;
+
+        /**
+         * Callbacks of each node with a match record, with the leaf callback after the end of pattern callbacks.
+         * A null callback indicates to always accept a pattern match.
+         */
+        final TriePatternMatchedCallback<T>[] callbacks;
+
+        final Object[] leafPatterns;
+
+        /**
+         * Node record start index of the root child of each ASCII character, or -1 if the root has no such child.
+         */
+        final int[] rootChildren = new int[ROOT_CHILDREN_SIZE];
+
+        /**
+         * If the root node has a match record. Only possible if the tree has a single pattern,
+         * as zero length patterns are never added.
+         */
+        final boolean rootHasMatch;
+
+        @SuppressWarnings("unchecked")
+        CompactTrie(TrieNode<T> root) {
+            charAccessor = root;
+
+            // Number the nodes in breadth first order.
+            List<TrieNode<T>> nodes = new ArrayList<>();
+            nodes.add(root);
+            int tableSize = 0;
+            int matchCount = 0;
+            int callbackCount = 0;
+            int leafCount = 0;
+            for (int i = 0; i < nodes.size(); i++) {
+                TrieNode<T> node = nodes.get(i);
+                if (node.children != null) {
+                    tableSize += node.children.length;
+                    for (TrieNode<T> child : node.children) {
+                        if (child != null) {
+                            nodes.add(child);
+                        }
+                    }
+                }
+                if (node.endOfPatternCallback != null || node.leaf != null) {
+                    matchCount++;
+                }
+                if (node.endOfPatternCallback != null) {
+                    callbackCount += node.endOfPatternCallback.size();
+                }
+                if (node.leaf != null) {
+                    callbackCount++;
+                    leafCount++;
+                }
+            }
+
+            final int nodeCount = nodes.size();
+            this.nodes = new int[nodeCount * NODE_RECORD_SIZE];
+            childValues = new char[tableSize];
+            childNodes = new int[tableSize];
+            matches = new int[matchCount * MATCH_RECORD_SIZE];
+            callbacks = new TriePatternMatchedCallback[callbackCount];
+            leafPatterns = new Object[leafCount];
+
+            int tableIndex = 0;
+            int matchIndex = 0;
+            int callbackIndex = 0;
+            int leafIndex = 0;
+            int nextChildNode = 1; // Children are numbered in the same order they were added above.
+            for (int i = 0; i < nodeCount; i++) {
+                TrieNode<T> node = nodes.get(i);
+                final int record = i * NODE_RECORD_SIZE;
+
+                this.nodes[record + NODE_TABLE_START] = tableIndex;
+                if (node.children != null) {
+                    this.nodes[record + NODE_TABLE_SIZE] = node.children.length;
+                    for (TrieNode<T> child : node.children) {
+                        if (child == null) {
+                            childNodes[tableIndex] = -1;
+                        } else {
+                            childValues[tableIndex] = child.nodeValue;
+                            childNodes[tableIndex] = NODE_RECORD_SIZE * nextChildNode++;
+                        }
+                        tableIndex++;
+                    }
+                }
+
+                if (node.endOfPatternCallback == null && node.leaf == null) {
+                    this.nodes[record + NODE_MATCH] = -1;
+                    continue;
+                }
+                this.nodes[record + NODE_MATCH] = matchIndex;
+
+                matches[matchIndex + MATCH_CALLBACK_START] = callbackIndex;
+                if (node.endOfPatternCallback != null) {
+                    for (TriePatternMatchedCallback<T> callback : node.endOfPatternCallback) {
+                        callbacks[callbackIndex++] = callback;
+                    }
+                }
+                matches[matchIndex + MATCH_CALLBACK_END] = callbackIndex;
+
+                TrieCompressedPath<T> leaf = node.leaf;
+                if (leaf == null) {
+                    matches[matchIndex + MATCH_LEAF] = -1;
+                } else {
+                    matches[matchIndex + MATCH_LEAF] = leafIndex;
+                    matches[matchIndex + MATCH_LEAF_START_INDEX] = leaf.patternStartIndex;
+                    matches[matchIndex + MATCH_LEAF_LENGTH] = leaf.patternLength;
+                    leafPatterns[leafIndex++] = leaf.pattern;
+                    callbacks[callbackIndex++] = leaf.callback;
+                }
+                matchIndex += MATCH_RECORD_SIZE;
+            }
+
+            for (char character = 0; character < ROOT_CHILDREN_SIZE; character++) {
+                rootChildren[character] = findChild(0, character);
+            }
+            rootHasMatch = this.nodes[NODE_MATCH] >= 0;
+        }
+
+        /**
+         * @return Node record start index of the child, or -1 if the node has no child of the character.
+         */
+        private int findChild(int node, char character) {
+            final int tableSize = nodes[node + NODE_TABLE_SIZE];
+            if (tableSize == 0) {
+                return -1;
+            }
+            final int tableIndex = nodes[node + NODE_TABLE_START]
+                    + TrieNode.hashIndexForTableSize(tableSize, character);
+            final int child = childNodes[tableIndex];
+            if (child < 0 || childValues[tableIndex] != character) {
+                return -1;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean leafMatches(int match, int leaf, T searchText, int searchTextEndIndex,
+                                    int searchTextIndex, Object callbackParameter) {
+            final T pattern = (T) leafPatterns[leaf];
+            final int patternStartIndex = matches[match + MATCH_LEAF_START_INDEX];
+            final int patternLength = matches[match + MATCH_LEAF_LENGTH];
+            if (searchTextEndIndex - searchTextIndex < patternLength - patternStartIndex) {
+                return false; // Remaining search text is shorter than the remaining leaf pattern and they cannot match.
+            }
+            for (int i = searchTextIndex, j = patternStartIndex; j < patternLength; i++, j++) {
+                if (charAccessor.getCharValue(searchText, i) != charAccessor.getCharValue(pattern, j)) {
+                    return false;
+                }
+            }
+            TriePatternMatchedCallback<T> callback = callbacks[matches[match + MATCH_CALLBACK_END]];
+            return callback == null || callback.patternMatched(searchText,
+                    searchTextIndex - patternStartIndex, patternLength, callbackParameter);
+        }
+
+        /**
+         * @return If the end of pattern callbacks or leaf of a node matched, and the search should halt.
+         */
+        private boolean nodeMatches(int match, T searchText, int searchTextIndex, int searchTextEndIndex,
+                                    int currentMatchLength, Object callbackParameter) {
+            final int leaf = matches[match + MATCH_LEAF];
+            if (leaf >= 0 && leafMatches(match, leaf, searchText, searchTextEndIndex, searchTextIndex, callbackParameter)) {
+                return true; // Leaf exists and it matched the search text.
+            }
+            final int callbackEnd = matches[match + MATCH_CALLBACK_END];
+            for (int i = matches[match + MATCH_CALLBACK_START]; i < callbackEnd; i++) {
+                TriePatternMatchedCallback<T> callback = callbacks[i];
+                if (callback == null) {
+                    return true; // No callback and all matches are valid.
+                }
+                if (callback.patternMatched(searchText, searchTextIndex - currentMatchLength,
+                        currentMatchLength, callbackParameter)) {
+                    return true; // Callback confirmed the match.
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Searches for patterns starting at each index of the search text.
+         *
+         * @param searchText         Text to search for patterns in.
+         * @param startIndex         Index to start searching, inclusive.
+         * @param searchTextEndIndex End index, exclusive.
+         * @return If any pattern matches, and it's associated callback halted the search.
+         */
+        boolean matchesAnyIndex(final T searchText, final int startIndex, final int searchTextEndIndex,
+                                final Object callbackParameter) {
+            final int[] rootChildren = this.rootChildren;
+            final TrieNode<T> charAccessor = this.charAccessor;
+
+            for (int i = startIndex; i < searchTextEndIndex; i++) {
+                if (rootHasMatch) {
+                    if (matches(searchText, 0, i, searchTextEndIndex, 0, callbackParameter)) {
+                        return true;
+                    }
+                    continue;
+                }
+
+                // Most search start indexes have no root child, so check the root directly.
+                final char character = charAccessor.getCharValue(searchText, i);
+                final int child = character < ROOT_CHILDREN_SIZE
+                        ? rootChildren[character]
+                        : findChild(0, character);
+                if (child >= 0 && matches(searchText, child, i + 1, searchTextEndIndex, 1, callbackParameter)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Uses a loop to avoid all recursion.
          * This is done for performance since the JVM does not optimize tail recursion.
          *
-         * @param startNode          Node to start the search from.
          * @param searchText         Text to search for patterns in.
-         * @param searchTextIndex    Start index, inclusive.
+         * @param node               Node record start index to start the search from.
+         * @param searchTextIndex    Index of the next character to search, inclusive.
          * @param searchTextEndIndex End index, exclusive.
+         * @param currentMatchLength Number of characters already matched to reach the node.
          * @return If any pattern matches, and it's associated callback halted the search.
          */
-        private static <T> boolean matches(final TrieNode<T> startNode, final T searchText,
-                                           int searchTextIndex, final int searchTextEndIndex,
-                                           final Object callbackParameter) {
-            TrieNode<T> node = startNode;
-            int currentMatchLength = 0;
+        private boolean matches(final T searchText, int node, int searchTextIndex, final int searchTextEndIndex,
+                                int currentMatchLength, final Object callbackParameter) {
+            final int[] nodes = this.nodes;
+            final char[] childValues = this.childValues;
+            final int[] childNodes = this.childNodes;
+            final TrieNode<T> charAccessor = this.charAccessor;
 
             while (true) {
-                TrieCompressedPath<T> leaf = node.leaf;
-                if (leaf != null && leaf.matches(startNode, searchText, searchTextEndIndex, searchTextIndex, callbackParameter)) {
-                    return true; // Leaf exists and it matched the search text.
-                }
-                List<TriePatternMatchedCallback<T>> endOfPatternCallback = node.endOfPatternCallback;
-                if (endOfPatternCallback != null) {
-                    final int matchStartIndex = searchTextIndex - currentMatchLength;
-                    for (@Nullable TriePatternMatchedCallback<T> callback : endOfPatternCallback) {
-                        if (callback == null) {
-                            return true; // No callback and all matches are valid.
-                        }
-                        if (callback.patternMatched(searchText, matchStartIndex, currentMatchLength, callbackParameter)) {
-                            return true; // Callback confirmed the match.
-                        }
-                    }
+                final int match = nodes[node + NODE_MATCH];
+                if (match >= 0 && nodeMatches(match, searchText, searchTextIndex, searchTextEndIndex,
+                        currentMatchLength, callbackParameter)) {
+                    return true;
                 }
-                TrieNode<T>[] children = node.children;
-                if (children == null) {
+                final int tableSize = nodes[node + NODE_TABLE_SIZE];
+                if (tableSize == 0) {
                     return false; // Reached a graph end point and there's no further patterns to search.
                 }
                 if (searchTextIndex == searchTextEndIndex) {
                     return false; // Reached end of the search text and found no matches.
                 }
 
-                // Use the start node to reduce VM method lookup, since all nodes are the same class type.
-                final char character = startNode.getCharValue(searchText, searchTextIndex);
-                final int arrayIndex = hashIndexForTableSize(children.length, character);
-                TrieNode<T> child = children[arrayIndex];
-                if (child == null || child.nodeValue != character) {
+                final char character = charAccessor.getCharValue(searchText, searchTextIndex);
+                final int tableIndex = nodes[node + NODE_TABLE_START]
+                        + TrieNode.hashIndexForTableSize(tableSize, character);
+                final int child = childNodes[tableIndex];
+                if (child < 0 || childValues[tableIndex] != character) {
                     return false;
                 }
 
@@ -271,38 +625,25 @@ public abstract class TrieSearch<T> {
         }
 
         /**
-         * Gives an approximate memory usage.
-         *
-         * @return Estimated number of memory pointers used, starting from this node and including all children.
+         * @return Estimated number of bytes used by the arrays.
          */
-        private int estimatedNumberOfPointersUsed() {
-            int numberOfPointers = 4; // Number of fields in this class.
-            if (leaf != null) {
-                numberOfPointers += 4; // Number of fields in leaf node.
-            }
-            if (endOfPatternCallback != null) {
-                numberOfPointers += endOfPatternCallback.size();
-            }
-            if (children != null) {
-                numberOfPointers += children.length;
-                for (TrieNode<T> child : children) {
-                    if (child != null) {
-                        numberOfPointers += child.estimatedNumberOfPointersUsed();
-                    }
-                }
-            }
-            return numberOfPointers;
+        int estimatedMemorySize() {
+            // Assume the device has less than 32GB of ram (and can use pointer compression),
+            // or the device is 32-bit.
+            final int numberOfBytesPerPointer = 4;
+            final int numberOfBytesPerArrayHeader = 16;
+            final int numberOfArrays = 7;
+            return numberOfArrays * numberOfBytesPerArrayHeader
+                    + 4 * (nodes.length + childNodes.length + matches.length + rootChildren.length)
+                    + 2 * childValues.length
+                    + numberOfBytesPerPointer * (callbacks.length + leafPatterns.length);
         }
-
-        abstract TrieNode<T> createNode(char nodeValue);
-
-        abstract char getCharValue(T text, int index);
-
-        abstract int getTextLength(T text);
     }
 
     /**
      * Root node, and it's children represent the first pattern characters.
+     * <p>
+     * Only used while patterns are added, and is cleared once the tree is compacted.
      */
     private final TrieNode<T> root;
 
@@ -311,6 +652,23 @@ public abstract class TrieSearch<T> {
      */
     private final List<T> patterns = new ArrayList<>();
 
+    /**
+     * Callback of each pattern, in the same order as {@link #patterns}.
+     * Kept so the node graph can be rebuilt if patterns are added after the tree was compacted.
+     */
+    private final List<TriePatternMatchedCallback<T>> callbacks = new ArrayList<>();
+
+    /**
+     * Flat array layout of the tree, created on the first search after patterns are added.
+     */
+    @Nullable
+    private volatile CompactTrie<T> compactTrie;
+
+    /**
+     * If the node graph was cleared after creating {@link #compactTrie}.
+     */
+    private boolean nodesCleared;
+
     @SafeVarargs
     TrieSearch(@NonNull TrieNode<T> root, @NonNull T... patterns) {
         this.root = Objects.requireNonNull(root);
@@ -341,11 +699,95 @@ public abstract class TrieSearch<T> {
         addPattern(pattern, root.getTextLength(pattern), Objects.requireNonNull(callback));
     }
 
-    void addPattern(@NonNull T pattern, int patternLength, @Nullable TriePatternMatchedCallback<T> callback) {
+    synchronized void addPattern(@NonNull T pattern, int patternLength, @Nullable TriePatternMatchedCallback<T> callback) {
         if (patternLength == 0) return; // Nothing to match
 
+        if (nodesCleared) {
+            nodesCleared = false;
+            buildNodes(patterns, callbacks);
+        }
         patterns.add(pattern);
+        callbacks.add(callback);
         root.addPattern(pattern, 0, patternLength, callback);
+        compactTrie = null;
+    }
+
+    /**
+     * Adds many patterns at once, which is much faster than adding the patterns one by one
+     * since each node is only created and hashed once.
+     * <p>
+     * If this instance already contains patterns, the patterns are added one by one.
+     *
+     * @param patterns  Patterns to add. Zero length patterns are ignored.
+     * @param callbacks Callback for each pattern, where a NULL callback indicates to always accept a pattern match.
+     */
+    public synchronized void addPatterns(@NonNull List<T> patterns, @NonNull List<TriePatternMatchedCallback<T>> callbacks) {
+        final int size = patterns.size();
+        if (size != callbacks.size()) {
+            throw new IllegalArgumentException("patterns size: " + size
+                    + " does not match callbacks size: " + callbacks.size());
+        }
+
+        if (!this.patterns.isEmpty()) {
+            for (int i = 0; i < size; i++) {
+                T pattern = patterns.get(i);
+                addPattern(pattern, root.getTextLength(pattern), callbacks.get(i));
+            }
+            return;
+        }
+
+        for (int i = 0; i < size; i++) {
+            T pattern = patterns.get(i);
+            if (root.getTextLength(pattern) != 0) {
+                this.patterns.add(pattern);
+                this.callbacks.add(callbacks.get(i));
+            }
+        }
+        buildNodes(this.patterns, this.callbacks);
+        compactTrie = null;
+    }
+
+    /**
+     * Builds the node graph from an empty root node.
+     *
+     * @param patterns Non empty patterns.
+     */
+    private void buildNodes(List<T> patterns, List<TriePatternMatchedCallback<T>> callbacks) {
+        final int count = patterns.size();
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // Stable sort, so callbacks of equal patterns are kept in order of insertion.
+        Arrays.sort(order, (first, second) -> root.compareTo(patterns.get(first), patterns.get(second)));
+
+        List<T> sortedPatterns = new ArrayList<>(count);
+        List<TriePatternMatchedCallback<T>> sortedCallbacks = new ArrayList<>(count);
+        for (Integer index : order) {
+            sortedPatterns.add(patterns.get(index));
+            sortedCallbacks.add(callbacks.get(index));
+        }
+
+        root.buildPatterns(sortedPatterns, sortedCallbacks, 0, count, 0);
+    }
+
+    /**
+     * @return The flat array layout of the tree. The node graph is cleared after the layout is created.
+     */
+    private CompactTrie<T> getCompactTrie() {
+        CompactTrie<T> trie = compactTrie;
+        if (trie == null) {
+            synchronized (this) {
+                trie = compactTrie;
+                if (trie == null) {
+                    trie = new CompactTrie<>(root);
+                    root.clear();
+                    nodesCleared = true;
+                    compactTrie = trie;
+                }
+            }
+        }
+        return trie;
     }
 
     public final boolean matches(@NonNull T textToSearch) {
@@ -387,10 +829,7 @@ public abstract class TrieSearch<T> {
         if (patterns.isEmpty()) {
             return false; // No patterns were added.
         }
-        for (int i = startIndex; i < endIndex; i++) {
-            if (TrieNode.matches(root, textToSearch, i, endIndex, callbackParameter)) return true;
-        }
-        return false;
+        return getCompactTrie().matchesAnyIndex(textToSearch, startIndex, endIndex, callbackParameter);
     }
 
     /**
@@ -400,10 +839,7 @@ public abstract class TrieSearch<T> {
         if (patterns.isEmpty()) {
             return 0;
         }
-        // Assume the device has less than 32GB of ram (and can use pointer compression),
-        // or the device is 32-bit.
-        final int numberOfBytesPerPointer = 4;
-        return (int) Math.ceil((numberOfBytesPerPointer * root.estimatedNumberOfPointersUsed()) / 1024.0);
+        return (int) Math.ceil(getCompactTrie().estimatedMemorySize() / 1024.0);
     }
 
     public int numberOfPatterns() {
@@ -413,4 +849,4 @@ public abstract class TrieSearch<T> {
     public List<T> getPatterns() {
         return Collections.unmodifiableList(patterns);
     }
-}
\ No newline at end of file
+}
@@ -54,6 +54,7 @@ import android.widget.RelativeLayout;
 import android.widget.Toast;
 import android.widget.Toolbar;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -63,12 +64,16 @@ import java.text.Bidi;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -159,28 +164,141 @@ public class Utils {
     }
 
     /**
-     * General purpose pool for network calls and other background tasks.
-     * All tasks run at max thread priority.
+     * Priority of a background task.
+     * <p>
+     * Each priority has its own limited number of threads, so a burst of tasks
+     * of one priority does not delay tasks of another priority,
+     * and background tasks never use more threads than the limit of each priority.
+     * <p>
+     * Tasks must not wait for other tasks of the same priority,
+     * as all threads of a priority can be waiting and no thread is left to run the other tasks.
+     * <p>
+     * Each priority is also an {@link Executor}, for the async stages of a {@link java.util.concurrent.CompletableFuture}.
      */
-    private static final ThreadPoolExecutor backgroundThreadPool = new ThreadPoolExecutor(
-            3, // 3 threads always ready to go
-            Integer.MAX_VALUE,
-            10, // For any threads over the minimum, keep them alive 10 seconds after they go idle
-            TimeUnit.SECONDS,
-            new SynchronousQueue<>(),
-            r -> { // ThreadFactory
-                Thread t = new Thread(r);
-                t.setPriority(Thread.MAX_PRIORITY); // run at max priority
-                return t;
-            });
+    public enum TaskPriority implements Executor {
+        /**
+         * Tasks needed to play the current video, such as the streaming data.
+         */
+        PLAYBACK(3, Thread.NORM_PRIORITY),
+        /**
+         * Tasks with a result the user is waiting for, such as data shown in the player or in a dialog.
+         */
+        USER_VISIBLE(3, Thread.NORM_PRIORITY),
+        /**
+         * Tasks with no visible result, such as statistics.
+         */
+        BACKGROUND(1, Thread.NORM_PRIORITY - 2);
+
+        /**
+         * If more tasks are queued, the queue size is logged.
+         */
+        private static final int QUEUE_SIZE_TO_LOG = 10;
+
+        private final ThreadPoolExecutor executor;
+
+        TaskPriority(int maximumThreads, int threadPriority) {
+            executor = new ThreadPoolExecutor(
+                    maximumThreads,
+                    maximumThreads,
+                    10, // Keep threads alive 10 seconds after they go idle
+                    TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    r -> { // ThreadFactory
+                        Thread t = new Thread(r, "RVX " + name());
+                        t.setPriority(threadPriority);
+                        return t;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        /**
+         * @return Number of tasks waiting for a thread.
+         */
+        public int getQueueSize() {
+            return executor.getQueue().size();
+        }
+
+        private void logQueueSize() {
+            final int queueSize = getQueueSize();
+            if (queueSize > QUEUE_SIZE_TO_LOG) {
+                Logger.printDebug(() -> name() + " tasks queued: " + queueSize);
+            }
+        }
+
+        @Override
+        public void execute(@NonNull Runnable task) {
+            executor.execute(task);
+            logQueueSize();
+        }
+
+        @NonNull
+        private <T> Future<T> submit(@NonNull Callable<T> call) {
+            Future<T> future = executor.submit(call);
+            logQueueSize();
+            return future;
+        }
+    }
 
+    /**
+     * Tasks that are cancelled if a newer task with the same key is run before they start.
+     */
+    @GuardedBy("itself")
+    private static final Map<String, Future<?>> supersededTasks = new HashMap<>();
+
+    /**
+     * Runs the task with {@link TaskPriority#USER_VISIBLE} priority.
+     */
     public static void runOnBackgroundThread(@NonNull Runnable task) {
-        backgroundThreadPool.execute(task);
+        runOnBackgroundThread(TaskPriority.USER_VISIBLE, task);
+    }
+
+    public static void runOnBackgroundThread(@NonNull TaskPriority priority, @NonNull Runnable task) {
+        priority.execute(task);
+    }
+
+    /**
+     * Runs the task, and cancels the previous task of the same key if the previous task has not started yet.
+     * Used for tasks of the current video, where the task of a previous video is no longer needed.
+     *
+     * @param key Key of the task, unique to the class and operation running the task.
+     */
+    public static void runOnBackgroundThread(@NonNull TaskPriority priority, @NonNull String key, @NonNull Runnable task) {
+        Future<?> future = priority.submit(Executors.callable(() -> {
+            // Exceptions are otherwise kept in the future, which is never read.
+            try {
+                task.run();
+            } catch (Exception ex) {
+                Logger.printException(() -> "Background task failed: " + key, ex);
+            }
+        }));
+        Future<?> previous;
+        synchronized (supersededTasks) {
+            previous = supersededTasks.put(key, future);
+        }
+        if (previous != null && previous.cancel(false)) {
+            Logger.printDebug(() -> "Cancelled superseded task: " + key);
+        }
     }
 
+    /**
+     * Runs the task after a delay.
+     * The delay is counted on the main thread, but the task itself is run on a background thread.
+     */
+    public static void runOnBackgroundThreadDelayed(@NonNull TaskPriority priority, long delayMillis, @NonNull Runnable task) {
+        runOnMainThreadDelayed(() -> priority.execute(task), delayMillis);
+    }
+
+    /**
+     * Submits the task with {@link TaskPriority#USER_VISIBLE} priority.
+     */
     @NonNull
     public static <T> Future<T> submitOnBackgroundThread(@NonNull Callable<T> call) {
-        return backgroundThreadPool.submit(call);
+        return submitOnBackgroundThread(TaskPriority.USER_VISIBLE, call);
+    }
+
+    @NonNull
+    public static <T> Future<T> submitOnBackgroundThread(@NonNull TaskPriority priority, @NonNull Callable<T> call) {
+        return priority.submit(call);
     }
 
     /**
@@ -1186,9 +1304,8 @@ public class Utils {
     /**
      * @return zero, if the resource is not found
      */
-    @SuppressLint("DiscouragedApi")
-    public static int getResourceIdentifier(@NonNull Context context, @NonNull String resourceIdentifierName, @NonNull String type) {
-        return context.getResources().getIdentifier(resourceIdentifierName, type, context.getPackageName());
+    public static int getResourceIdentifier(@NonNull Context context, @NonNull String resourceIdentifierName, @Nullable String type) {
+        return ResourceIdentifiers.get(context, resourceIdentifierName, type);
     }
 
     public static int getResourceIdentifierOrThrow(Context context, String resourceIdentifierName, @Nullable String type) {
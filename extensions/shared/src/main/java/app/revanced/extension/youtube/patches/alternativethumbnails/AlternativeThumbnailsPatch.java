@@ -630,10 +630,10 @@ public final class AlternativeThumbnailsPatch {
 
             boolean imageFileFound;
             try {
-                // This hooked code is running on a low priority thread, and it's slightly faster
-                // to run the url connection thru the integrations thread pool which runs at the highest priority.
+                // Verification only decides which thumbnail is loaded later, and can wait for up to
+                // 10 seconds each, so it must not use the threads of tasks the user is waiting for.
                 final long start = System.currentTimeMillis();
-                imageFileFound = Utils.submitOnBackgroundThread(() -> {
+                imageFileFound = Utils.submitOnBackgroundThread(Utils.TaskPriority.BACKGROUND, () -> {
                     final int connectionTimeoutMillis = 10000; // 10 seconds.
                     HttpURLConnection connection = (HttpURLConnection) new URL(imageUrl).openConnection();
                     connection.setConnectTimeout(connectionTimeoutMillis);
@@ -15,8 +15,8 @@ import app.revanced.extension.shared.patches.components.StringFilterGroupList;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.StringTrieSearch;
 import app.revanced.extension.youtube.settings.Settings;
-import app.revanced.extension.youtube.shared.EngagementPanel;
 import app.revanced.extension.youtube.shared.NavigationBar.NavigationButton;
+import app.revanced.extension.youtube.shared.NavigationBar.NavigationState;
 import app.revanced.extension.youtube.shared.RootView;
 
 @SuppressWarnings({"deprecation", "unused", "FieldCanBeLocal"})
@@ -382,25 +382,27 @@ public final class FeedComponentsFilter extends Filter {
             return false;
         }
 
+        NavigationState navigationState = NavigationState.capture();
+        NavigationButton selectedNavButton = navigationState.selectedNavigationButton;
+
         // Must check player type first, as search bar can be active behind the player.
-        if (RootView.isPlayerActive()) {
+        if (navigationState.playerActive) {
             return hideHomeAndOthers
-                    && !EngagementPanel.isDescription()
-                    && NavigationButton.getSelectedNavigationButton() != NavigationButton.LIBRARY;
+                    && !navigationState.descriptionActive
+                    && selectedNavButton != NavigationButton.LIBRARY;
         }
 
         // Must check second, as search can be from any tab.
-        if (RootView.isSearchBarActive()) {
+        if (navigationState.searchBarActive) {
             return hideSearch;
         }
 
-        NavigationButton selectedNavButton = NavigationButton.getSelectedNavigationButton();
         // Unknown tab, treat the same as home.
         if (selectedNavButton == null) {
             return hideHomeAndOthers;
         }
 
-        String browseId = RootView.getBrowseId();
+        String browseId = navigationState.browseId;
         // Fixes a very rare bug in home.
         if (selectedNavButton == NavigationButton.HOME
                 && StringUtils.equalsAny(browseId, BROWSE_ID_LIBRARY, BROWSE_ID_NOTIFICATION_INBOX)) {
@@ -1,18 +1,17 @@
 package app.revanced.extension.youtube.patches.components;
 
-import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import app.revanced.extension.shared.patches.components.Filter;
 import app.revanced.extension.shared.patches.components.StringFilterGroup;
 import app.revanced.extension.shared.settings.StringSetting;
+import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.ResourceUtils;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.shared.NavigationBar;
-import app.revanced.extension.youtube.shared.RootView;
 
 @SuppressWarnings("all")
 public final class FeedVideoViewsFilter extends Filter {
@@ -38,18 +37,20 @@ public final class FeedVideoViewsFilter extends Filter {
             return true;
         }
 
+        NavigationBar.NavigationState navigationState = NavigationBar.NavigationState.capture();
+
         // Must check player type first, as search bar can be active behind the player.
-        if (RootView.isPlayerActive()) {
+        if (navigationState.playerActive) {
             // For now, consider the under video results the same as the home feed.
             return hideHome;
         }
 
         // Must check second, as search can be from any tab.
-        if (RootView.isSearchBarActive()) {
+        if (navigationState.searchBarActive) {
             return hideSearch;
         }
 
-        NavigationBar.NavigationButton selectedNavButton = NavigationBar.NavigationButton.getSelectedNavigationButton();
+        NavigationBar.NavigationButton selectedNavButton = navigationState.selectedNavigationButton;
         if (selectedNavButton == null) {
             return hideHome; // Unknown tab, treat the same as home.
         } else if (selectedNavButton == NavigationBar.NavigationButton.HOME) {
@@ -68,14 +69,13 @@ public final class FeedVideoViewsFilter extends Filter {
                 filterByViews(buffer);
     }
 
-    private static final String ARROW = " -> ";
+    private static final String ARROW = "->";
     private static final String VIEWS = "views";
     private static final StringSetting HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER =
             Settings.HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER;
     private static final String HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER_DEFAULT_VALUE =
             "revanced_hide_video_view_counts_multiplier_default_value";
-    private static final String[] parts;
-    private Pattern[] viewCountPatterns = null;
+    private static final ViewCountRecognizer viewCountRecognizer;
 
     static {
         final String multiplierString = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get();
@@ -86,109 +86,271 @@ public final class FeedVideoViewsFilter extends Filter {
                 HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.save(defaultValue);
             }
         }
-        parts = HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get().split("\\n");
+        viewCountRecognizer = new ViewCountRecognizer(HIDE_VIDEO_VIEW_COUNTS_MULTIPLIER.get().split("\\n"));
     }
 
     /**
      * Hide videos based on views count
      */
-    private synchronized boolean filterByViews(byte[] buffer) {
-        final String protobufString = new String(buffer);
-        final long lessThan = Settings.HIDE_VIDEO_VIEW_COUNTS_LESS_THAN.get();
-        final long greaterThan = Settings.HIDE_VIDEO_VIEW_COUNTS_GREATER_THAN.get();
-
-        if (viewCountPatterns == null) {
-            viewCountPatterns = getViewCountPatterns(parts);
-        }
-
-        for (Pattern pattern : viewCountPatterns) {
-            final Matcher matcher = pattern.matcher(protobufString);
-            if (matcher.find()) {
-                String numString = Objects.requireNonNull(matcher.group(1));
-                double num = parseNumber(numString);
-                String multiplierKey = matcher.group(2);
-                long multiplierValue = getMultiplierValue(parts, multiplierKey);
-                return num * multiplierValue < lessThan || num * multiplierValue > greaterThan;
-            }
+    private static boolean filterByViews(byte[] buffer) {
+        final double views = viewCountRecognizer.findViewCount(buffer);
+        if (views < 0) {
+            return false;
         }
 
-        return false;
+        return views < Settings.HIDE_VIDEO_VIEW_COUNTS_LESS_THAN.get()
+                || views > Settings.HIDE_VIDEO_VIEW_COUNTS_GREATER_THAN.get();
     }
 
-    private synchronized double parseNumber(String numString) {
+    /**
+     * Finds the view count directly in the UTF-8 bytes of the protobuf buffer,
+     * so no String is decoded and no regex is run for each feed video.
+     * <p>
+     * Recognizes a number followed by an optional multiplier key and a views suffix (LTR layout),
+     * such as '1.5K views', or a views suffix followed by a number and an optional multiplier key (RTL layout).
+     * Immutable after construction, so it can be used from any thread without locking.
+     */
+    private static final class ViewCountRecognizer {
+
+        private static final class ByteTrieNode {
+            private static final ByteTrieNode[] NO_CHILDREN = new ByteTrieNode[0];
+
+            byte[] labels = new byte[0];
+            ByteTrieNode[] children = NO_CHILDREN;
+            /**
+             * Order of the key ending at this node in the setting, or -1 if no key ends here.
+             */
+            int keyIndex = -1;
+
+            @Nullable
+            ByteTrieNode child(byte label) {
+                final byte[] labels = this.labels;
+                for (int i = 0, length = labels.length; i < length; i++) {
+                    if (labels[i] == label) {
+                        return children[i];
+                    }
+                }
+                return null;
+            }
+
+            void add(byte[] key, int keyIndex) {
+                ByteTrieNode node = this;
+                for (byte label : key) {
+                    ByteTrieNode child = node.child(label);
+                    if (child == null) {
+                        child = new ByteTrieNode();
+                        final int length = node.labels.length;
+                        node.labels = Arrays.copyOf(node.labels, length + 1);
+                        node.children = Arrays.copyOf(node.children, length + 1);
+                        node.labels[length] = label;
+                        node.children[length] = child;
+                    }
+                    node = child;
+                }
+                if (node.keyIndex < 0) {
+                    node.keyIndex = keyIndex;
+                }
+            }
+        }
+
         /**
-         * Some languages have comma (,) as a decimal separator.
-         * In order to detect those numbers as doubles in Java
-         * we convert commas (,) to dots (.).
-         * Unless we find a language that has commas used in
-         * a different manner, it should work.
+         * Result of {@link #parseNumber(byte[], int, ParsedNumber)}.
          */
-        numString = numString.replace(",", ".");
+        private static final class ParsedNumber {
+            double value;
+            int endIndex;
+        }
 
         /**
-         * Some languages have dot (.) as a kilo separator.
-         * So we check with regex if there is a number with 3+
-         * digits after dot (.), we replace it with nothing
-         * to make Java understand the number as a whole.
+         * Number of decimals, from which a dot or comma is a thousands separator.
+         * Some languages use a dot as thousands separator, and others use a comma as decimal separator.
          */
-        if (numString.matches("\\d+\\.\\d{3,}")) {
-            numString = numString.replace(".", "");
+        private static final int THOUSANDS_SEPARATOR_DIGITS = 3;
+
+        /**
+         * Reused for every view count search, as the filter runs for each Litho component.
+         * Components are filtered on multiple threads.
+         */
+        private static final ThreadLocal<ParsedNumber> parsedNumber = ThreadLocal.withInitial(ParsedNumber::new);
+
+        private final ByteTrieNode multiplierKeys = new ByteTrieNode();
+        private final ByteTrieNode suffixes = new ByteTrieNode();
+        private final long[] multiplierValues;
+
+        ViewCountRecognizer(String[] parts) {
+            final long[] values = new long[parts.length];
+            int keyCount = 0;
+            boolean suffixFound = false;
+
+            for (String part : parts) {
+                final int arrowIndex = part.indexOf(ARROW);
+                if (arrowIndex < 0) {
+                    Logger.printDebug(() -> "Ignoring view count key without value: " + part);
+                    continue;
+                }
+                final String key = part.substring(0, arrowIndex).trim();
+                final String value = part.substring(arrowIndex + ARROW.length()).trim();
+                if (key.isEmpty()) {
+                    continue;
+                }
+
+                final String digits = value.replaceAll("[^\\d]", "");
+                if (digits.isEmpty()) {
+                    // Views suffix. Some translations have the key and value swapped, such as 'views -> Aufrufe'.
+                    suffixes.add(key.getBytes(StandardCharsets.UTF_8), 0);
+                    if (!value.isEmpty() && !value.equals(VIEWS)) {
+                        suffixes.add(value.getBytes(StandardCharsets.UTF_8), 0);
+                    }
+                    suffixFound = true;
+                } else {
+                    values[keyCount] = Long.parseLong(digits);
+                    multiplierKeys.add(key.getBytes(StandardCharsets.UTF_8), keyCount);
+                    keyCount++;
+                }
+            }
+
+            if (!suffixFound) {
+                suffixes.add(VIEWS.getBytes(StandardCharsets.UTF_8), 0);
+            }
+            multiplierValues = Arrays.copyOf(values, keyCount);
         }
 
-        return Double.parseDouble(numString);
-    }
+        /**
+         * @return The view count, or -1 if the buffer contains no view count.
+         */
+        double findViewCount(byte[] buffer) {
+            final ParsedNumber number = parsedNumber.get();
+            final int length = buffer.length;
+
+            // LTR layout, such as '1.5K views'.
+            for (int i = 0; i < length; i++) {
+                if (!isDigit(buffer[i])) continue;
+
+                parseNumber(buffer, i, number);
+                final int keyStartIndex = skipOneWhitespace(buffer, number.endIndex);
+
+                // Key that is defined first has priority, same as the alternatives of a regex.
+                int matchedKeyIndex = Integer.MAX_VALUE;
+                ByteTrieNode node = multiplierKeys;
+                for (int j = keyStartIndex; j < length; ) {
+                    node = node.child(buffer[j++]);
+                    if (node == null) break;
+
+                    final int keyIndex = node.keyIndex;
+                    if (keyIndex >= 0 && keyIndex < matchedKeyIndex
+                            && matchesSuffix(buffer, skipWhitespace(buffer, j)) >= 0) {
+                        matchedKeyIndex = keyIndex;
+                    }
+                }
+
+                if (matchedKeyIndex != Integer.MAX_VALUE) {
+                    return number.value * multiplierValues[matchedKeyIndex];
+                }
+                if (matchesSuffix(buffer, skipWhitespace(buffer, number.endIndex)) >= 0) {
+                    return number.value;
+                }
+            }
 
-    private synchronized Pattern[] getViewCountPatterns(String[] parts) {
-        StringBuilder prefixPatternBuilder = new StringBuilder("(\\d+(?:[.,]\\d+)?)\\s?("); // LTR layout
-        StringBuilder secondPatternBuilder = new StringBuilder(); // RTL layout
-        StringBuilder suffixBuilder = getSuffixBuilder(parts, prefixPatternBuilder, secondPatternBuilder);
+            // RTL layout, such as 'views 1.5K'.
+            for (int i = 0; i < length; i++) {
+                final int suffixEndIndex = matchesSuffix(buffer, i);
+                if (suffixEndIndex < 0) continue;
 
-        prefixPatternBuilder.deleteCharAt(prefixPatternBuilder.length() - 1); // Remove the trailing |
-        prefixPatternBuilder.append(")?\\s*");
-        prefixPatternBuilder.append(suffixBuilder.length() > 0 ? suffixBuilder.toString() : VIEWS);
+                final int numberStartIndex = skipWhitespace(buffer, suffixEndIndex);
+                if (numberStartIndex >= length || !isDigit(buffer[numberStartIndex])) continue;
 
-        secondPatternBuilder.deleteCharAt(secondPatternBuilder.length() - 1); // Remove the trailing |
-        secondPatternBuilder.append(")?");
+                parseNumber(buffer, numberStartIndex, number);
+                final int keyIndex = findMultiplierKey(buffer, skipOneWhitespace(buffer, number.endIndex));
+                return keyIndex < 0
+                        ? number.value
+                        : number.value * multiplierValues[keyIndex];
+            }
 
-        final Pattern[] patterns = new Pattern[2];
-        patterns[0] = Pattern.compile(prefixPatternBuilder.toString());
-        patterns[1] = Pattern.compile(secondPatternBuilder.toString());
+            return -1;
+        }
 
-        return patterns;
-    }
+        /**
+         * Parses a number such as '15', '1.5', '1,5' or '1.234'.
+         * A comma is a decimal separator, and a dot or comma followed by 3 or more digits is a thousands separator.
+         */
+        private static void parseNumber(byte[] buffer, int startIndex, ParsedNumber number) {
+            final int length = buffer.length;
+            // Double, as digit runs of ids and timestamps can overflow a long.
+            double mantissa = 0;
+            int index = startIndex;
+            while (index < length && isDigit(buffer[index])) {
+                mantissa = mantissa * 10 + (buffer[index++] - '0');
+            }
 
-    @NonNull
-    private synchronized StringBuilder getSuffixBuilder(String[] parts, StringBuilder prefixPatternBuilder, StringBuilder secondPatternBuilder) {
-        StringBuilder suffixBuilder = new StringBuilder();
+            int decimals = 0;
+            if (index + 1 < length && (buffer[index] == '.' || buffer[index] == ',')
+                    && isDigit(buffer[index + 1])) {
+                index++;
+                while (index < length && isDigit(buffer[index])) {
+                    mantissa = mantissa * 10 + (buffer[index++] - '0');
+                    decimals++;
+                }
+            }
 
-        for (String part : parts) {
-            final String[] pair = part.split(ARROW);
-            final String pair0 = pair[0].trim();
-            final String pair1 = pair[1].trim();
+            number.endIndex = index;
+            if (decimals == 0 || decimals >= THOUSANDS_SEPARATOR_DIGITS) {
+                number.value = mantissa;
+            } else {
+                number.value = mantissa / (decimals == 1 ? 10.0 : 100.0);
+            }
+        }
 
-            if (pair.length == 2 && !pair1.equals(VIEWS)) {
-                prefixPatternBuilder.append(pair0).append("|");
+        /**
+         * @return The end index of the suffix starting at the index, or -1 if there is none.
+         */
+        private int matchesSuffix(byte[] buffer, int startIndex) {
+            ByteTrieNode node = suffixes;
+            for (int i = startIndex, length = buffer.length; i < length; ) {
+                node = node.child(buffer[i++]);
+                if (node == null) break;
+                if (node.keyIndex >= 0) return i;
             }
+            return -1;
+        }
 
-            if (pair.length == 2 && pair1.equals(VIEWS)) {
-                suffixBuilder.append(pair0);
-                secondPatternBuilder.append(pair0).append("\\s*").append(prefixPatternBuilder);
+        /**
+         * @return The first defined multiplier key starting at the index, or -1 if there is none.
+         */
+        private int findMultiplierKey(byte[] buffer, int startIndex) {
+            int matchedKeyIndex = -1;
+            ByteTrieNode node = multiplierKeys;
+            for (int i = startIndex, length = buffer.length; i < length; ) {
+                node = node.child(buffer[i++]);
+                if (node == null) break;
+
+                final int keyIndex = node.keyIndex;
+                if (keyIndex >= 0 && (matchedKeyIndex < 0 || keyIndex < matchedKeyIndex)) {
+                    matchedKeyIndex = keyIndex;
+                }
             }
+            return matchedKeyIndex;
         }
-        return suffixBuilder;
-    }
 
-    private synchronized long getMultiplierValue(String[] parts, String multiplier) {
-        for (String part : parts) {
-            final String[] pair = part.split(ARROW);
-            final String pair0 = pair[0].trim();
-            final String pair1 = pair[1].trim();
+        private static int skipOneWhitespace(byte[] buffer, int index) {
+            return index < buffer.length && isWhitespace(buffer[index])
+                    ? index + 1
+                    : index;
+        }
 
-            if (pair.length == 2 && pair0.equals(multiplier) && !pair1.equals(VIEWS)) {
-                return Long.parseLong(pair[1].replaceAll("[^\\d]", ""));
+        private static int skipWhitespace(byte[] buffer, int index) {
+            final int length = buffer.length;
+            while (index < length && isWhitespace(buffer[index])) {
+                index++;
             }
+            return index;
         }
 
-        return 1L; // Default value if not found
+        private static boolean isDigit(byte value) {
+            return value >= '0' && value <= '9';
+        }
+
+        private static boolean isWhitespace(byte value) {
+            return value == ' ' || value == '\t' || value == '\n' || value == 0x0B || value == '\f' || value == '\r';
+        }
     }
 }
@@ -11,6 +11,7 @@ import static java.lang.Character.UnicodeBlock.TIBETAN;
 import static app.revanced.extension.shared.utils.StringRef.str;
 import static app.revanced.extension.youtube.shared.NavigationBar.NavigationButton;
 
+import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -30,7 +31,7 @@ import app.revanced.extension.shared.utils.StringTrieSearch;
 import app.revanced.extension.shared.utils.TrieSearch;
 import app.revanced.extension.shared.utils.Utils;
 import app.revanced.extension.youtube.settings.Settings;
-import app.revanced.extension.youtube.shared.RootView;
+import app.revanced.extension.youtube.shared.NavigationBar.NavigationState;
 
 /**
  * <pre>
@@ -164,6 +165,24 @@ public final class KeywordContentFilter extends Filter {
 
     private final int UTF8_MAX_BYTE_COUNT = 4;
 
+    /**
+     * Keywords parsed from {@link Settings#HIDE_KEYWORD_CONTENT_PHRASES}.
+     * Immutable, so the phrases and search are always published together to the litho threads.
+     */
+    private static final class ParsedKeywords {
+        /**
+         * The value of {@link Settings#HIDE_KEYWORD_CONTENT_PHRASES} used to build {@link #bufferSearch}.
+         * Allows changing the keywords without restarting the app.
+         */
+        final String rawKeywords;
+        final ByteTrieSearch bufferSearch;
+
+        ParsedKeywords(String rawKeywords, ByteTrieSearch bufferSearch) {
+            this.rawKeywords = rawKeywords;
+            this.bufferSearch = bufferSearch;
+        }
+    }
+
     /**
      * Rolling average of how many videos were filtered by a keyword.
      * Used to detect if a keyword passes the initial check against {@link #STRINGS_IN_EVERY_BUFFER}
@@ -177,26 +196,24 @@ public final class KeywordContentFilter extends Filter {
      * in the home feed and search, because the home feed has a finite amount of content and
      * search results have a lot of extra video junk that is not hidden and interferes with the detection.
      */
-    private volatile float filteredVideosPercentage;
+    @GuardedBy("statsLock")
+    private float filteredVideosPercentage;
 
     /**
      * If filtering is temporarily turned off, the time to resume filtering.
      * Field is zero if no timeout is in effect.
+     * Written while holding {@link #statsLock}.
      */
     private volatile long timeToResumeFiltering;
 
+    private final Object statsLock = new Object();
+
     private final StringFilterGroup commentsFilter;
 
     private final StringTrieSearch commentsFilterExceptions = new StringTrieSearch();
 
-    /**
-     * The last value of {@link Settings#HIDE_KEYWORD_CONTENT_PHRASES}
-     * parsed and loaded into {@link #bufferSearch}.
-     * Allows changing the keywords without restarting the app.
-     */
-    private volatile String lastKeywordPhrasesParsed;
-
-    private volatile ByteTrieSearch bufferSearch;
+    @Nullable
+    private volatile ParsedKeywords parsedKeywords;
 
     private void logNavigationState(String state) {
         // Enable locally to debug filtering. Default off to reduce log spam.
@@ -493,12 +510,13 @@ public final class KeywordContentFilter extends Filter {
         return phrase.substring(1, phrase.length() - 1);
     }
 
-    private synchronized void parseKeywords() { // Must be synchronized since Litho is multi-threaded.
+    private synchronized ParsedKeywords parseKeywords() { // Must be synchronized since Litho is multi-threaded.
         String rawKeywords = Settings.HIDE_KEYWORD_CONTENT_PHRASES.get();
 
-        if (rawKeywords == lastKeywordPhrasesParsed) {
+        ParsedKeywords lastParsed = parsedKeywords;
+        if (lastParsed != null && rawKeywords == lastParsed.rawKeywords) {
             Logger.printDebug(() -> "Using previously initialized search");
-            return; // Another thread won the race, and search is already initialized.
+            return lastParsed; // Another thread won the race, and search is already initialized.
         }
 
         ByteTrieSearch search = new ByteTrieSearch();
@@ -596,10 +614,13 @@ public final class KeywordContentFilter extends Filter {
             Logger.printDebug(() -> "Search using: (" + search.getEstimatedMemorySize() + " KB) keywords: " + keywords.keySet());
         }
 
-        bufferSearch = search;
-        timeToResumeFiltering = 0;
-        filteredVideosPercentage = 0;
-        lastKeywordPhrasesParsed = rawKeywords; // Must set last.
+        synchronized (statsLock) {
+            timeToResumeFiltering = 0;
+            filteredVideosPercentage = 0;
+        }
+        ParsedKeywords parsed = new ParsedKeywords(rawKeywords, search);
+        parsedKeywords = parsed; // Must set last.
+        return parsed;
     }
 
     public KeywordContentFilter() {
@@ -616,13 +637,18 @@ public final class KeywordContentFilter extends Filter {
 
     private boolean hideKeywordSettingIsActive() {
         if (timeToResumeFiltering != 0) {
-            if (System.currentTimeMillis() < timeToResumeFiltering) {
-                return false;
-            }
+            synchronized (statsLock) {
+                final long resumeTime = timeToResumeFiltering;
+                if (resumeTime != 0) {
+                    if (System.currentTimeMillis() < resumeTime) {
+                        return false;
+                    }
 
-            timeToResumeFiltering = 0;
-            filteredVideosPercentage = 0;
-            Logger.printDebug(() -> "Resuming keyword filtering");
+                    timeToResumeFiltering = 0;
+                    filteredVideosPercentage = 0;
+                    Logger.printDebug(() -> "Resuming keyword filtering");
+                }
+            }
         }
 
         final boolean hideHome = Settings.HIDE_KEYWORD_CONTENT_HOME.get();
@@ -635,18 +661,20 @@ public final class KeywordContentFilter extends Filter {
             return true;
         }
 
+        NavigationState navigationState = NavigationState.capture();
+
         // Must check player type first, as search bar can be active behind the player.
-        if (RootView.isPlayerActive()) {
+        if (navigationState.playerActive) {
             // For now, consider the under video results the same as the home feed.
             return hideHome;
         }
 
         // Must check second, as search can be from any tab.
-        if (RootView.isSearchBarActive()) {
+        if (navigationState.searchBarActive) {
             return hideSearch;
         }
 
-        NavigationButton selectedNavButton = NavigationButton.getSelectedNavigationButton();
+        NavigationButton selectedNavButton = navigationState.selectedNavigationButton;
         if (selectedNavButton == null) {
             return hideHome; // Unknown tab, treat the same as home.
         }
@@ -660,20 +688,26 @@ public final class KeywordContentFilter extends Filter {
     }
 
     private void updateStats(boolean videoWasHidden, @Nullable String keyword) {
-        float updatedAverage = filteredVideosPercentage
-                * ((ALL_VIDEOS_FILTERED_SAMPLE_SIZE - 1) / ALL_VIDEOS_FILTERED_SAMPLE_SIZE);
-        if (videoWasHidden) {
-            updatedAverage += 1 / ALL_VIDEOS_FILTERED_SAMPLE_SIZE;
-        }
+        synchronized (statsLock) {
+            if (timeToResumeFiltering != 0) {
+                return; // Another thread already turned off filtering.
+            }
 
-        if (updatedAverage <= ALL_VIDEOS_FILTERED_THRESHOLD) {
-            filteredVideosPercentage = updatedAverage;
-            return;
-        }
+            float updatedAverage = filteredVideosPercentage
+                    * ((ALL_VIDEOS_FILTERED_SAMPLE_SIZE - 1) / ALL_VIDEOS_FILTERED_SAMPLE_SIZE);
+            if (videoWasHidden) {
+                updatedAverage += 1 / ALL_VIDEOS_FILTERED_SAMPLE_SIZE;
+            }
 
-        // A keyword is hiding everything.
-        // Inform the user, and temporarily turn off filtering.
-        timeToResumeFiltering = System.currentTimeMillis() + ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS;
+            if (updatedAverage <= ALL_VIDEOS_FILTERED_THRESHOLD) {
+                filteredVideosPercentage = updatedAverage;
+                return;
+            }
+
+            // A keyword is hiding everything.
+            // Inform the user, and temporarily turn off filtering.
+            timeToResumeFiltering = System.currentTimeMillis() + ALL_VIDEOS_FILTERED_BACKOFF_MILLISECONDS;
+        }
 
         Logger.printDebug(() -> "Temporarily turning off filtering due to excessively broad filter: " + keyword);
         Utils.showToastLong(str("revanced_hide_keyword_toast_invalid_broad", keyword));
@@ -692,9 +726,10 @@ public final class KeywordContentFilter extends Filter {
         }
 
         // Field is intentionally compared using reference equality.
-        if (Settings.HIDE_KEYWORD_CONTENT_PHRASES.get() != lastKeywordPhrasesParsed) {
+        ParsedKeywords keywords = parsedKeywords;
+        if (keywords == null || Settings.HIDE_KEYWORD_CONTENT_PHRASES.get() != keywords.rawKeywords) {
             // User changed the keywords or whole word setting.
-            parseKeywords();
+            keywords = parseKeywords();
         }
 
         if (matchedGroup != commentsFilter && !hideKeywordSettingIsActive()) {
@@ -706,7 +741,7 @@ public final class KeywordContentFilter extends Filter {
         }
 
         MutableReference<String> matchRef = new MutableReference<>();
-        if (bufferSearch.matches(buffer, matchRef)) {
+        if (keywords.bufferSearch.matches(buffer, matchRef)) {
             updateStats(true, matchRef.value);
             return true;
         }
@@ -4,7 +4,11 @@ import androidx.annotation.GuardedBy;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import app.revanced.extension.shared.patches.components.ByteArrayFilterGroup;
@@ -52,6 +56,14 @@ public final class ReturnYouTubeDislikeFilterPatch extends Filter {
             return size() > NUMBER_OF_LAST_VIDEO_IDS_TO_TRACK;
         }
     };
+
+    /**
+     * Immutable copy of {@link #lastVideoIds}.
+     * Litho threads search this copy, so the buffer search does not hold a lock
+     * and does not block the other litho threads.
+     */
+    private static volatile List<Map.Entry<String, ByteArrayFilterGroup>> lastVideoIdsSnapshot = Collections.emptyList();
+
     private final ByteArrayFilterGroupList videoIdFilterGroup = new ByteArrayFilterGroupList();
 
     public ReturnYouTubeDislikeFilterPatch() {
@@ -115,9 +127,13 @@ public final class ReturnYouTubeDislikeFilterPatch extends Filter {
             synchronized (lastVideoIds) {
                 if (!lastVideoIds.containsKey(videoId)) {
                     Logger.printDebug(() -> "New Shorts video id: " + videoId);
-                    // Put a placeholder first
-                    lastVideoIds.put(videoId, null);
                     lastVideoIds.put(videoId, new ByteArrayFilterGroup(null, videoId));
+
+                    List<Map.Entry<String, ByteArrayFilterGroup>> snapshot = new ArrayList<>(lastVideoIds.size());
+                    for (Map.Entry<String, ByteArrayFilterGroup> entry : lastVideoIds.entrySet()) {
+                        snapshot.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+                    }
+                    lastVideoIdsSnapshot = Collections.unmodifiableList(snapshot);
                 }
             }
         } catch (Exception ex) {
@@ -173,16 +189,14 @@ public final class ReturnYouTubeDislikeFilterPatch extends Filter {
 
     @Nullable
     private String findVideoId(byte[] buffer) {
-        synchronized (lastVideoIds) {
-            for (Map.Entry<String, ByteArrayFilterGroup> entry : lastVideoIds.entrySet()) {
-                final String videoId = entry.getKey();
-                final ByteArrayFilterGroup videoIdFilter = entry.getValue();
-                if (byteArrayContainsString(buffer, videoId, videoIdFilter)) {
-                    return videoId;
-                }
+        for (Map.Entry<String, ByteArrayFilterGroup> entry : lastVideoIdsSnapshot) {
+            final String videoId = entry.getKey();
+            final ByteArrayFilterGroup videoIdFilter = entry.getValue();
+            if (byteArrayContainsString(buffer, videoId, videoIdFilter)) {
+                return videoId;
             }
-
-            return null;
         }
+
+        return null;
     }
 }
\ No newline at end of file
@@ -9,9 +9,8 @@ import app.revanced.extension.shared.settings.BooleanSetting;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.StringTrieSearch;
 import app.revanced.extension.youtube.settings.Settings;
-import app.revanced.extension.youtube.shared.EngagementPanel;
 import app.revanced.extension.youtube.shared.NavigationBar.NavigationButton;
-import app.revanced.extension.youtube.shared.RootView;
+import app.revanced.extension.youtube.shared.NavigationBar.NavigationState;
 
 @SuppressWarnings({"unused", "deprecation"})
 public final class ShortsShelfFilter extends Filter {
@@ -90,12 +89,13 @@ public final class ShortsShelfFilter extends Filter {
     @Override
     public boolean isFiltered(String path, String identifier, String allValue, byte[] buffer,
                               StringFilterGroup matchedGroup, FilterContentType contentType, int contentIndex) {
-        final boolean playerActive = RootView.isPlayerActive();
-        final boolean descriptionActive = EngagementPanel.isDescription();
-        final boolean searchBarActive = RootView.isSearchBarActive();
-        final NavigationButton navigationButton = NavigationButton.getSelectedNavigationButton();
+        final NavigationState navigationState = NavigationState.capture();
+        final boolean playerActive = navigationState.playerActive;
+        final boolean descriptionActive = navigationState.descriptionActive;
+        final boolean searchBarActive = navigationState.searchBarActive;
+        final NavigationButton navigationButton = navigationState.selectedNavigationButton;
         final String navigation = navigationButton == null ? "null" : navigationButton.name();
-        final String browseId = RootView.getBrowseId();
+        final String browseId = navigationState.browseId;
         final boolean hideShelves = shouldHideShortsFeedItems(playerActive, descriptionActive, searchBarActive, navigationButton, browseId);
         Logger.printDebug(() -> "hideShelves: " + hideShelves +
                 "\nplayerActive: " + playerActive +
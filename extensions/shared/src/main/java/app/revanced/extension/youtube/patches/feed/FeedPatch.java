@@ -49,15 +49,7 @@ public class FeedPatch {
             return false;
         }
 
-        String[] blockList = Settings.HIDE_CHANNEL_TAB_FILTER_STRINGS.get().split("\\n");
-
-        for (String filter : blockList) {
-            if (!filter.isEmpty() && channelTabText.equals(filter)) {
-                return true;
-            }
-        }
-
-        return false;
+        return Settings.HIDE_CHANNEL_TAB_FILTER_STRINGS.containsItem(channelTabText);
     }
 
     public static void hideBreakingNewsShelf(View view) {
@@ -181,21 +173,10 @@ public class FeedPatch {
      */
     @Nullable
     public static CharSequence hideFlyoutMenu(@Nullable CharSequence menuTitleCharSequence) {
-        if (menuTitleCharSequence != null && Settings.HIDE_FEED_FLYOUT_MENU.get()) {
-            String[] blockList = Settings.HIDE_FEED_FLYOUT_MENU_FILTER_STRINGS.get().split("\\n");
-            String menuTitleString = menuTitleCharSequence.toString();
-
-            for (String filter : blockList) {
-                if (!filter.isEmpty()) {
-                    if (Settings.HIDE_FEED_FLYOUT_MENU_FILTER_TYPE.get()) {
-                        if (menuTitleString.contains(filter))
-                            return null;
-                    } else {
-                        if (menuTitleString.equals(filter))
-                            return null;
-                    }
-                }
-            }
+        if (menuTitleCharSequence != null && Settings.HIDE_FEED_FLYOUT_MENU.get()
+                && Settings.HIDE_FEED_FLYOUT_MENU_FILTER_STRINGS.matches(menuTitleCharSequence.toString(),
+                Settings.HIDE_FEED_FLYOUT_MENU_FILTER_TYPE.get())) {
+            return null;
         }
 
         return menuTitleCharSequence;
@@ -214,13 +195,8 @@ public class FeedPatch {
         if (!(menuTextView.getParent() instanceof View parentView))
             return;
 
-        String[] blockList = Settings.HIDE_FEED_FLYOUT_MENU_FILTER_STRINGS.get().split("\\n");
-        String menuTitleString = menuTitleCharSequence.toString();
-
-        for (String filter : blockList) {
-            if (menuTitleString.equals(filter) && !filter.isEmpty())
-                Utils.hideViewByLayoutParams(parentView);
-        }
+        if (Settings.HIDE_FEED_FLYOUT_MENU_FILTER_STRINGS.containsItem(menuTitleCharSequence.toString()))
+            Utils.hideViewByLayoutParams(parentView);
     }
 
     // endregion
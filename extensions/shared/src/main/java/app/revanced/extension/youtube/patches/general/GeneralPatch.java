@@ -28,16 +28,16 @@ import android.widget.ImageView;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
+import androidx.annotation.Nullable;
+
 import com.google.android.apps.youtube.app.application.Shell_SettingsActivity;
 import com.google.android.apps.youtube.app.settings.SettingsActivity;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.Map;
-import java.util.Objects;
 
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.ResourceUtils;
@@ -118,26 +118,20 @@ public class GeneralPatch {
         return original;
     }
 
-    private static String[] accountMenuBlockList;
+    @Nullable
+    private static String accountMenuSettingsTitle;
 
-    private static String[] getAccountMenuBlockList(Context mContext) {
-        if (accountMenuBlockList == null) {
+    /**
+     * @return If the account menu item is the settings menu, which should not be hidden.
+     */
+    private static boolean isAccountMenuSettings(Context mContext, String menuTitleString) {
+        if (accountMenuSettingsTitle == null) {
             int settingsIdentifier = ResourceUtils.getIdentifier("settings", ResourceUtils.ResourceType.STRING, mContext);
             if (settingsIdentifier != 0) {
-                String settings = mContext.getResources().getString(settingsIdentifier);
-                accountMenuBlockList = Settings.HIDE_ACCOUNT_MENU_FILTER_STRINGS.get().split("\\n");
-                // Some settings should not be hidden.
-                accountMenuBlockList = Arrays.stream(accountMenuBlockList)
-                        .filter(item -> !Objects.equals(item, settings))
-                        .toArray(String[]::new);
+                accountMenuSettingsTitle = mContext.getResources().getString(settingsIdentifier);
             }
         }
-        //noinspection ReplaceNullCheck
-        if (accountMenuBlockList != null) {
-            return accountMenuBlockList;
-        } else {
-            return Settings.HIDE_ACCOUNT_MENU_FILTER_STRINGS.get().split("\\n");
-        }
+        return menuTitleString.equals(accountMenuSettingsTitle);
     }
 
     /**
@@ -173,16 +167,9 @@ public class GeneralPatch {
     }
 
     private static void hideAccountMenu(ViewGroup viewGroup, String menuTitleString) {
-        for (String filter : getAccountMenuBlockList(viewGroup.getContext())) {
-            if (!filter.isEmpty()) {
-                if (Settings.HIDE_ACCOUNT_MENU_FILTER_TYPE.get()) {
-                    if (menuTitleString.contains(filter))
-                        hideViewGroup(viewGroup);
-                } else {
-                    if (menuTitleString.equals(filter))
-                        hideViewGroup(viewGroup);
-                }
-            }
+        if (Settings.HIDE_ACCOUNT_MENU_FILTER_STRINGS.matches(menuTitleString, Settings.HIDE_ACCOUNT_MENU_FILTER_TYPE.get())
+                && !isAccountMenuSettings(viewGroup.getContext(), menuTitleString)) {
+            hideViewGroup(viewGroup);
         }
     }
 
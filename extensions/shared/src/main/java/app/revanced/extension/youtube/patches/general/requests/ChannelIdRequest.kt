@@ -1,124 +1,41 @@
 package app.revanced.extension.youtube.patches.general.requests
 
-import android.annotation.SuppressLint
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createJSRequestBody
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
-import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_VIDEO_DETAILS
-import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest.RequestOptions
 import app.revanced.extension.shared.utils.Logger
-import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
-import java.io.IOException
-import java.net.SocketTimeoutException
-import java.util.Collections
-import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
-import java.util.concurrent.TimeUnit
-import java.util.concurrent.TimeoutException
 
 class ChannelIdRequest private constructor(
-    private val videoId: String
+    private val future: Future<String?>
 ) {
-    private val future: Future<String> = Utils.submitOnBackgroundThread {
-        fetch(videoId)
-    }
-
     val channelId: String?
-        get() {
-            try {
-                return future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH, TimeUnit.MILLISECONDS]
-            } catch (ex: TimeoutException) {
-                Logger.printInfo(
-                    { "getChannelId timed out" },
-                    ex
-                )
-            } catch (ex: InterruptedException) {
-                Logger.printException(
-                    { "getChannelId interrupted" },
-                    ex
-                )
-                Thread.currentThread().interrupt() // Restore interrupt status flag.
-            } catch (ex: ExecutionException) {
-                Logger.printException(
-                    { "getChannelId failure" },
-                    ex
-                )
-            }
-
-            return null
-        }
+        get() = VideoMetadataRequest.await(future, "getChannelId")
 
     companion object {
-        private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000L // 20 seconds
-
-        @GuardedBy("itself")
-        val cache: MutableMap<String, ChannelIdRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, ChannelIdRequest>(100) {
-                private val CACHE_LIMIT = 50
+        private const val CONSUMER = "ChannelIdRequest"
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, ChannelIdRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private val REQUEST_OPTIONS = listOf(
+            RequestOptions(YouTubeClient.ClientType.MWEB)
+        )
 
         @JvmStatic
-        @SuppressLint("ObsoleteSdkInt")
         fun fetchRequestIfNeeded(videoId: String) {
-            cache[videoId] = ChannelIdRequest(videoId)
+            VideoMetadataRequest.fetchIfNeeded(
+                videoId,
+                CONSUMER,
+                VideoMetadataRequest.Field.VIDEO_DETAILS,
+                REQUEST_OPTIONS,
+            ) { _, json -> parseResponse(json) }
         }
 
         @JvmStatic
         fun getRequestForVideoId(videoId: String): ChannelIdRequest? {
-            synchronized(cache) {
-                return cache[videoId]
-            }
-        }
-
-        private fun handleConnectionError(toastMessage: String, ex: Exception?) {
-            Logger.printInfo({ toastMessage }, ex)
-        }
-
-        private fun sendRequest(videoId: String): JSONObject? {
-            val startTime = System.currentTimeMillis()
-            val clientType = YouTubeClient.ClientType.MWEB
-            val clientTypeName = clientType.name
-            Logger.printDebug { "Fetching video details request for: $videoId, using client: $clientTypeName" }
-
-            try {
-                val connection = getInnerTubeResponseConnectionFromRoute(
-                    GET_VIDEO_DETAILS,
-                    clientType
-                )
-                val requestBody = createJSRequestBody(
-                    clientType = clientType,
-                    videoId = videoId
-                )
-
-                connection.setFixedLengthStreamingMode(requestBody.size)
-                connection.outputStream.write(requestBody)
-
-                val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
-
-                handleConnectionError(
-                    (clientTypeName + " not available with response code: "
-                            + responseCode + " message: " + connection.responseMessage),
-                    null
-                )
-            } catch (ex: SocketTimeoutException) {
-                handleConnectionError("Connection timeout", ex)
-            } catch (ex: IOException) {
-                handleConnectionError("Network error", ex)
-            } catch (ex: Exception) {
-                Logger.printException({ "sendRequest failed" }, ex)
-            } finally {
-                Logger.printDebug { "video: " + videoId + " took: " + (System.currentTimeMillis() - startTime) + "ms" }
+            return VideoMetadataRequest.getResult<String>(videoId, CONSUMER)?.let {
+                ChannelIdRequest(it)
             }
-
-            return null
         }
 
         private fun parseResponse(videoDetailsJson: JSONObject): String? {
@@ -148,14 +65,5 @@ class ChannelIdRequest private constructor(
 
             return null
         }
-
-        private fun fetch(videoId: String): String? {
-            val videoDetailsJson = sendRequest(videoId)
-            if (videoDetailsJson != null) {
-                return parseResponse(videoDetailsJson)
-            }
-
-            return null
-        }
     }
 }
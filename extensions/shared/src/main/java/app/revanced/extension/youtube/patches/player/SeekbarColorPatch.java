@@ -9,6 +9,7 @@ import android.graphics.drawable.AnimatedVectorDrawable;
 
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.ResourceUtils;
@@ -79,6 +80,48 @@ public class SeekbarColorPatch {
      */
     private static final int[] customSeekbarColorGradient = new int[2];
 
+    /**
+     * Size of {@link #seekbarColorValues}. Must be a power of 2.
+     */
+    private static final int SEEKBAR_COLOR_VALUES_SIZE = 16;
+
+    /**
+     * Replacement colors of {@link #getSeekbarColorValue(int)}.
+     * <p>
+     * The player seekbar is drawn using only a handful of different original colors,
+     * so this is a small direct mapped table where each entry packs
+     * the original color (upper 32 bits) and the replacement color (lower 32 bits).
+     * An entry of zero is empty.
+     */
+    private static final AtomicLongArray seekbarColorValues = new AtomicLongArray(SEEKBAR_COLOR_VALUES_SIZE);
+
+    /**
+     * Parsed value of {@link Settings#GRADIENT_SEEKBAR_POSITIONS}.
+     */
+    private static final class SeekbarGradientPositions {
+        /**
+         * Setting value that was parsed.
+         * The setting does not require restarting the app, so the positions are parsed again if it changes.
+         */
+        final String settingValue;
+        final float[] positions;
+
+        SeekbarGradientPositions(String settingValue, float[] positions) {
+            this.settingValue = settingValue;
+            this.positions = positions;
+        }
+    }
+
+    /**
+     * Last parsed positions, or null if not yet parsed.
+     */
+    private static volatile SeekbarGradientPositions seekbarGradientPositions;
+
+    /**
+     * Parsed value of {@link Settings#CUSTOM_SEEKBAR_COLOR_ACCENT}, or null if not yet parsed.
+     */
+    private static volatile Integer seekbarThumbColor;
+
     static {
         float[] hsv = new float[3];
         Color.colorToHSV(ORIGINAL_SEEKBAR_COLOR, hsv);
@@ -87,6 +130,11 @@ public class SeekbarColorPatch {
         customSeekbarColor = CUSTOM_SEEKBAR_COLOR_ENABLED
                 ? loadCustomSeekbarColor()
                 : ORIGINAL_SEEKBAR_COLOR;
+
+        if (CUSTOM_SEEKBAR_COLOR_ENABLED) {
+            // Seekbar default color is always used, so compute it now instead of while drawing.
+            getSeekbarColorValue(ORIGINAL_SEEKBAR_COLOR);
+        }
     }
 
     private static int loadCustomSeekbarColor() {
@@ -275,8 +323,15 @@ public class SeekbarColorPatch {
      * But we will switch to using the end color.
      */
     public static int setSeekbarThumbColor() {
+        Integer thumbColor = seekbarThumbColor;
+        if (thumbColor != null) {
+            return thumbColor;
+        }
+
         try {
-            return Color.parseColor(Settings.CUSTOM_SEEKBAR_COLOR_ACCENT.get());
+            final int color = Color.parseColor(Settings.CUSTOM_SEEKBAR_COLOR_ACCENT.get());
+            seekbarThumbColor = color;
+            return color;
         } catch (Exception ex) {
             Utils.showToastShort(str("revanced_color_invalid_toast"));
             Utils.showToastShort(str("revanced_extended_reset_to_default_toast"));
@@ -291,8 +346,16 @@ public class SeekbarColorPatch {
      * Overrides default positions for gradient seekbar
      */
     public static void setSeekbarGradientPositions(float[] positions) {
+        final String settingValue = Settings.GRADIENT_SEEKBAR_POSITIONS.get();
+        SeekbarGradientPositions parsedPositions = seekbarGradientPositions;
+        if (parsedPositions != null && parsedPositions.settingValue.equals(settingValue)
+                && parsedPositions.positions.length == positions.length) {
+            System.arraycopy(parsedPositions.positions, 0, positions, 0, positions.length);
+            return;
+        }
+
         try {
-            String[] positionStrings = Settings.GRADIENT_SEEKBAR_POSITIONS.get().split(",");
+            String[] positionStrings = settingValue.split(",");
 
             // Check if input length matches the expected length
             if (positionStrings.length != positions.length) {
@@ -316,6 +379,7 @@ public class SeekbarColorPatch {
             }
 
             // Update positions array if all values are valid
+            seekbarGradientPositions = new SeekbarGradientPositions(settingValue, newPositions);
             System.arraycopy(newPositions, 0, positions, 0, positions.length);
         } catch (Exception ex) {
             Utils.showToastShort(str("revanced_gradient_seekbar_positions_reset"));
@@ -364,8 +428,22 @@ public class SeekbarColorPatch {
     /**
      * Color parameter is changed to the custom seekbar color, while retaining
      * the brightness and alpha changes of the parameter value compared to the original seekbar color.
+     * <p>
+     * Called while drawing, so the replacement is calculated only once for each original color.
      */
     private static int getSeekbarColorValue(int originalColor) {
+        final int index = (originalColor ^ (originalColor >>> 16)) & (SEEKBAR_COLOR_VALUES_SIZE - 1);
+        final long entry = seekbarColorValues.get(index);
+        if (entry != 0 && (int) (entry >>> 32) == originalColor) {
+            return (int) entry;
+        }
+
+        final int replacementColor = calculateSeekbarColorValue(originalColor);
+        seekbarColorValues.set(index, ((long) originalColor << 32) | (replacementColor & 0xFFFFFFFFL));
+        return replacementColor;
+    }
+
+    private static int calculateSeekbarColorValue(int originalColor) {
         try {
             final int alphaDifference = Color.alpha(originalColor) - Color.alpha(ORIGINAL_SEEKBAR_COLOR);
 
@@ -1,139 +1,45 @@
 package app.revanced.extension.youtube.patches.player.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
-import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_VIDEO_ACTION_BUTTON
-import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest.RequestOptions
 import app.revanced.extension.shared.utils.Logger
-import app.revanced.extension.shared.utils.Utils
 import app.revanced.extension.youtube.patches.player.ActionButtonsPatch.ActionButton
 import org.json.JSONException
 import org.json.JSONObject
-import java.io.IOException
-import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
-import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
-import java.util.concurrent.TimeUnit
-import java.util.concurrent.TimeoutException
 
 class ActionButtonRequest private constructor(
-    private val videoId: String,
-    private val requestHeader: Map<String, String>,
+    private val future: Future<Array<ActionButton>?>
 ) {
-    private val future: Future<Array<ActionButton>> = Utils.submitOnBackgroundThread {
-        fetch(videoId, requestHeader)
-    }
-
     val array: Array<ActionButton>
-        get() {
-            try {
-                return future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH.toLong(), TimeUnit.MILLISECONDS]
-            } catch (ex: TimeoutException) {
-                Logger.printInfo(
-                    { "getArray timed out" },
-                    ex
-                )
-            } catch (ex: InterruptedException) {
-                Logger.printException(
-                    { "getArray interrupted" },
-                    ex
-                )
-                Thread.currentThread().interrupt() // Restore interrupt status flag.
-            } catch (ex: ExecutionException) {
-                Logger.printException(
-                    { "getArray failure" },
-                    ex
-                )
-            }
-
-            return emptyArray()
-        }
+        get() = VideoMetadataRequest.await(future, "getArray") ?: emptyArray()
 
     companion object {
-        private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
-
-        @GuardedBy("itself")
-        val cache: MutableMap<String, ActionButtonRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, ActionButtonRequest>(100) {
-                private val CACHE_LIMIT = 50
-
-                override fun removeEldestEntry(eldest: Map.Entry<String, ActionButtonRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CONSUMER = "ActionButtonRequest"
 
         @JvmStatic
         fun fetchRequestIfNeeded(videoId: String, requestHeader: Map<String, String>) {
             Objects.requireNonNull(videoId)
-            synchronized(cache) {
-                if (!cache.containsKey(videoId)) {
-                    cache[videoId] = ActionButtonRequest(videoId, requestHeader)
-                }
-            }
+            // '/next' endpoint does not require PoToken.
+            // Since [THANKS] button and [CLIP] button are shown only with the logged in,
+            // Set the [Authorization] field to property to get the correct action buttons.
+            VideoMetadataRequest.fetchIfNeeded(
+                videoId,
+                CONSUMER,
+                VideoMetadataRequest.Field.ACTION_BUTTONS,
+                listOf(RequestOptions(YouTubeClient.ClientType.ANDROID, requestHeader)),
+            ) { _, json -> parseResponse(json) }
         }
 
         @JvmStatic
         fun getRequestForVideoId(videoId: String): ActionButtonRequest? {
-            synchronized(cache) {
-                return cache[videoId]
+            return VideoMetadataRequest.getResult<Array<ActionButton>>(videoId, CONSUMER)?.let {
+                ActionButtonRequest(it)
             }
         }
 
-        private fun handleConnectionError(toastMessage: String, ex: Exception?) {
-            Logger.printInfo({ toastMessage }, ex)
-        }
-
-        private fun sendRequest(videoId: String, requestHeader: Map<String, String>): JSONObject? {
-            Objects.requireNonNull(videoId)
-
-            val startTime = System.currentTimeMillis()
-            // '/next' endpoint does not require PoToken.
-            val clientType = YouTubeClient.ClientType.ANDROID
-            val clientTypeName = clientType.name
-            Logger.printDebug { "Fetching playlist request for: $videoId, using client: $clientTypeName" }
-
-            try {
-                // Since [THANKS] button and [CLIP] button are shown only with the logged in,
-                // Set the [Authorization] field to property to get the correct action buttons.
-                val connection = getInnerTubeResponseConnectionFromRoute(
-                    GET_VIDEO_ACTION_BUTTON,
-                    clientType,
-                    requestHeader,
-                )
-
-                val requestBody = createApplicationRequestBody(
-                    clientType = clientType,
-                    videoId = videoId
-                )
-
-                connection.setFixedLengthStreamingMode(requestBody.size)
-                connection.outputStream.write(requestBody)
-
-                val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
-
-                handleConnectionError(
-                    (clientTypeName + " not available with response code: "
-                            + responseCode + " message: " + connection.responseMessage),
-                    null
-                )
-            } catch (ex: SocketTimeoutException) {
-                handleConnectionError("Connection timeout", ex)
-            } catch (ex: IOException) {
-                handleConnectionError("Network error", ex)
-            } catch (ex: Exception) {
-                Logger.printException({ "sendRequest failed" }, ex)
-            } finally {
-                Logger.printDebug { "video: " + videoId + " took: " + (System.currentTimeMillis() - startTime) + "ms" }
-            }
-
-            return null
-        }
-
         private fun parseResponse(json: JSONObject): Array<ActionButton> {
             try {
                 val secondaryContentsJsonArray =
@@ -192,17 +98,5 @@ class ActionButtonRequest private constructor(
 
             return emptyArray()
         }
-
-        private fun fetch(
-            videoId: String,
-            requestHeader: Map<String, String>
-        ): Array<ActionButton> {
-            val json = sendRequest(videoId, requestHeader)
-            if (json != null) {
-                return parseResponse(json)
-            }
-
-            return emptyArray()
-        }
     }
 }
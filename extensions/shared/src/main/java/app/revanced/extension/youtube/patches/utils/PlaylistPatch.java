@@ -358,10 +358,11 @@ public class PlaylistPatch {
                 handleCheckError(checkFailedPlaylistId);
                 return;
             }
-            SavePlaylistRequest.fetchRequestIfNeeded(playlistId, libraryId, AuthUtils.getRequestHeader());
+            final String savedPlaylistId = playlistId;
+            SavePlaylistRequest.fetchRequestIfNeeded(savedPlaylistId, libraryId, AuthUtils.getRequestHeader());
 
             runOnMainThreadDelayed(() -> {
-                SavePlaylistRequest request = SavePlaylistRequest.getRequestForLibraryId(libraryId);
+                SavePlaylistRequest request = SavePlaylistRequest.getRequest(savedPlaylistId, libraryId);
                 if (request != null) {
                     Boolean result = request.getResult();
                     if (BooleanUtils.isTrue(result)) {
@@ -529,11 +529,8 @@ public class ReturnYouTubeDislikePatch {
                     }
                 });
             };
-            if (videoData.fetchCompleted()) {
-                update.run(); // Network call is completed, no need to wait on background thread.
-            } else {
-                Utils.runOnBackgroundThread(update);
-            }
+            // Runs immediately if the network call is completed.
+            videoData.runAfterFetchCompleted(update);
         } catch (Exception ex) {
             Logger.printException(() -> "updateOnScreenShortsTextViews failure", ex);
         }
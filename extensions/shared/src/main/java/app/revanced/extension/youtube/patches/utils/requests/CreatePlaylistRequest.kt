@@ -1,20 +1,20 @@
 package app.revanced.extension.youtube.patches.utils.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createPlaylistRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.CREATE_PLAYLIST
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_SET_VIDEO_ID
+import app.revanced.extension.shared.requests.JsonPathExtractor
 import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.SingleFlightCache
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
 import java.io.IOException
 import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
@@ -60,21 +60,18 @@ class CreatePlaylistRequest private constructor(
     companion object {
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
 
-        @GuardedBy("itself")
-        val cache: MutableMap<String, CreatePlaylistRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, CreatePlaylistRequest>(100) {
-                private val CACHE_LIMIT = 50
+        private val CREATE_PLAYLIST_EXTRACTOR = JsonPathExtractor("playlistId")
+        private val SET_VIDEO_ID_EXTRACTOR = JsonPathExtractor(
+            "contents.singleColumnWatchNextResults.playlist.playlist.contents.playlistPanelVideoRenderer.playlistSetVideoId"
+        )
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, CreatePlaylistRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CACHE_LIMIT = 50
+
+        private val cache = SingleFlightCache<String, CreatePlaylistRequest>(CACHE_LIMIT)
 
         @JvmStatic
         fun clear() {
-            synchronized(cache) {
-                cache.clear()
-            }
+            cache.clear()
         }
 
         @JvmStatic
@@ -83,21 +80,17 @@ class CreatePlaylistRequest private constructor(
             requestHeader: Map<String, String>,
         ) {
             Objects.requireNonNull(videoId)
-            synchronized(cache) {
-                if (!cache.containsKey(videoId)) {
-                    cache[videoId] = CreatePlaylistRequest(
-                        videoId,
-                        requestHeader,
-                    )
-                }
+            cache.getOrCreate(videoId) {
+                CreatePlaylistRequest(
+                    videoId,
+                    requestHeader,
+                )
             }
         }
 
         @JvmStatic
         fun getRequestForVideoId(videoId: String): CreatePlaylistRequest? {
-            synchronized(cache) {
-                return cache[videoId]
-            }
+            return cache.get(videoId)
         }
 
         private fun handleConnectionError(toastMessage: String, ex: Exception?) {
@@ -129,7 +122,7 @@ class CreatePlaylistRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, CREATE_PLAYLIST_EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
@@ -179,7 +172,7 @@ class CreatePlaylistRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, SET_VIDEO_ID_EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
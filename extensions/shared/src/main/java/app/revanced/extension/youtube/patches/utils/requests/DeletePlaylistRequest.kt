@@ -1,18 +1,18 @@
 package app.revanced.extension.youtube.patches.utils.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.deletePlaylistRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.DELETE_PLAYLIST
+import app.revanced.extension.shared.requests.JsonPathExtractor
 import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.SingleFlightCache
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
 import java.io.IOException
 import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
@@ -58,21 +58,15 @@ class DeletePlaylistRequest private constructor(
     companion object {
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
 
-        @GuardedBy("itself")
-        val cache: MutableMap<String, DeletePlaylistRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, DeletePlaylistRequest>(100) {
-                private val CACHE_LIMIT = 50
+        private val EXTRACTOR = JsonPathExtractor("command")
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, DeletePlaylistRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CACHE_LIMIT = 50
+
+        private val cache = SingleFlightCache<String, DeletePlaylistRequest>(CACHE_LIMIT)
 
         @JvmStatic
         fun clear() {
-            synchronized(cache) {
-                cache.clear()
-            }
+            cache.clear()
         }
 
         @JvmStatic
@@ -81,21 +75,17 @@ class DeletePlaylistRequest private constructor(
             requestHeader: Map<String, String>,
         ) {
             Objects.requireNonNull(playlistId)
-            synchronized(cache) {
-                if (!cache.containsKey(playlistId)) {
-                    cache[playlistId] = DeletePlaylistRequest(
-                        playlistId,
-                        requestHeader,
-                    )
-                }
+            cache.getOrCreate(playlistId) {
+                DeletePlaylistRequest(
+                    playlistId,
+                    requestHeader,
+                )
             }
         }
 
         @JvmStatic
         fun getRequestForPlaylistId(playlistId: String): DeletePlaylistRequest? {
-            synchronized(cache) {
-                return cache[playlistId]
-            }
+            return cache.get(playlistId)
         }
 
         private fun handleConnectionError(toastMessage: String, ex: Exception?) {
@@ -127,7 +117,7 @@ class DeletePlaylistRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
@@ -1,18 +1,18 @@
 package app.revanced.extension.youtube.patches.utils.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.editPlaylistRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.EDIT_PLAYLIST
+import app.revanced.extension.shared.requests.JsonPathExtractor
 import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.SingleFlightCache
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
 import java.io.IOException
 import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
@@ -62,28 +62,23 @@ class EditPlaylistRequest private constructor(
     companion object {
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
 
-        @GuardedBy("itself")
-        val cache: MutableMap<String, EditPlaylistRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, EditPlaylistRequest>(100) {
-                private val CACHE_LIMIT = 50
+        private val EXTRACTOR = JsonPathExtractor(
+            "status",
+            "playlistEditResults.playlistEditVideoAddedResultData.setVideoId"
+        )
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, EditPlaylistRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CACHE_LIMIT = 50
+
+        private val cache = SingleFlightCache<String, EditPlaylistRequest>(CACHE_LIMIT)
 
         @JvmStatic
         fun clear() {
-            synchronized(cache) {
-                cache.clear()
-            }
+            cache.clear()
         }
 
         @JvmStatic
         fun clearVideoId(videoId: String) {
-            synchronized(cache) {
-                cache.remove(videoId)
-            }
+            cache.remove(videoId)
         }
 
         @JvmStatic
@@ -94,23 +89,19 @@ class EditPlaylistRequest private constructor(
             requestHeader: Map<String, String>,
         ) {
             Objects.requireNonNull(videoId)
-            synchronized(cache) {
-                if (!cache.containsKey(videoId)) {
-                    cache[videoId] = EditPlaylistRequest(
-                        videoId,
-                        playlistId,
-                        setVideoId,
-                        requestHeader,
-                    )
-                }
+            cache.getOrCreate(videoId) {
+                EditPlaylistRequest(
+                    videoId,
+                    playlistId,
+                    setVideoId,
+                    requestHeader,
+                )
             }
         }
 
         @JvmStatic
         fun getRequestForVideoId(videoId: String): EditPlaylistRequest? {
-            synchronized(cache) {
-                return cache[videoId]
-            }
+            return cache.get(videoId)
         }
 
         private fun handleConnectionError(toastMessage: String, ex: Exception?) {
@@ -148,7 +139,7 @@ class EditPlaylistRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
@@ -1,18 +1,18 @@
 package app.revanced.extension.youtube.patches.utils.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getPlaylistsRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_PLAYLISTS
+import app.revanced.extension.shared.requests.JsonPathExtractor
 import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.SingleFlightCache
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
 import java.io.IOException
 import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
@@ -58,21 +58,18 @@ class GetPlaylistsRequest private constructor(
     companion object {
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
 
-        @GuardedBy("itself")
-        val cache: MutableMap<String, GetPlaylistsRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, GetPlaylistsRequest>(100) {
-                private val CACHE_LIMIT = 50
+        private val EXTRACTOR = JsonPathExtractor(
+            "contents.addToPlaylistRenderer.playlists.playlistAddToOptionRenderer.playlistId",
+            "contents.addToPlaylistRenderer.playlists.playlistAddToOptionRenderer.title.runs.text"
+        )
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, GetPlaylistsRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CACHE_LIMIT = 50
+
+        private val cache = SingleFlightCache<String, GetPlaylistsRequest>(CACHE_LIMIT)
 
         @JvmStatic
         fun clear() {
-            synchronized(cache) {
-                cache.clear()
-            }
+            cache.clear()
         }
 
         @JvmStatic
@@ -81,21 +78,17 @@ class GetPlaylistsRequest private constructor(
             requestHeader: Map<String, String>,
         ) {
             Objects.requireNonNull(playlistId)
-            synchronized(cache) {
-                if (!cache.containsKey(playlistId)) {
-                    cache[playlistId] = GetPlaylistsRequest(
-                        playlistId,
-                        requestHeader,
-                    )
-                }
+            cache.getOrCreate(playlistId) {
+                GetPlaylistsRequest(
+                    playlistId,
+                    requestHeader,
+                )
             }
         }
 
         @JvmStatic
         fun getRequestForPlaylistId(playlistId: String): GetPlaylistsRequest? {
-            synchronized(cache) {
-                return cache[playlistId]
-            }
+            return cache.get(playlistId)
         }
 
         private fun handleConnectionError(toastMessage: String, ex: Exception?) {
@@ -127,7 +120,7 @@ class GetPlaylistsRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
@@ -1,18 +1,18 @@
 package app.revanced.extension.youtube.patches.utils.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
 import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.savePlaylistRequestBody
 import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.EDIT_PLAYLIST
+import app.revanced.extension.shared.requests.JsonPathExtractor
 import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.requests.SingleFlightCache
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
 import java.io.IOException
 import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
 import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
@@ -60,23 +60,28 @@ class SavePlaylistRequest private constructor(
     companion object {
         private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
 
-        @GuardedBy("itself")
-        val cache: MutableMap<String, SavePlaylistRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, SavePlaylistRequest>(100) {
-                private val CACHE_LIMIT = 50
+        private val EXTRACTOR = JsonPathExtractor("status")
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, SavePlaylistRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CACHE_LIMIT = 50
+
+        /**
+         * Saving is only shared while it is in progress, and can be done again after it completed.
+         */
+        private val cache = SingleFlightCache<String, SavePlaylistRequest>(
+            CACHE_LIMIT,
+            0,
+        ) { request -> !request.future.isDone }
 
         @JvmStatic
         fun clear() {
-            synchronized(cache) {
-                cache.clear()
-            }
+            cache.clear()
         }
 
+        /**
+         * The same playlist can be saved to different libraries, and different playlists to the same library.
+         */
+        private fun getKey(playlistId: String, libraryId: String) = "$playlistId\n$libraryId"
+
         @JvmStatic
         fun fetchRequestIfNeeded(
             playlistId: String,
@@ -84,8 +89,9 @@ class SavePlaylistRequest private constructor(
             requestHeader: Map<String, String>,
         ) {
             Objects.requireNonNull(playlistId)
-            synchronized(cache) {
-                cache[libraryId] = SavePlaylistRequest(
+            Objects.requireNonNull(libraryId)
+            cache.getOrCreate(getKey(playlistId, libraryId)) {
+                SavePlaylistRequest(
                     playlistId,
                     libraryId,
                     requestHeader,
@@ -94,10 +100,8 @@ class SavePlaylistRequest private constructor(
         }
 
         @JvmStatic
-        fun getRequestForLibraryId(libraryId: String): SavePlaylistRequest? {
-            synchronized(cache) {
-                return cache[libraryId]
-            }
+        fun getRequest(playlistId: String, libraryId: String): SavePlaylistRequest? {
+            return cache.get(getKey(playlistId, libraryId))
         }
 
         private fun handleConnectionError(toastMessage: String, ex: Exception?) {
@@ -131,7 +135,7 @@ class SavePlaylistRequest private constructor(
                 connection.outputStream.write(requestBody)
 
                 val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
+                if (responseCode == 200) return Requester.parseJSONObject(connection, EXTRACTOR)
 
                 handleConnectionError(
                     (clientTypeName + " not available with response code: "
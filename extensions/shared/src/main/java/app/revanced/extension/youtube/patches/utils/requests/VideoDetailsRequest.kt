@@ -1,79 +1,27 @@
 package app.revanced.extension.youtube.patches.utils.requests
 
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
-import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_VIDEO_DETAILS
-import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest.RequestOptions
 import app.revanced.extension.shared.utils.Logger
 import app.revanced.extension.shared.utils.StringRef.str
-import app.revanced.extension.shared.utils.Utils
 import org.json.JSONException
 import org.json.JSONObject
-import java.io.IOException
-import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
-import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
-import java.util.concurrent.TimeUnit
-import java.util.concurrent.TimeoutException
 
 class VideoDetailsRequest private constructor(
-    private val videoId: String,
-    private val requestHeader: Map<String, String>,
+    private val future: Future<String?>
 ) {
-    private val future: Future<String> = Utils.submitOnBackgroundThread {
-        fetch(
-            videoId,
-            requestHeader,
-        )
-    }
-
     val message: String?
-        get() {
-            try {
-                return future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH.toLong(), TimeUnit.MILLISECONDS]
-            } catch (ex: TimeoutException) {
-                Logger.printInfo(
-                    { "getMessage timed out" },
-                    ex
-                )
-            } catch (ex: InterruptedException) {
-                Logger.printException(
-                    { "getMessage interrupted" },
-                    ex
-                )
-                Thread.currentThread().interrupt() // Restore interrupt status flag.
-            } catch (ex: ExecutionException) {
-                Logger.printException(
-                    { "getMessage failure" },
-                    ex
-                )
-            }
-
-            return null
-        }
+        get() = VideoMetadataRequest.await(future, "getMessage")
 
     companion object {
-        private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000
-
-        @GuardedBy("itself")
-        val cache: MutableMap<String, VideoDetailsRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, VideoDetailsRequest>(100) {
-                private val CACHE_LIMIT = 50
-
-                override fun removeEldestEntry(eldest: Map.Entry<String, VideoDetailsRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private const val CONSUMER = "VideoDetailsRequest"
 
         @JvmStatic
         fun clear() {
-            synchronized(cache) {
-                cache.clear()
-            }
+            VideoMetadataRequest.clear(CONSUMER)
         }
 
         @JvmStatic
@@ -82,74 +30,21 @@ class VideoDetailsRequest private constructor(
             requestHeader: Map<String, String>,
         ) {
             Objects.requireNonNull(videoId)
-            synchronized(cache) {
-                if (!cache.containsKey(videoId)) {
-                    cache[videoId] = VideoDetailsRequest(
-                        videoId,
-                        requestHeader,
-                    )
-                }
-            }
+            VideoMetadataRequest.fetchIfNeeded(
+                videoId,
+                CONSUMER,
+                VideoMetadataRequest.Field.VIDEO_DETAILS,
+                listOf(RequestOptions(YouTubeClient.ClientType.ANDROID, requestHeader)),
+            ) { _, json -> parseResponse(json) }
         }
 
         @JvmStatic
         fun getRequestForVideoId(videoId: String): VideoDetailsRequest? {
-            synchronized(cache) {
-                return cache[videoId]
+            return VideoMetadataRequest.getResult<String>(videoId, CONSUMER)?.let {
+                VideoDetailsRequest(it)
             }
         }
 
-        private fun handleConnectionError(toastMessage: String, ex: Exception?) {
-            Logger.printInfo({ toastMessage }, ex)
-        }
-
-        private fun sendRequest(
-            videoId: String,
-            requestHeader: Map<String, String>,
-        ): JSONObject? {
-            Objects.requireNonNull(videoId)
-
-            val startTime = System.currentTimeMillis()
-            val clientType = YouTubeClient.ClientType.ANDROID
-            val clientTypeName = clientType.name
-            Logger.printDebug { "Fetching video details request for: $videoId, using client: $clientTypeName" }
-
-            try {
-                val connection = getInnerTubeResponseConnectionFromRoute(
-                    GET_VIDEO_DETAILS,
-                    clientType,
-                    requestHeader,
-                )
-
-                val requestBody = createApplicationRequestBody(
-                    clientType = clientType,
-                    videoId = videoId
-                )
-
-                connection.setFixedLengthStreamingMode(requestBody.size)
-                connection.outputStream.write(requestBody)
-
-                val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
-
-                handleConnectionError(
-                    (clientTypeName + " not available with response code: "
-                            + responseCode + " message: " + connection.responseMessage),
-                    null
-                )
-            } catch (ex: SocketTimeoutException) {
-                handleConnectionError("Connection timeout", ex)
-            } catch (ex: IOException) {
-                handleConnectionError("Network error", ex)
-            } catch (ex: Exception) {
-                Logger.printException({ "sendRequest failed" }, ex)
-            } finally {
-                Logger.printDebug { "video: " + videoId + " took: " + (System.currentTimeMillis() - startTime) + "ms" }
-            }
-
-            return null
-        }
-
         private fun parseResponse(json: JSONObject): String? {
             try {
                 val videoDetailsJson = json.getJSONObject("videoDetails")
@@ -183,17 +78,5 @@ class VideoDetailsRequest private constructor(
 
             return null
         }
-
-        private fun fetch(
-            videoId: String,
-            requestHeader: Map<String, String>,
-        ): String? {
-            val json = sendRequest(videoId, requestHeader)
-            if (json != null) {
-                return parseResponse(json)
-            }
-
-            return null
-        }
     }
 }
@@ -159,7 +159,7 @@ public class CustomPlaybackSpeedPatch {
                 return;
             }
 
-            String[] speedStrings = Settings.CUSTOM_PLAYBACK_SPEEDS.get().split("\\s+");
+            String[] speedStrings = Settings.CUSTOM_PLAYBACK_SPEEDS.getList().toArray(new String[0]);
             Arrays.sort(speedStrings);
             if (speedStrings.length == 0) {
                 throw new IllegalArgumentException();
@@ -1,198 +1,64 @@
 package app.revanced.extension.youtube.patches.video.requests
 
-import android.annotation.SuppressLint
-import androidx.annotation.GuardedBy
 import app.revanced.extension.shared.innertube.client.YouTubeClient.ClientType
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createApplicationRequestBody
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.createJSRequestBody
-import app.revanced.extension.shared.innertube.requests.InnerTubeRequestBody.getInnerTubeResponseConnectionFromRoute
-import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_CATEGORY
-import app.revanced.extension.shared.innertube.requests.InnerTubeRoutes.GET_PLAYLIST_ENDPOINT
-import app.revanced.extension.shared.requests.Requester
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest
+import app.revanced.extension.shared.innertube.requests.VideoMetadataRequest.RequestOptions
 import app.revanced.extension.shared.utils.Logger
-import app.revanced.extension.shared.utils.Utils
 import app.revanced.extension.youtube.shared.VideoInformation
 import org.json.JSONException
 import org.json.JSONObject
-import java.io.IOException
-import java.net.SocketTimeoutException
-import java.util.Collections
 import java.util.Objects
-import java.util.concurrent.ExecutionException
 import java.util.concurrent.Future
-import java.util.concurrent.TimeUnit
-import java.util.concurrent.TimeoutException
 
 class MusicRequest private constructor(
-    private val videoId: String,
-    private val checkCategory: Boolean,
-    private val requestHeader: Map<String, String>,
+    private val future: Future<Boolean?>
 ) {
-    private val future: Future<Boolean> = Utils.submitOnBackgroundThread {
-        fetch(
-            videoId,
-            checkCategory,
-            requestHeader,
-        )
-    }
-
     val stream: Boolean?
-        get() {
-            try {
-                return future[MAX_MILLISECONDS_TO_WAIT_FOR_FETCH, TimeUnit.MILLISECONDS]
-            } catch (ex: TimeoutException) {
-                Logger.printInfo(
-                    { "getStream timed out" },
-                    ex
-                )
-            } catch (ex: InterruptedException) {
-                Logger.printException(
-                    { "getStream interrupted" },
-                    ex
-                )
-                Thread.currentThread().interrupt() // Restore interrupt status flag.
-            } catch (ex: ExecutionException) {
-                Logger.printException(
-                    { "getStream failure" },
-                    ex
-                )
-            }
-
-            return null
-        }
+        get() = VideoMetadataRequest.await(future, "getStream")
 
     companion object {
-        private const val MAX_MILLISECONDS_TO_WAIT_FOR_FETCH = 20 * 1000L // 20 seconds
-
-        @GuardedBy("itself")
-        val cache: MutableMap<String, MusicRequest> = Collections.synchronizedMap(
-            object : LinkedHashMap<String, MusicRequest>(20) {
-                private val CACHE_LIMIT = 10
+        private const val CONSUMER_CATEGORY = "MusicRequest.category"
+        private const val CONSUMER_PLAYLIST = "MusicRequest.playlist"
 
-                override fun removeEldestEntry(eldest: Map.Entry<String, MusicRequest>): Boolean {
-                    return size > CACHE_LIMIT // Evict the oldest entry if over the cache limit.
-                }
-            })
+        private val CATEGORY_REQUEST_OPTIONS = listOf(
+            RequestOptions(ClientType.MWEB)
+        )
 
         @JvmStatic
-        @SuppressLint("ObsoleteSdkInt")
         fun fetchRequestIfNeeded(
             videoId: String,
             checkCategory: Boolean,
             requestHeader: Map<String, String>,
         ) {
-            Objects.requireNonNull(videoId)
-            synchronized(cache) {
-                if (!cache.containsKey(videoId)) {
-                    cache[videoId] = MusicRequest(
-                        videoId,
-                        checkCategory,
-                        requestHeader
-                    )
-                }
-            }
-        }
-
-        @JvmStatic
-        fun getRequestForVideoId(videoId: String): MusicRequest? {
-            synchronized(cache) {
-                return cache[videoId]
-            }
-        }
-
-        private fun handleConnectionError(toastMessage: String, ex: Exception?) {
-            Logger.printInfo({ toastMessage }, ex)
-        }
-
-        private fun sendApplicationRequest(
-            clientType: ClientType,
-            videoId: String,
-            requestHeader: Map<String, String>,
-        ): JSONObject? {
             Objects.requireNonNull(videoId)
             Objects.requireNonNull(requestHeader)
 
-            val startTime = System.currentTimeMillis()
-            val clientTypeName = clientType.name
-            Logger.printDebug { "Fetching playlist request for: $videoId, using client: $clientTypeName" }
-
-            try {
-                val connection = getInnerTubeResponseConnectionFromRoute(
-                    route = GET_PLAYLIST_ENDPOINT,
-                    clientType = clientType,
-                    requestHeader = requestHeader
-                )
-                val requestBody =
-                    createApplicationRequestBody(
-                        clientType = clientType,
-                        videoId = videoId,
-                        playlistId = "RD$videoId",
-                    )
-
-                connection.setFixedLengthStreamingMode(requestBody.size)
-                connection.outputStream.write(requestBody)
-
-                val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
-
-                handleConnectionError(
-                    (clientTypeName + " not available with response code: "
-                            + responseCode + " message: " + connection.responseMessage),
-                    null
-                )
-            } catch (ex: SocketTimeoutException) {
-                handleConnectionError("Connection timeout", ex)
-            } catch (ex: IOException) {
-                handleConnectionError("Network error", ex)
-            } catch (ex: Exception) {
-                Logger.printException({ "sendApplicationRequest failed" }, ex)
-            } finally {
-                Logger.printDebug { "video: " + videoId + " took: " + (System.currentTimeMillis() - startTime) + "ms" }
+            if (checkCategory) {
+                VideoMetadataRequest.fetchIfNeeded(
+                    videoId,
+                    CONSUMER_CATEGORY,
+                    VideoMetadataRequest.Field.CATEGORY,
+                    CATEGORY_REQUEST_OPTIONS,
+                ) { _, json -> parseWebResponse(json) }
+            } else {
+                val playlistId = "RD$videoId"
+                VideoMetadataRequest.fetchIfNeeded(
+                    videoId,
+                    CONSUMER_PLAYLIST,
+                    VideoMetadataRequest.Field.PLAYLIST_ENDPOINT,
+                    listOf(
+                        RequestOptions(ClientType.ANDROID_VR, requestHeader, playlistId),
+                        RequestOptions(ClientType.ANDROID, requestHeader, playlistId),
+                    ),
+                ) { clientType, json -> parseApplicationResponse(clientType, json) }
             }
-
-            return null
         }
 
-        private fun sendWebRequest(videoId: String): JSONObject? {
-            Objects.requireNonNull(videoId)
-
-            val startTime = System.currentTimeMillis()
-            val clientType = ClientType.MWEB
-            val clientTypeName = clientType.name
-            Logger.printDebug { "Fetching microformat request for: $videoId, using client: $clientTypeName" }
-
-            try {
-                val connection = getInnerTubeResponseConnectionFromRoute(
-                    GET_CATEGORY,
-                    clientType
-                )
-                val requestBody = createJSRequestBody(
-                    clientType = clientType,
-                    videoId = videoId
-                )
-
-                connection.setFixedLengthStreamingMode(requestBody.size)
-                connection.outputStream.write(requestBody)
-
-                val responseCode = connection.responseCode
-                if (responseCode == 200) return Requester.parseJSONObject(connection)
-
-                handleConnectionError(
-                    (clientTypeName + " not available with response code: "
-                            + responseCode + " message: " + connection.responseMessage),
-                    null
-                )
-            } catch (ex: SocketTimeoutException) {
-                handleConnectionError("Connection timeout", ex)
-            } catch (ex: IOException) {
-                handleConnectionError("Network error", ex)
-            } catch (ex: Exception) {
-                Logger.printException({ "sendWebRequest failed" }, ex)
-            } finally {
-                Logger.printDebug { "video: " + videoId + " took: " + (System.currentTimeMillis() - startTime) + "ms" }
-            }
-
-            return null
+        @JvmStatic
+        fun getRequestForVideoId(videoId: String): MusicRequest? {
+            val future = VideoMetadataRequest.getResult<Boolean>(videoId, CONSUMER_CATEGORY)
+                ?: VideoMetadataRequest.getResult(videoId, CONSUMER_PLAYLIST)
+            return future?.let { MusicRequest(it) }
         }
 
         private fun parseApplicationResponse(
@@ -277,31 +143,5 @@ class MusicRequest private constructor(
 
             return false
         }
-
-        private fun fetch(
-            videoId: String,
-            checkCategory: Boolean,
-            requestHeader: Map<String, String>,
-        ): Boolean {
-            if (checkCategory) {
-                val microFormatJson = sendWebRequest(videoId)
-                if (microFormatJson != null) {
-                    return parseWebResponse(microFormatJson)
-                }
-            } else {
-                for (clientType in arrayOf(ClientType.ANDROID_VR, ClientType.ANDROID)) {
-                    val playlistJson = sendApplicationRequest(
-                        clientType,
-                        videoId,
-                        requestHeader
-                    )
-                    if (playlistJson != null) {
-                        return parseApplicationResponse(clientType, playlistJson)
-                    }
-                }
-            }
-
-            return false
-        }
     }
 }
@@ -35,6 +35,7 @@ import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -139,7 +140,7 @@ public class ReturnYouTubeDislike {
      * Stores the results of the vote api fetch, and used as a barrier to wait until fetch completes.
      * Absolutely cannot be holding any lock during calls to {@link Future#get()}.
      */
-    private final Future<RYDVoteData> future;
+    private final CompletableFuture<RYDVoteData> future;
 
     /**
      * Time this instance and the fetch future was created.
@@ -427,7 +428,8 @@ public class ReturnYouTubeDislike {
     private ReturnYouTubeDislike(@NonNull String videoId) {
         this.videoId = Objects.requireNonNull(videoId);
         this.timeFetched = System.currentTimeMillis();
-        this.future = Utils.submitOnBackgroundThread(() -> ReturnYouTubeDislikeApi.fetchVotes(videoId));
+        this.future = CompletableFuture.supplyAsync(() -> ReturnYouTubeDislikeApi.fetchVotes(videoId),
+                Utils.TaskPriority.USER_VISIBLE);
     }
 
     private boolean isExpired(long now) {
@@ -461,6 +463,21 @@ public class ReturnYouTubeDislike {
         return future.isDone();
     }
 
+    /**
+     * Runs the task after the RYD fetch call has completed, on the thread that completed the fetch,
+     * or immediately if the fetch already completed.
+     * Unlike calling {@link #getFetchData(long)} from a background task, no thread waits for the fetch.
+     */
+    public void runAfterFetchCompleted(@NonNull Runnable task) {
+        future.whenComplete((voteData, ex) -> {
+            try {
+                task.run();
+            } catch (Exception taskEx) {
+                Logger.printException(() -> "runAfterFetchCompleted failure", taskEx);
+            }
+        });
+    }
+
     private synchronized void clearUICache() {
         if (replacementLikeDislikeSpan != null) {
             Logger.printDebug(() -> "Clearing replacement span for: " + videoId);
@@ -27,6 +27,7 @@ import app.revanced.extension.shared.settings.FloatSetting;
 import app.revanced.extension.shared.settings.IntegerSetting;
 import app.revanced.extension.shared.settings.LongSetting;
 import app.revanced.extension.shared.settings.Setting;
+import app.revanced.extension.shared.settings.StringListSetting;
 import app.revanced.extension.shared.settings.StringSetting;
 import app.revanced.extension.shared.settings.preference.SharedPrefCategory;
 import app.revanced.extension.shared.utils.Logger;
@@ -119,7 +120,7 @@ public class Settings extends BaseSettings {
 
     // PreferenceScreen: Feed - Channel page
     public static final BooleanSetting HIDE_CHANNEL_TAB = new BooleanSetting("revanced_hide_channel_tab", FALSE);
-    public static final StringSetting HIDE_CHANNEL_TAB_FILTER_STRINGS = new StringSetting("revanced_hide_channel_tab_filter_strings", "", true, parent(HIDE_CHANNEL_TAB));
+    public static final StringListSetting HIDE_CHANNEL_TAB_FILTER_STRINGS = new StringListSetting("revanced_hide_channel_tab_filter_strings", "", true, parent(HIDE_CHANNEL_TAB));
     public static final BooleanSetting HIDE_LINKS_PREVIEW = new BooleanSetting("revanced_hide_links_preview", TRUE);
     public static final BooleanSetting HIDE_MEMBERS_SHELF = new BooleanSetting("revanced_hide_members_shelf", TRUE);
     public static final BooleanSetting HIDE_VISIT_COMMUNITY_BUTTON = new BooleanSetting("revanced_hide_visit_community_button", TRUE);
@@ -133,7 +134,7 @@ public class Settings extends BaseSettings {
     // PreferenceScreen: Feed - Flyout menu
     public static final BooleanSetting HIDE_FEED_FLYOUT_MENU = new BooleanSetting("revanced_hide_feed_flyout_menu", FALSE);
     public static final BooleanSetting HIDE_FEED_FLYOUT_MENU_FILTER_TYPE = new BooleanSetting("revanced_hide_feed_flyout_menu_filter_type", FALSE, true, parent(HIDE_FEED_FLYOUT_MENU));
-    public static final StringSetting HIDE_FEED_FLYOUT_MENU_FILTER_STRINGS = new StringSetting("revanced_hide_feed_flyout_menu_filter_strings", "", true, parent(HIDE_FEED_FLYOUT_MENU));
+    public static final StringListSetting HIDE_FEED_FLYOUT_MENU_FILTER_STRINGS = new StringListSetting("revanced_hide_feed_flyout_menu_filter_strings", "", true, parent(HIDE_FEED_FLYOUT_MENU));
 
     // PreferenceScreen: Feed - Video filter
     public static final BooleanSetting HIDE_KEYWORD_CONTENT_COMMENTS = new BooleanSetting("revanced_hide_keyword_content_comments", FALSE);
@@ -182,7 +183,7 @@ public class Settings extends BaseSettings {
     // PreferenceScreen: General - Account menu
     public static final BooleanSetting HIDE_ACCOUNT_MENU = new BooleanSetting("revanced_hide_account_menu", FALSE);
     public static final BooleanSetting HIDE_ACCOUNT_MENU_FILTER_TYPE = new BooleanSetting("revanced_hide_account_menu_filter_type", FALSE, true, parent(HIDE_ACCOUNT_MENU));
-    public static final StringSetting HIDE_ACCOUNT_MENU_FILTER_STRINGS = new StringSetting("revanced_hide_account_menu_filter_strings", "", true, parent(HIDE_ACCOUNT_MENU));
+    public static final StringListSetting HIDE_ACCOUNT_MENU_FILTER_STRINGS = new StringListSetting("revanced_hide_account_menu_filter_strings", "", true, parent(HIDE_ACCOUNT_MENU));
     public static final BooleanSetting HIDE_HANDLE = new BooleanSetting("revanced_hide_handle", TRUE, true);
 
     // PreferenceScreen: General - Custom filter
@@ -643,7 +644,7 @@ public class Settings extends BaseSettings {
     public static final BooleanSetting REMEMBER_PLAYBACK_SPEED_SHORTS_LAST_SELECTED_TOAST = new BooleanSetting("revanced_remember_playback_speed_shorts_last_selected_toast", TRUE, parent(REMEMBER_PLAYBACK_SPEED_SHORTS_LAST_SELECTED));
     public static final BooleanSetting ENABLE_CUSTOM_PLAYBACK_SPEED = new BooleanSetting("revanced_enable_custom_playback_speed", TRUE, true);
     public static final EnumSetting<PlaybackSpeedMenuType> CUSTOM_PLAYBACK_SPEED_MENU_TYPE = new EnumSetting<>("revanced_custom_playback_speed_menu_type", PlaybackSpeedMenuType.CUSTOM_MODERN, parent(ENABLE_CUSTOM_PLAYBACK_SPEED));
-    public static final StringSetting CUSTOM_PLAYBACK_SPEEDS = new StringSetting("revanced_custom_playback_speeds", "0.25\n0.5\n0.75\n1.0\n1.25\n1.5\n1.75\n2.0\n2.25\n2.5", true, parent(ENABLE_CUSTOM_PLAYBACK_SPEED));
+    public static final StringListSetting CUSTOM_PLAYBACK_SPEEDS = new StringListSetting("revanced_custom_playback_speeds", "0.25\n0.5\n0.75\n1.0\n1.25\n1.5\n1.75\n2.0\n2.25\n2.5", true, parent(ENABLE_CUSTOM_PLAYBACK_SPEED), StringListSetting.Delimiter.WHITESPACE);
 
     // PreferenceScreen: Video - Video quality
     public static final IntegerSetting DEFAULT_VIDEO_QUALITY_MOBILE = new IntegerSetting("revanced_default_video_quality_mobile", -2);
@@ -803,19 +804,21 @@ public class Settings extends BaseSettings {
         SharedPrefCategory ytPrefs = new SharedPrefCategory("youtube");
         SharedPrefCategory rydPrefs = new SharedPrefCategory("ryd");
         SharedPrefCategory sbPrefs = new SharedPrefCategory("sponsor-block");
-        for (Setting<?> setting : Setting.allLoadedSettings()) {
-            String key = setting.key;
-            if (setting.key.startsWith("sb_")) {
-                if (sbCategories.contains(setting)) {
-                    key = key.substring(3); // Remove the "sb_" prefix, as old categories are saved without it.
+        Setting.runInBatch(() -> {
+            for (Setting<?> setting : Setting.allLoadedSettings()) {
+                String key = setting.key;
+                if (setting.key.startsWith("sb_")) {
+                    if (sbCategories.contains(setting)) {
+                        key = key.substring(3); // Remove the "sb_" prefix, as old categories are saved without it.
+                    }
+                    migrateFromOldPreferences(sbPrefs, setting, key);
+                } else if (setting.key.startsWith("ryd_")) {
+                    migrateFromOldPreferences(rydPrefs, setting, key);
+                } else {
+                    migrateFromOldPreferences(ytPrefs, setting, key);
                 }
-                migrateFromOldPreferences(sbPrefs, setting, key);
-            } else if (setting.key.startsWith("ryd_")) {
-                migrateFromOldPreferences(rydPrefs, setting, key);
-            } else {
-                migrateFromOldPreferences(ytPrefs, setting, key);
             }
-        }
+        });
 
         // Migrate old saved data. Must be done here before the settings can be used by any other code.
         applyOldSbOpacityToColor(SB_CATEGORY_SPONSOR_COLOR, DEPRECATED_SB_CATEGORY_SPONSOR_OPACITY);
@@ -43,6 +43,11 @@ public class YouTubePreferenceFragment extends ToolbarPreferenceFragment {
      */
     private PreferenceScreen preferenceScreen;
 
+    /**
+     * If a preference availability update is already posted to the main thread.
+     */
+    private boolean preferenceAvailabilityUpdatePending;
+
     @SuppressLint("SuspiciousIndentation")
     private final SharedPreferences.OnSharedPreferenceChangeListener preferenceChangeListener = (sharedPreferences, str) -> {
         try {
@@ -71,7 +76,14 @@ public class YouTubePreferenceFragment extends ToolbarPreferenceFragment {
                 }
             }
 
-            setPreferenceAvailability();
+            // Settings saved in a batch notify about every changed key at once, update only once.
+            if (!preferenceAvailabilityUpdatePending) {
+                preferenceAvailabilityUpdatePending = true;
+                Utils.runOnMainThread(() -> {
+                    preferenceAvailabilityUpdatePending = false;
+                    setPreferenceAvailability();
+                });
+            }
         } catch (Exception ex) {
             Logger.printException(() -> "OnSharedPreferenceChangeListener failure", ex);
         }
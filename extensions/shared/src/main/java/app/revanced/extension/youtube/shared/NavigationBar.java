@@ -5,6 +5,7 @@ import static app.revanced.extension.youtube.shared.NavigationBar.NavigationButt
 import android.app.Activity;
 import android.view.View;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import java.util.Arrays;
@@ -215,6 +216,72 @@ public final class NavigationBar {
         // Code is added during patching.
     }
 
+    /**
+     * Immutable snapshot of the navigation state.
+     * <p>
+     * Litho filters run on multiple threads, and the navigation state can change while a component is filtered.
+     * Filters should capture a single snapshot per component and only use that snapshot,
+     * so all checks of the component are made against the same state.
+     */
+    public static final class NavigationState {
+        /**
+         * Selected navigation button, or null if the tab is unknown.
+         */
+        @Nullable
+        public final NavigationButton selectedNavigationButton;
+        /**
+         * @see RootView#isPlayerActive()
+         */
+        public final boolean playerActive;
+        /**
+         * @see RootView#isSearchBarActive()
+         */
+        public final boolean searchBarActive;
+        /**
+         * @see RootView#getBrowseId()
+         */
+        public final String browseId;
+        /**
+         * @see EngagementPanel#isDescription()
+         */
+        public final boolean descriptionActive;
+
+        private NavigationState(@Nullable NavigationButton selectedNavigationButton, boolean playerActive,
+                                boolean searchBarActive, String browseId, boolean descriptionActive) {
+            this.selectedNavigationButton = selectedNavigationButton;
+            this.playerActive = playerActive;
+            this.searchBarActive = searchBarActive;
+            this.browseId = browseId;
+            this.descriptionActive = descriptionActive;
+        }
+
+        /**
+         * Same as {@link NavigationButton#getSelectedNavigationButton()},
+         * this can take up to 120ms if the device back button was recently pressed.
+         */
+        public static NavigationState capture() {
+            return new NavigationState(
+                    NavigationButton.getSelectedNavigationButton(),
+                    RootView.isPlayerActive(),
+                    RootView.isSearchBarActive(),
+                    RootView.getBrowseId(),
+                    EngagementPanel.isDescription()
+            );
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "NavigationState{"
+                    + "selectedNavigationButton=" + selectedNavigationButton
+                    + ", playerActive=" + playerActive
+                    + ", searchBarActive=" + searchBarActive
+                    + ", browseId='" + browseId + "'"
+                    + ", descriptionActive=" + descriptionActive
+                    + "}";
+        }
+    }
+
     public enum NavigationButton {
         HOME("PIVOT_HOME", "TAB_HOME_CAIRO"),
         SHORTS("TAB_SHORTS", "TAB_SHORTS_CAIRO"),
@@ -2,12 +2,16 @@ package app.revanced.extension.youtube.shared;
 
 import static app.revanced.extension.shared.utils.Utils.getFormattedTimeStamp;
 
+import android.os.SystemClock;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import app.revanced.extension.shared.utils.Event;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
 import app.revanced.extension.youtube.patches.utils.AlwaysRepeatPatch;
+import kotlin.Unit;
 
 /**
  * Hooking class for the current playing video.
@@ -27,6 +31,11 @@ public final class VideoInformation {
      * Prefix present in all YouTube Mix (auto-generated playlist) playlist id.
      */
     private static final String YOUTUBE_MIX_PLAYLIST_ID_PREFIX = "RD";
+    /**
+     * If the playback time differs more than this from the expected time,
+     * then the playback time jumped (such as by seeking).
+     */
+    private static final long VIDEO_TIME_JUMP_THRESHOLD_MILLISECONDS = 500;
 
     @NonNull
     private static String channelId = "";
@@ -39,6 +48,10 @@ public final class VideoInformation {
     private static long videoLength = 0;
     private static boolean videoIsLiveStream;
     private static long videoTime = -1;
+    /**
+     * When {@link #videoTime} was last updated, in {@link SystemClock#uptimeMillis()}.
+     */
+    private static long videoTimeUpdated;
 
     /**
      * Whether the regular player has ever been opened.
@@ -58,6 +71,26 @@ public final class VideoInformation {
      */
     private static float playbackSpeed = DEFAULT_YOUTUBE_PLAYBACK_SPEED;
 
+    /**
+     * Playback time change listener, called on the main thread when the playback time changes
+     * other than by playing (such as by seeking, or the first time of a video).
+     */
+    public static final Event<Long> onVideoTimeJump = new Event<>();
+
+    /**
+     * Playback speed change listener.
+     */
+    public static final Event<Float> onPlaybackSpeedChange = new Event<>();
+
+    static {
+        // The playback time does not change while paused,
+        // so the time played since the last update is counted from when the playback resumes.
+        VideoState.getOnChange().addObserver(state -> {
+            videoTimeUpdated = SystemClock.uptimeMillis();
+            return Unit.INSTANCE;
+        });
+    }
+
     /**
      * Injection point.
      */
@@ -391,6 +424,7 @@ public final class VideoInformation {
         if (playbackSpeed != newlyLoadedPlaybackSpeed) {
             Logger.printDebug(() -> "Video speed changed: " + newlyLoadedPlaybackSpeed);
             playbackSpeed = newlyLoadedPlaybackSpeed;
+            onPlaybackSpeedChange.invoke(newlyLoadedPlaybackSpeed);
         }
     }
 
@@ -434,6 +468,32 @@ public final class VideoInformation {
         return videoTime / 1000;
     }
 
+    /**
+     * Playback time of the current video playing, including the time played since the playback time was last updated.
+     * Unlike {@link #getVideoTime()}, this does not lag behind the actual playback time.
+     *
+     * @return The time of the video in milliseconds. -1 if not set yet.
+     */
+    public static long getVideoTimeEstimate() {
+        return getVideoTimeEstimate(SystemClock.uptimeMillis());
+    }
+
+    private static long getVideoTimeEstimate(long now) {
+        final long time = videoTime;
+        if (time < 0 || isPausedOrStopped()) {
+            return time;
+        }
+        return time + (long) ((now - videoTimeUpdated) * playbackSpeed);
+    }
+
+    /**
+     * @return If the playback is known to not be playing.
+     */
+    public static boolean isPausedOrStopped() {
+        final VideoState state = VideoState.getCurrent();
+        return state != null && state != VideoState.PLAYING;
+    }
+
     /**
      * Injection point.
      * Called on the main thread every 100ms.
@@ -441,8 +501,15 @@ public final class VideoInformation {
      * @param time The current playback time of the video in milliseconds.
      */
     public static void setVideoTime(final long time) {
+        final long now = SystemClock.uptimeMillis();
+        final long expectedTime = getVideoTimeEstimate(now);
         videoTime = time;
+        videoTimeUpdated = now;
         Logger.printDebug(() -> "setVideoTime: " + getFormattedTimeStamp(time));
+
+        if (expectedTime < 0 || Math.abs(time - expectedTime) > VIDEO_TIME_JUMP_THRESHOLD_MILLISECONDS) {
+            onVideoTimeJump.invoke(time);
+        }
     }
 
     /**
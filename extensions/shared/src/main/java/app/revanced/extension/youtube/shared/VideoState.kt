@@ -1,5 +1,6 @@
 package app.revanced.extension.youtube.shared
 
+import app.revanced.extension.shared.utils.Event
 import app.revanced.extension.shared.utils.Logger
 
 /**
@@ -35,10 +36,17 @@ enum class VideoState {
                     Logger.printDebug { "Changed to: $type" }
 
                     currentVideoState = type
+                    onChange(type)
                 }
             }
 
         @Volatile // Read/write from different threads.
         private var currentVideoState: VideoState? = null
+
+        /**
+         * video state change listener
+         */
+        @JvmStatic
+        val onChange = Event<VideoState?>()
     }
 }
\ No newline at end of file
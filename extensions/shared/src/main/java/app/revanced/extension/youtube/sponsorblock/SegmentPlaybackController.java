@@ -37,6 +37,7 @@ import java.util.Objects;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.ResourceUtils;
 import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.shared.utils.Utils.TaskPriority;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.shared.PlayerControlsVisibility;
 import app.revanced.extension.youtube.shared.PlayerType;
@@ -89,6 +90,12 @@ public class SegmentPlaybackController {
      */
     private static final int HIGHLIGHT_SEGMENT_DRAW_BAR_WIDTH = dipToPixels(7);
 
+    /**
+     * Key of the segment download task. A download for a previous video that has not started yet
+     * is cancelled when a new video starts.
+     */
+    private static final String DOWNLOAD_SEGMENTS_TASK_KEY = SegmentPlaybackController.class.getName() + ".downloadSegments";
+
     @NonNull
     private static String videoId = "";
     private static long videoLength = 0;
@@ -328,7 +335,8 @@ public class SegmentPlaybackController {
                 return;
             }
 
-            Utils.runOnBackgroundThread(() -> {
+            // Segments of the previous video are no longer needed if not yet downloaded.
+            Utils.runOnBackgroundThread(TaskPriority.PLAYBACK, DOWNLOAD_SEGMENTS_TASK_KEY, () -> {
                 try {
                     executeDownloadSegments(newlyLoadedVideoId);
                 } catch (Exception e) {
@@ -27,6 +27,7 @@ import java.util.regex.Pattern;
 
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.shared.utils.Utils.TaskPriority;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.shared.VideoInformation;
 import app.revanced.extension.youtube.sponsorblock.objects.CategoryBehaviour;
@@ -390,7 +391,7 @@ public class SponsorBlockUtils {
         Settings.SB_LOCAL_TIME_SAVED_NUMBER_SEGMENTS.save(Settings.SB_LOCAL_TIME_SAVED_NUMBER_SEGMENTS.get() + 1);
 
         if (Settings.SB_TRACK_SKIP_COUNT.get()) {
-            Utils.runOnBackgroundThread(() -> SBRequester.sendSegmentSkippedViewedRequest(segment));
+            Utils.runOnBackgroundThread(TaskPriority.BACKGROUND, () -> SBRequester.sendSegmentSkippedViewedRequest(segment));
         }
     }
 
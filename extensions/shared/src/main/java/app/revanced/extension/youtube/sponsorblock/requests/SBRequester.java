@@ -22,6 +22,7 @@ import app.revanced.extension.shared.requests.Route;
 import app.revanced.extension.shared.sponsorblock.requests.SBRoutes;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.shared.utils.Utils.TaskPriority;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.sponsorblock.SponsorBlockSettings;
 import app.revanced.extension.youtube.sponsorblock.SponsorBlockUtils;
@@ -327,7 +328,7 @@ public class SBRequester {
         if (now < (Settings.SB_LAST_VIP_CHECK.get() + TimeUnit.DAYS.toMillis(3))) {
             return;
         }
-        Utils.runOnBackgroundThread(() -> {
+        Utils.runOnBackgroundThread(TaskPriority.BACKGROUND, () -> {
             try {
                 JSONObject json = getJSONObject(SBRoutes.IS_USER_VIP, SponsorBlockSettings.getSBPrivateUserID());
                 boolean vip = json.getBoolean("vip");
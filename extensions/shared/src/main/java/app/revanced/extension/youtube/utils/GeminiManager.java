@@ -16,15 +16,21 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import app.revanced.extension.shared.settings.AppLanguage;
 import app.revanced.extension.shared.utils.Logger;
+import app.revanced.extension.shared.utils.Utils;
+import app.revanced.extension.shared.utils.Utils.TaskPriority;
 import app.revanced.extension.youtube.settings.Settings;
 import app.revanced.extension.youtube.shared.VideoInformation;
+import app.revanced.extension.youtube.shared.VideoState;
+import kotlin.Unit;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,9 +54,11 @@ public final class GeminiManager {
             // Matches [HH:MM:SS.ms - HH:MM:SS.ms]: TEXT or [MM:SS.ms - MM:SS.ms]: TEXT
             "\\[(?:(\\d{2}):)?(\\d{2}):(\\d{2})\\.(\\d{1,3})\\s*-\\s*(?:(\\d{2}):)?(\\d{2}):(\\d{2})\\.(\\d{1,3})\\]:?\\s*(.*)"
     );
-    private static final long SUBTITLE_UPDATE_INTERVAL_MS = 250; // How often to check for subtitle text updates
     private static final String EMPTY_SUBTITLE_PLACEHOLDER = "..."; // Displayed when no subtitle text is active
     private static final String APP_LANGUAGE_SETTING_KEY = "app"; // Keyword for using app language in Yandex setting
+    private static final String RESULT_CACHE_DIRECTORY = "revanced_gemini_results"; // Directory in the app cache directory
+    private static final long RESULT_CACHE_MAX_SIZE_BYTES = 4 * 1024 * 1024; // Results saved to disk, about 100 videos
+    private static final String YANDEX_MODEL = "yandex"; // Model of Yandex results in the result cache
 
     // --- Singleton Instance ---
     private static volatile GeminiManager instance;
@@ -99,6 +107,9 @@ public final class GeminiManager {
     private TreeMap<Long, Pair<Long, String>> parsedTranscription = null;
     private int totalTranscriptionTimeSeconds = -1;
 
+    @Nullable
+    private GeminiResultCache resultCache = null; // Results of previous videos, created when first used
+
     // --- Subtitle Overlay State ---
     @Nullable
     private SubtitleOverlay subtitleOverlay;
@@ -107,13 +118,29 @@ public final class GeminiManager {
     // --- Runnables ---
     @Nullable
     private Runnable timerRunnable;
+    private final Runnable subtitleUpdateRunnable = this::updateSubtitleInternal;
     @Nullable
-    private Runnable subtitleUpdateRunnable;
+    private String lastTextSentToOverlay; // Track last text to avoid redundant UI updates
 
     /**
      * Private constructor for the Singleton pattern.
      */
-    private GeminiManager() {}
+    private GeminiManager() {
+        // Subtitles are updated at the start and end of each subtitle,
+        // so the update must be rescheduled if the playback does not continue as expected.
+        VideoInformation.onVideoTimeJump.addObserver(time -> {
+            rescheduleSubtitleUpdate();
+            return Unit.INSTANCE;
+        });
+        VideoInformation.onPlaybackSpeedChange.addObserver(speed -> {
+            rescheduleSubtitleUpdate();
+            return Unit.INSTANCE;
+        });
+        VideoState.getOnChange().addObserver(state -> {
+            rescheduleSubtitleUpdate();
+            return Unit.INSTANCE;
+        });
+    }
 
     /**
      * Returns the singleton instance of GeminiManager.
@@ -164,8 +191,9 @@ public final class GeminiManager {
     /**
      * Initiates the video summarization workflow using the Gemini API.
      * <p>
-     * Checks cache first. If not cached, check if busy with the *same* task.
-     * If not busy or busy with a different task, prepare for the new operation (cancelling any old one).
+     * Checks the cache in memory first. If not cached, check if busy with the *same* task.
+     * If not busy or busy with a different task, prepare for the new operation (cancelling any old one)
+     * and check the result cache on disk.
      * Checks for a valid API key. If valid, shows a progress dialog and starts the asynchronous API call.
      * Handles success/failure callbacks to display results or errors.
      * Ensures any active transcription overlay is hidden before starting or showing results.
@@ -174,41 +202,61 @@ public final class GeminiManager {
      * @param videoUrl The URL of the video to summarize. Must be a valid, non-placeholder URL.
      */
     public void startSummarization(@NonNull Context context, @NonNull final String videoUrl) {
-        ensureMainThread(() -> {
-            hideTranscriptionOverlayInternal();
+        ensureMainThread(() -> startSummarizationInternal(context, videoUrl, false));
+    }
 
-            if (Objects.equals(videoUrl, cachedSummaryVideoUrl) && cachedSummaryResult != null) {
-                Logger.printDebug(() -> "Displaying cached summary: " + videoUrl);
-                showSummaryDialog(context, cachedSummaryResult, totalSummarizationTimeSeconds);
-                resetOperationStateInternal(OperationType.SUMMARIZE, false);
-                return;
-            }
+    /**
+     * @param resultCacheChecked If the result cache on disk was already checked for this video.
+     * @see #startSummarization(Context, String)
+     */
+    @MainThread
+    private void startSummarizationInternal(@NonNull Context context, @NonNull final String videoUrl, boolean resultCacheChecked) {
+        hideTranscriptionOverlayInternal();
+
+        if (Objects.equals(videoUrl, cachedSummaryVideoUrl) && cachedSummaryResult != null) {
+            Logger.printDebug(() -> "Displaying cached summary: " + videoUrl);
+            showSummaryDialog(context, cachedSummaryResult, totalSummarizationTimeSeconds);
+            resetOperationStateInternal(OperationType.SUMMARIZE, false);
+            return;
+        }
 
+        if (!resultCacheChecked) {
             if (isBusyInternal(context, videoUrl, OperationType.SUMMARIZE)) return;
 
+            // The operation is busy while the result cache is checked, so it is not started twice.
             prepareForNewOperationInternal(OperationType.SUMMARIZE, videoUrl);
+            loadFromResultCacheInternal(OperationType.SUMMARIZE, GeminiResultCache.ResultType.SUMMARY, videoUrl,
+                    GeminiUtils.getLanguageName(), GeminiUtils.GEMINI_MODEL, result -> {
+                        if (result != null && result.text != null) {
+                            cachedSummaryVideoUrl = videoUrl;
+                            cachedSummaryResult = result.text;
+                            totalSummarizationTimeSeconds = result.timeSeconds;
+                        }
+                        startSummarizationInternal(context, videoUrl, true);
+                    });
+            return;
+        }
 
-            final String apiKey = Settings.GEMINI_API_KEY.get();
-            if (isEmptyApiKey(apiKey)) {
-                resetOperationStateInternal(OperationType.SUMMARIZE, true);
-                return;
-            }
+        final String apiKey = Settings.GEMINI_API_KEY.get();
+        if (isEmptyApiKey(apiKey)) {
+            resetOperationStateInternal(OperationType.SUMMARIZE, true);
+            return;
+        }
 
-            Logger.printDebug(() -> "Starting new summarization workflow: " + videoUrl);
+        Logger.printDebug(() -> "Starting new summarization workflow: " + videoUrl);
 
-            showProgressDialogInternal(context, OperationType.SUMMARIZE);
+        showProgressDialogInternal(context, OperationType.SUMMARIZE);
 
-            GeminiUtils.getVideoSummary(videoUrl, apiKey, new GeminiUtils.Callback() {
-                @Override
-                public void onSuccess(String result) {
-                    handleApiResponseInternal(context, OperationType.SUMMARIZE, videoUrl, result, null);
-                }
+        GeminiUtils.getVideoSummary(videoUrl, apiKey, new GeminiUtils.Callback() {
+            @Override
+            public void onSuccess(String result) {
+                handleApiResponseInternal(context, OperationType.SUMMARIZE, videoUrl, result, null);
+            }
 
-                @Override
-                public void onFailure(String error) {
-                    handleApiResponseInternal(context, OperationType.SUMMARIZE, videoUrl, null, error);
-                }
-            });
+            @Override
+            public void onFailure(String error) {
+                handleApiResponseInternal(context, OperationType.SUMMARIZE, videoUrl, null, error);
+            }
         });
     }
 
@@ -222,9 +270,10 @@ public final class GeminiManager {
      * Determines target language based on settings (including "app" keyword).
      * Routes to Yandex (potentially with Gemini translation step) or direct Gemini transcription.
      * <p>
-     * Checks cache first (parsed data for Yandex, raw text for Gemini).
+     * Checks the cache in memory first (parsed data for Yandex, raw text for Gemini).
      * If not cached, check if busy with the *same* task.
-     * If not busy or busy with a different task, prepare for the new operation (cancelling any old one).
+     * If not busy or busy with a different task, prepare for the new operation (cancelling any old one)
+     * and check the result cache on disk.
      * Check the necessary prerequisites (API key for Gemini, language support for Yandex).
      * Shows a progress dialog and starts the asynchronous workflow (Yandex polling or Gemini API call).
      * Handles success/failure callbacks to display results (overlay for Yandex/parsed Gemini, dialog for raw Gemini) or errors.
@@ -234,95 +283,148 @@ public final class GeminiManager {
      * @param videoUrl The URL of the video to transcribe. Must be a valid, non-placeholder URL.
      */
     public void startTranscription(@NonNull Context context, @NonNull final String videoUrl) {
-        ensureMainThread(() -> {
-            final long videoLengthMs = VideoInformation.getVideoLength();
-            final double durationSeconds = videoLengthMs > 0 ? videoLengthMs / 1000.0 : 0;
+        ensureMainThread(() -> startTranscriptionInternal(context, videoUrl, false));
+    }
 
-            hideTranscriptionOverlayInternal();
+    /**
+     * @param resultCacheChecked If the result cache on disk was already checked for this video.
+     * @see #startTranscription(Context, String)
+     */
+    @MainThread
+    private void startTranscriptionInternal(@NonNull Context context, @NonNull final String videoUrl, boolean resultCacheChecked) {
+        final long videoLengthMs = VideoInformation.getVideoLength();
+        final double durationSeconds = videoLengthMs > 0 ? videoLengthMs / 1000.0 : 0;
 
-            // --- Cache Check (Checks for final parsed result) ---
-            if (Objects.equals(videoUrl, cachedTranscriptionVideoUrl)) {
-                boolean cacheDisplayed = false;
-                // Check for previously parsed result (could be from Yandex direct or Yandex+Gemini)
-                if (parsedTranscription != null && !parsedTranscription.isEmpty()) {
-                    Logger.printDebug(() -> "Attempting display cached transcription overlay: " + videoUrl);
-                    if (displayTranscriptionOverlayInternal()) {
-                        Logger.printDebug(() -> "Cached transcription overlay display succeeded.");
-                        showToastShort(str("revanced_gemini_transcription_parse_success"));
-                        cacheDisplayed = true;
-                    } else {
-                        Logger.printException(() -> "Failed to display cached transcription overlay!", null);
-                        showToastLong(str("revanced_gemini_error_overlay_display"));
-                        clearTranscriptionCacheAndHideOverlay();
-                    }
-                }
-                // Check for raw Gemini result (only relevant if Yandex was OFF last time)
-                else if (!Settings.YANDEX_TRANSCRIBE_SUBTITLES.get() && cachedRawTranscription != null) {
-                    Logger.printDebug(() -> "Displaying cached Gemini raw transcription dialog: " + videoUrl);
-                    showTranscriptionResultDialogInternal(context, cachedRawTranscription, totalTranscriptionTimeSeconds);
+        hideTranscriptionOverlayInternal();
+
+        // --- Cache Check (Checks for final parsed result) ---
+        if (Objects.equals(videoUrl, cachedTranscriptionVideoUrl)) {
+            boolean cacheDisplayed = false;
+            // Check for previously parsed result (could be from Yandex direct or Yandex+Gemini)
+            if (parsedTranscription != null && !parsedTranscription.isEmpty()) {
+                Logger.printDebug(() -> "Attempting display cached transcription overlay: " + videoUrl);
+                if (displayTranscriptionOverlayInternal()) {
+                    Logger.printDebug(() -> "Cached transcription overlay display succeeded.");
+                    showToastShort(str("revanced_gemini_transcription_parse_success"));
                     cacheDisplayed = true;
+                } else {
+                    Logger.printException(() -> "Failed to display cached transcription overlay!", null);
+                    showToastLong(str("revanced_gemini_error_overlay_display"));
+                    clearTranscriptionCacheAndHideOverlay();
                 }
+            }
+            // Check for raw Gemini result (only relevant if Yandex was OFF last time)
+            else if (!Settings.YANDEX_TRANSCRIBE_SUBTITLES.get() && cachedRawTranscription != null) {
+                Logger.printDebug(() -> "Displaying cached Gemini raw transcription dialog: " + videoUrl);
+                showTranscriptionResultDialogInternal(context, cachedRawTranscription, totalTranscriptionTimeSeconds);
+                cacheDisplayed = true;
+            }
 
-                if (cacheDisplayed) {
-                    resetOperationStateInternal(OperationType.TRANSCRIBE, false);
-                    return;
-                }
-                // If cache existed but wasn't usable (e.g., Yandex setting true but only raw Gemini cached), continue to fetch.
+            if (cacheDisplayed) {
+                resetOperationStateInternal(OperationType.TRANSCRIBE, false);
+                return;
             }
+            // If cache existed but wasn't usable (e.g., Yandex setting true but only raw Gemini cached), continue to fetch.
+        }
 
+        if (!resultCacheChecked) {
             if (isBusyInternal(context, videoUrl, OperationType.TRANSCRIBE)) return;
 
+            // The operation is busy while the result cache is checked, so it is not started twice.
             prepareForNewOperationInternal(OperationType.TRANSCRIBE, videoUrl);
+            loadTranscriptionFromResultCacheInternal(context, videoUrl);
+            return;
+        }
 
-            // --- Determine Target Language ---
-            String targetLangCode;
-            final String yandexSettingValue = Settings.YANDEX_TRANSCRIBE_SUBTITLES_LANGUAGE.get();
-
-            if (APP_LANGUAGE_SETTING_KEY.equalsIgnoreCase(yandexSettingValue)) {
-                // User wants app language, get code from main app language setting
-                try {
-                    AppLanguage appLangEnum = Settings.REVANCED_LANGUAGE.get();
-                    targetLangCode = appLangEnum.getLanguage();
-                    String finalTargetLangCode = targetLangCode;
-                    Logger.printInfo(() -> "Yandex target language set to 'app', using app language code: " + finalTargetLangCode);
-                } catch (Exception e) {
-                    Logger.printException(() -> "Failed to get app language code when Yandex setting was 'app'. Falling back to English.", e);
-                    targetLangCode = "en"; // Fallback if reading app language fails
-                }
-            } else {
-                // Use the code directly from the Yandex setting
-                targetLangCode = yandexSettingValue;
-                String finalTargetLangCode1 = targetLangCode;
-                Logger.printInfo(() -> "Using Yandex target language code from setting: " + finalTargetLangCode1);
-            }
+        // --- Determine Target Language ---
+        final String targetLangCode = getTargetLanguageCode();
 
-            // Validate the determined language code
-            if (TextUtils.isEmpty(targetLangCode)) {
-                showToastLong(str("revanced_yandex_error_no_language_selected"));
-                resetOperationStateInternal(OperationType.TRANSCRIBE, true);
-                return;
-            }
+        // Validate the determined language code
+        if (TextUtils.isEmpty(targetLangCode)) {
+            showToastLong(str("revanced_yandex_error_no_language_selected"));
+            resetOperationStateInternal(OperationType.TRANSCRIBE, true);
+            return;
+        }
 
-            // Store the final determined target code for use in callbacks
-            determinedTargetLanguageCode = targetLangCode;
-            intermediateLanguageCode = null; // Reset intermediate state
+        // Store the final determined target code for use in callbacks
+        determinedTargetLanguageCode = targetLangCode;
+        intermediateLanguageCode = null; // Reset intermediate state
 
-            // --- Determine Workflow ---
-            final boolean useYandex = Settings.YANDEX_TRANSCRIBE_SUBTITLES.get();
+        // --- Determine Workflow ---
+        final boolean useYandex = Settings.YANDEX_TRANSCRIBE_SUBTITLES.get();
 
-            if (useYandex) {
-                startYandexTranscriptionWorkflow(context, videoUrl, durationSeconds, Objects.requireNonNull(determinedTargetLanguageCode));
-            } else {
-                // Use direct Gemini transcription (will use app language via getLanguageName())
-                startGeminiTranscriptionWorkflow(context, videoUrl);
-            }
-        });
+        if (useYandex) {
+            startYandexTranscriptionWorkflow(context, videoUrl, durationSeconds, Objects.requireNonNull(determinedTargetLanguageCode));
+        } else {
+            // Use direct Gemini transcription (will use app language via getLanguageName())
+            startGeminiTranscriptionWorkflow(context, videoUrl);
+        }
     }
 
     // endregion Public API Methods
 
     // region Internal State Management & Workflow Logic
 
+    /**
+     * Determines the target language of the transcription, from the Yandex language setting
+     * (including the "app" keyword for the app language).
+     *
+     * @return The language code, or an empty string if no language is selected.
+     */
+    @NonNull
+    private static String getTargetLanguageCode() {
+        String targetLangCode;
+        final String yandexSettingValue = Settings.YANDEX_TRANSCRIBE_SUBTITLES_LANGUAGE.get();
+
+        if (APP_LANGUAGE_SETTING_KEY.equalsIgnoreCase(yandexSettingValue)) {
+            // User wants app language, get code from main app language setting
+            try {
+                AppLanguage appLangEnum = Settings.REVANCED_LANGUAGE.get();
+                targetLangCode = appLangEnum.getLanguage();
+                String finalTargetLangCode = targetLangCode;
+                Logger.printInfo(() -> "Yandex target language set to 'app', using app language code: " + finalTargetLangCode);
+            } catch (Exception e) {
+                Logger.printException(() -> "Failed to get app language code when Yandex setting was 'app'. Falling back to English.", e);
+                targetLangCode = "en"; // Fallback if reading app language fails
+            }
+        } else {
+            // Use the code directly from the Yandex setting
+            targetLangCode = yandexSettingValue;
+            String finalTargetLangCode1 = targetLangCode;
+            Logger.printInfo(() -> "Using Yandex target language code from setting: " + finalTargetLangCode1);
+        }
+
+        return targetLangCode == null ? "" : targetLangCode;
+    }
+
+    /**
+     * Loads the transcription of the video from the result cache on disk (Yandex subtitles or raw Gemini transcription,
+     * depending on the settings), and then starts the transcription again, which shows the loaded result if found.
+     * Must be called on the Main Thread.
+     */
+    @MainThread
+    private void loadTranscriptionFromResultCacheInternal(@NonNull Context context, @NonNull String videoUrl) {
+        final boolean useYandex = Settings.YANDEX_TRANSCRIBE_SUBTITLES.get();
+        final String language = useYandex ? getTargetLanguageCode() : GeminiUtils.getLanguageName();
+        if (language.isEmpty()) {
+            // Nothing can be cached. The error is shown when the transcription starts.
+            startTranscriptionInternal(context, videoUrl, true);
+            return;
+        }
+
+        loadFromResultCacheInternal(OperationType.TRANSCRIBE,
+                useYandex ? GeminiResultCache.ResultType.SUBTITLES : GeminiResultCache.ResultType.TRANSCRIPTION,
+                videoUrl, language, useYandex ? YANDEX_MODEL : GeminiUtils.GEMINI_MODEL, result -> {
+                    if (result != null) {
+                        cachedTranscriptionVideoUrl = videoUrl;
+                        cachedRawTranscription = result.text;
+                        parsedTranscription = result.subtitles;
+                        totalTranscriptionTimeSeconds = result.timeSeconds;
+                    }
+                    startTranscriptionInternal(context, videoUrl, true);
+                });
+    }
+
     /**
      * Starts the Yandex VOT transcription workflow.
      * This method now simply passes the determined target language code to YandexVotUtils,
@@ -495,6 +597,7 @@ public final class GeminiManager {
                 cachedTranscriptionVideoUrl = videoUrl;
                 cachedRawTranscription = null; // Not applicable here
                 totalTranscriptionTimeSeconds = calculateElapsedTimeSeconds(); // Total time for Yandex + Gemini
+                saveSubtitlesToResultCacheInternal(videoUrl, finalParsedData);
 
                 Logger.printDebug(() -> "Attempting display final translated overlay...");
                 if (displayTranscriptionOverlayInternal()) {
@@ -577,6 +680,7 @@ public final class GeminiManager {
             cachedTranscriptionVideoUrl = videoUrl;
             cachedRawTranscription = null;
             totalTranscriptionTimeSeconds = calculateElapsedTimeSeconds(); // Yandex time only
+            saveSubtitlesToResultCacheInternal(videoUrl, parsedData);
 
             Logger.printDebug(() -> "Attempting display final Yandex overlay...");
             if (displayTranscriptionOverlayInternal()) {
@@ -805,6 +909,9 @@ public final class GeminiManager {
                 totalSummarizationTimeSeconds = time;
                 cachedSummaryVideoUrl = videoUrl;
                 cachedSummaryResult = result;
+                final String language = GeminiUtils.getLanguageName();
+                saveToResultCache(cache -> cache.putText(GeminiResultCache.ResultType.SUMMARY,
+                        videoUrl, language, GeminiUtils.GEMINI_MODEL, time, result));
                 showSummaryDialog(context, result, totalSummarizationTimeSeconds);
                 resetOperationStateInternal(opType, false);
             } else if (opType == OperationType.TRANSCRIBE) {
@@ -812,6 +919,9 @@ public final class GeminiManager {
                 cachedTranscriptionVideoUrl = videoUrl;
                 cachedRawTranscription = result;
                 parsedTranscription = null;
+                final String language = GeminiUtils.getLanguageName();
+                saveToResultCache(cache -> cache.putText(GeminiResultCache.ResultType.TRANSCRIPTION,
+                        videoUrl, language, GeminiUtils.GEMINI_MODEL, time, result));
                 showTranscriptionResultDialogInternal(context, result, totalTranscriptionTimeSeconds);
                 resetOperationStateInternal(opType, false);
             }
@@ -918,6 +1028,89 @@ public final class GeminiManager {
         Logger.printDebug(() -> "Summary cache cleared.");
     }
 
+    /**
+     * Loads a result from the result cache on disk on a background thread.
+     * Must be called on the Main Thread.
+     * <p>
+     * Uses the same thread as {@link #saveToResultCache(Consumer)}, so reading files does not use
+     * the threads of network requests, and results are read after previously queued results are saved.
+     *
+     * @param opType   The operation the result is loaded for. Must already be prepared, and the callback
+     *                 is not called if the operation was canceled or replaced in the meantime.
+     * @param callback Called on the Main Thread with the saved result, or null if there is no result.
+     */
+    @MainThread
+    private void loadFromResultCacheInternal(@NonNull OperationType opType,
+                                             @NonNull GeminiResultCache.ResultType type, @NonNull String videoUrl,
+                                             @NonNull String language, @NonNull String model,
+                                             @NonNull Consumer<GeminiResultCache.Result> callback) {
+        Utils.runOnBackgroundThread(TaskPriority.BACKGROUND, () -> {
+            GeminiResultCache.Result result = null;
+            try {
+                GeminiResultCache cache = getResultCache();
+                if (cache != null) {
+                    result = cache.get(type, videoUrl, language, model);
+                }
+            } catch (Exception e) {
+                Logger.printException(() -> "Failed to load " + type + " from result cache.", e);
+            }
+
+            final GeminiResultCache.Result loadedResult = result;
+            ensureMainThread(() -> {
+                if (!isOperationRelevant(opType, videoUrl)) {
+                    Logger.printDebug(() -> "Ignoring " + type + " loaded from result cache for " + videoUrl);
+                    return;
+                }
+                callback.accept(loadedResult);
+            });
+        });
+    }
+
+    /**
+     * Saves the parsed subtitles of the current transcription to the result cache on disk.
+     * Must be called on the Main Thread, before the operation state is reset.
+     */
+    @MainThread
+    private void saveSubtitlesToResultCacheInternal(@NonNull String videoUrl, @NonNull TreeMap<Long, Pair<Long, String>> subtitles) {
+        final String language = determinedTargetLanguageCode;
+        if (TextUtils.isEmpty(language)) {
+            return;
+        }
+        final int time = totalTranscriptionTimeSeconds;
+        saveToResultCache(cache -> cache.putSubtitles(videoUrl, language, YANDEX_MODEL, time, subtitles));
+    }
+
+    /**
+     * Saves a result to the result cache on disk on a background thread.
+     */
+    private void saveToResultCache(@NonNull Consumer<GeminiResultCache> save) {
+        Utils.runOnBackgroundThread(TaskPriority.BACKGROUND, () -> {
+            try {
+                GeminiResultCache cache = getResultCache();
+                if (cache != null) {
+                    save.accept(cache);
+                }
+            } catch (Exception e) {
+                Logger.printException(() -> "Failed to save result cache.", e);
+            }
+        });
+    }
+
+    /**
+     * @return The result cache on disk, or null if the app context is not available yet.
+     */
+    @Nullable
+    private synchronized GeminiResultCache getResultCache() {
+        if (resultCache == null) {
+            Context context = Utils.getContext();
+            if (context == null) {
+                return null;
+            }
+            resultCache = new GeminiResultCache(new File(context.getCacheDir(), RESULT_CACHE_DIRECTORY), RESULT_CACHE_MAX_SIZE_BYTES);
+        }
+        return resultCache;
+    }
+
     // endregion Internal State Management & Workflow Logic
 
     // region Utility Methods
@@ -1485,9 +1678,10 @@ public final class GeminiManager {
             Logger.printDebug(() -> "Creating new SubtitleOverlay instance.");
             subtitleOverlay = new SubtitleOverlay();
 
-            long currentTime = VideoInformation.getVideoTime();
+            long currentTime = VideoInformation.getVideoTimeEstimate();
             String initialText = findSubtitleTextForTimeInternal(currentTime);
             subtitleOverlay.updateText(initialText);
+            lastTextSentToOverlay = initialText;
 
             // Show the overlay window (can throw BadTokenException etc.)
             subtitleOverlay.show();
@@ -1566,7 +1760,7 @@ public final class GeminiManager {
     }
 
     /**
-     * Starts the periodic runnable that updates the subtitle overlay text based on video time.
+     * Starts updating the subtitle overlay text based on video time.
      * Must be called on the Main Thread.
      */
     @MainThread
@@ -1577,74 +1771,111 @@ public final class GeminiManager {
             return;
         }
 
-        stopSubtitleUpdaterInternal();
         Logger.printDebug(() -> "Starting subtitle updater.");
+        updateSubtitleInternal();
+    }
 
-        subtitleUpdateRunnable = new Runnable() {
-            private String lastTextSentToOverlay = null; // Track last text to avoid redundant UI updates
+    /**
+     * Updates the subtitle overlay text when the playback time jumps, the playback speed changes,
+     * or the playback is paused or resumed, as the scheduled update is no longer at the right time.
+     * Safe to call from any thread.
+     */
+    private void rescheduleSubtitleUpdate() {
+        if (isSubtitleOverlayShowing) {
+            ensureMainThread(this::updateSubtitleInternal);
+        }
+    }
 
-            @Override
-            public void run() {
-                SubtitleOverlay currentOverlay = subtitleOverlay;
-                TreeMap<Long, Pair<Long, String>> currentParsedData = parsedTranscription;
+    /**
+     * Updates the subtitle overlay text for the current video time, and schedules the next update
+     * at the start or end of the next subtitle.
+     * No update is scheduled while the playback is paused, as the text cannot change.
+     * Must be called on the Main Thread.
+     */
+    @MainThread
+    private void updateSubtitleInternal() {
+        subtitleUpdateHandler.removeCallbacks(subtitleUpdateRunnable);
 
-                if (!isSubtitleOverlayShowing || currentParsedData == null || currentOverlay == null) {
-                    Logger.printDebug(() -> "Stopping updater in runnable: state became invalid. isShowing=" + isSubtitleOverlayShowing + ", parsedDataNull=" + (currentParsedData == null) + ", overlayNull=" + (currentOverlay == null));
-                    subtitleUpdateRunnable = null;
-                    return;
-                }
+        SubtitleOverlay currentOverlay = subtitleOverlay;
+        TreeMap<Long, Pair<Long, String>> currentParsedData = parsedTranscription;
 
-                long currentTime = VideoInformation.getVideoTime();
-                if (currentTime < 0) {
-                    // Don't update text, just reschedule
-                    if (isSubtitleOverlayShowing) {
-                        subtitleUpdateHandler.postDelayed(this, SUBTITLE_UPDATE_INTERVAL_MS);
-                    } else {
-                        subtitleUpdateRunnable = null;
-                    }
-                    return;
-                }
+        if (!isSubtitleOverlayShowing || currentParsedData == null || currentOverlay == null) {
+            Logger.printDebug(() -> "Stopping updater: state became invalid. isShowing=" + isSubtitleOverlayShowing + ", parsedDataNull=" + (currentParsedData == null) + ", overlayNull=" + (currentOverlay == null));
+            return;
+        }
 
-                String textToShow = findSubtitleTextForTimeInternal(currentTime);
+        final long currentTime = VideoInformation.getVideoTimeEstimate();
+        if (currentTime < 0) {
+            // Updated again when the video time is set.
+            return;
+        }
 
-                // Only call updateText on the overlay if the text actually changed
-                if (!Objects.equals(textToShow, lastTextSentToOverlay)) {
-                    try {
-                        currentOverlay.updateText(textToShow);
-                        lastTextSentToOverlay = textToShow;
-                    } catch (Exception e) {
-                        Logger.printException(() -> "CRITICAL - Error updating overlay text view.", e);
-                        hideTranscriptionOverlayInternal();
-                        return;
-                    }
-                }
+        String textToShow = findSubtitleTextForTimeInternal(currentTime);
 
-                // Schedule next run if overlay still should be showing
-                if (isSubtitleOverlayShowing) {
-                    subtitleUpdateHandler.postDelayed(this, SUBTITLE_UPDATE_INTERVAL_MS);
-                } else {
-                    Logger.printDebug(() -> "Updater loop ending: isSubtitleOverlayShowing is false.");
-                    subtitleUpdateRunnable = null;
-                }
+        // Only call updateText on the overlay if the text actually changed
+        if (!Objects.equals(textToShow, lastTextSentToOverlay)) {
+            try {
+                currentOverlay.updateText(textToShow);
+                lastTextSentToOverlay = textToShow;
+            } catch (Exception e) {
+                Logger.printException(() -> "CRITICAL - Error updating overlay text view.", e);
+                hideTranscriptionOverlayInternal();
+                return;
             }
-        };
+        }
+
+        if (VideoInformation.isPausedOrStopped()) {
+            // Updated again when the playback resumes.
+            return;
+        }
+
+        final long nextChangeTime = findNextSubtitleChangeTimeInternal(currentParsedData, currentTime);
+        if (nextChangeTime < 0) {
+            // No more subtitles, unless the playback time jumps back.
+            return;
+        }
 
-        // Post the first execution
-        subtitleUpdateHandler.post(subtitleUpdateRunnable);
+        float playbackSpeed = VideoInformation.getPlaybackSpeed();
+        if (playbackSpeed <= 0) {
+            playbackSpeed = 1.0f;
+        }
+        final long delay = (long) Math.ceil((nextChangeTime - currentTime) / playbackSpeed);
+        subtitleUpdateHandler.postDelayed(subtitleUpdateRunnable, delay);
     }
 
     /**
-     * Stops the periodic runnable that updates the subtitle overlay text.
+     * Stops updating the subtitle overlay text.
      * Safe to call multiple times or if not running.
      * Must be called on the Main Thread.
      */
     @MainThread
     private void stopSubtitleUpdaterInternal() {
-        if (subtitleUpdateRunnable != null) {
-            Logger.printDebug(() -> "Stopping subtitle updater.");
-            subtitleUpdateHandler.removeCallbacks(subtitleUpdateRunnable);
-            subtitleUpdateRunnable = null;
+        subtitleUpdateHandler.removeCallbacks(subtitleUpdateRunnable);
+        lastTextSentToOverlay = null;
+    }
+
+    /**
+     * Finds the next time after the given playback time when the subtitle text changes.
+     *
+     * @param currentTimeMillis Current playback time in milliseconds.
+     * @return The end time of the current subtitle or the start time of the next subtitle, whichever is first,
+     * or -1 if the subtitle text does not change anymore.
+     */
+    private static long findNextSubtitleChangeTimeInternal(@NonNull TreeMap<Long, Pair<Long, String>> parsedData,
+                                                           long currentTimeMillis) {
+        long nextChangeTime = -1;
+
+        Map.Entry<Long, Pair<Long, String>> entry = parsedData.floorEntry(currentTimeMillis);
+        if (entry != null && currentTimeMillis < entry.getValue().first) {
+            nextChangeTime = entry.getValue().first;
         }
+
+        Long nextStartTime = parsedData.higherKey(currentTimeMillis);
+        if (nextStartTime != null && (nextChangeTime < 0 || nextStartTime < nextChangeTime)) {
+            nextChangeTime = nextStartTime;
+        }
+
+        return nextChangeTime;
     }
 
     /**
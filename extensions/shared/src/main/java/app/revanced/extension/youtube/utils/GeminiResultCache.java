@@ -0,0 +1,311 @@
+package app.revanced.extension.youtube.utils;
+
+import android.util.Pair;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Gemini and Yandex results saved to disk, so videos that were already processed
+ * are shown instantly instead of requesting the result again, even after the app is restarted.
+ * <p>
+ * Each result is a file in the cache directory, keyed by the type of result, video id, language and model.
+ * When the total size of all files is over the limit, the least recently used results are deleted.
+ * <p>
+ * Files are read and written on the calling thread, so methods must not be called on the main thread.
+ */
+final class GeminiResultCache {
+
+    enum ResultType {
+        /**
+         * Gemini video summary.
+         */
+        SUMMARY,
+        /**
+         * Raw Gemini transcription.
+         */
+        TRANSCRIPTION,
+        /**
+         * Parsed Yandex subtitles, which may be translated by Gemini.
+         */
+        SUBTITLES
+    }
+
+    static final class Result {
+        /**
+         * How long it took to get the result.
+         */
+        final int timeSeconds;
+        /**
+         * Text of {@link ResultType#SUMMARY} and {@link ResultType#TRANSCRIPTION}.
+         */
+        @Nullable
+        final String text;
+        /**
+         * Subtitles of {@link ResultType#SUBTITLES}, by start time.
+         */
+        @Nullable
+        final TreeMap<Long, Pair<Long, String>> subtitles;
+
+        private Result(int timeSeconds, @Nullable String text, @Nullable TreeMap<Long, Pair<Long, String>> subtitles) {
+            this.timeSeconds = timeSeconds;
+            this.text = text;
+            this.subtitles = subtitles;
+        }
+    }
+
+    /**
+     * Changed whenever the file format changes, so files of a previous format are ignored.
+     */
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_SUFFIX = ".bin";
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Video id of the urls results are saved with, such as 'https://youtu.be/id'
+     * and 'https://www.youtube.com/watch?v=id'.
+     */
+    private static final Pattern VIDEO_ID_PATTERN = Pattern.compile("(?:[?&]v=|youtu\\.be/|/shorts/|/live/|/embed/)([\\w-]{11})");
+
+    private final File directory;
+    private final long maxSizeBytes;
+
+    /**
+     * Lock of the files.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * @param directory    Directory of the result files, which is created if needed.
+     * @param maxSizeBytes Maximum total size of all result files.
+     */
+    GeminiResultCache(@NonNull File directory, long maxSizeBytes) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * @return The video id of the url, or the url itself if it is not a url of a video.
+     */
+    @NonNull
+    static String getVideoId(@NonNull String videoUrl) {
+        Matcher matcher = VIDEO_ID_PATTERN.matcher(videoUrl);
+        return matcher.find() ? matcher.group(1) : videoUrl;
+    }
+
+    /**
+     * Keyed by video id, so the same video opened with a different url gets the same result.
+     */
+    private static String getKey(@NonNull ResultType type, @NonNull String videoUrl,
+                                 @NonNull String language, @NonNull String model) {
+        return type.name() + '\n' + getVideoId(videoUrl) + '\n' + language + '\n' + model;
+    }
+
+    private File getFile(@NonNull String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            return new File(directory, YandexVotUtils.bytesToHex(hash) + FILE_SUFFIX);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex); // Should never happen.
+        }
+    }
+
+    /**
+     * @return The saved result, or null if there is no result.
+     */
+    @Nullable
+    Result get(@NonNull ResultType type, @NonNull String videoUrl,
+               @NonNull String language, @NonNull String model) {
+        final String key = getKey(type, videoUrl, language, model);
+        synchronized (lock) {
+            File file = getFile(key);
+            if (!file.isFile()) {
+                return null;
+            }
+
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (input.readInt() != FORMAT_VERSION || !key.equals(input.readUTF())) {
+                    Logger.printDebug(() -> "Ignoring result cache file of different format or key: " + file.getName());
+                    return null;
+                }
+                final int timeSeconds = input.readInt();
+
+                Result result;
+                if (type == ResultType.SUBTITLES) {
+                    final int count = input.readInt();
+                    TreeMap<Long, Pair<Long, String>> subtitles = new TreeMap<>();
+                    for (int i = 0; i < count; i++) {
+                        final long startTime = input.readLong();
+                        final long endTime = input.readLong();
+                        subtitles.put(startTime, new Pair<>(endTime, readString(input)));
+                    }
+                    result = new Result(timeSeconds, null, subtitles);
+                } else {
+                    result = new Result(timeSeconds, readString(input), null);
+                }
+
+                // Least recently used results are deleted first.
+                //noinspection ResultOfMethodCallIgnored
+                file.setLastModified(System.currentTimeMillis());
+
+                Logger.printDebug(() -> "Loaded " + type + " from result cache: " + videoUrl);
+                return result;
+            } catch (IOException ex) {
+                Logger.printException(() -> "Failed to read result cache file: " + file.getName(), ex);
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Saves a summary or raw transcription.
+     */
+    void putText(@NonNull ResultType type, @NonNull String videoUrl, @NonNull String language,
+                 @NonNull String model, int timeSeconds, @NonNull String text) {
+        if (type == ResultType.SUBTITLES) {
+            throw new IllegalArgumentException("Subtitles are not text");
+        }
+        put(type, videoUrl, language, model, timeSeconds, output -> writeString(output, text));
+    }
+
+    /**
+     * Saves parsed subtitles.
+     */
+    void putSubtitles(@NonNull String videoUrl, @NonNull String language, @NonNull String model,
+                      int timeSeconds, @NonNull TreeMap<Long, Pair<Long, String>> subtitles) {
+        put(ResultType.SUBTITLES, videoUrl, language, model, timeSeconds, output -> {
+            output.writeInt(subtitles.size());
+            for (Map.Entry<Long, Pair<Long, String>> entry : subtitles.entrySet()) {
+                Pair<Long, String> value = entry.getValue();
+                output.writeLong(entry.getKey());
+                output.writeLong(value.first);
+                writeString(output, value.second == null ? "" : value.second);
+            }
+        });
+    }
+
+    private interface ContentWriter {
+        void write(DataOutputStream output) throws IOException;
+    }
+
+    private void put(@NonNull ResultType type, @NonNull String videoUrl, @NonNull String language,
+                     @NonNull String model, int timeSeconds, @NonNull ContentWriter contentWriter) {
+        final String key = getKey(type, videoUrl, language, model);
+        synchronized (lock) {
+            File file = getFile(key);
+            // Written to a temporary file first, so a partially written file is never read.
+            File temporaryFile = new File(directory, file.getName() + TEMPORARY_FILE_SUFFIX);
+
+            try {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Could not create directory: " + directory);
+                }
+
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                    output.writeInt(FORMAT_VERSION);
+                    output.writeUTF(key);
+                    output.writeInt(timeSeconds);
+                    contentWriter.write(output);
+                }
+
+                if (!temporaryFile.renameTo(file)) {
+                    throw new IOException("Could not rename file: " + temporaryFile.getName());
+                }
+                Logger.printDebug(() -> "Saved " + type + " to result cache: " + videoUrl);
+            } catch (IOException ex) {
+                Logger.printException(() -> "Failed to write result cache file: " + file.getName(), ex);
+                //noinspection ResultOfMethodCallIgnored
+                temporaryFile.delete();
+                return;
+            }
+
+            trimToMaxSize();
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the total size is not over the limit.
+     */
+    @GuardedBy("lock")
+    private void trimToMaxSize() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long totalSize = 0;
+        for (File file : files) {
+            totalSize += file.length();
+        }
+        if (totalSize <= maxSizeBytes) {
+            return;
+        }
+
+        // Sort by last used, oldest first. The time is read once, as it can change while sorting.
+        final long[] lastModified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(lastModified[a], lastModified[b]));
+
+        int deletedCount = 0;
+        for (Integer index : order) {
+            if (totalSize <= maxSizeBytes) {
+                break;
+            }
+            File file = files[index];
+            final long length = file.length();
+            if (file.delete()) {
+                totalSize -= length;
+                deletedCount++;
+            }
+        }
+
+        final int filesDeleted = deletedCount;
+        Logger.printDebug(() -> "Deleted " + filesDeleted + " least recently used result cache files");
+    }
+
+    /**
+     * Writes a string of any length, unlike {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
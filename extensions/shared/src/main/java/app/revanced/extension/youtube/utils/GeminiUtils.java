@@ -28,7 +28,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public class GeminiUtils {
     private static final ExecutorService executor = Executors.newSingleThreadExecutor();
     private static final String BASE_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/";
-    private static final String GEMINI_MODEL = "gemini-2.5-flash";
+    static final String GEMINI_MODEL = "gemini-2.5-flash";
     private static final String ACTION = ":generateContent?key=";
     private static final AtomicReference<Future<?>> currentTask = new AtomicReference<>(null);
     private static final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
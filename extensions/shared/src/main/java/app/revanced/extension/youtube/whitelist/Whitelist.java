@@ -22,12 +22,17 @@ import android.widget.LinearLayout;
 import android.widget.ScrollView;
 import android.widget.TextView;
 
+import androidx.annotation.Nullable;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import app.revanced.extension.shared.settings.StringSetting;
 import app.revanced.extension.shared.ui.CustomDialog;
 import app.revanced.extension.shared.utils.Logger;
 import app.revanced.extension.shared.utils.Utils;
@@ -37,7 +42,12 @@ import app.revanced.extension.youtube.shared.VideoInformation;
 import app.revanced.extension.youtube.utils.VideoUtils;
 
 public class Whitelist {
-    private static final Map<WhitelistType, ArrayList<VideoChannel>> whitelistMap = parseWhitelist();
+    private static final Map<WhitelistType, WhitelistedChannels> whitelistMap = parseWhitelist();
+
+    /**
+     * Separator of channel names and ids in the serialized whitelist.
+     */
+    private static final String SEPARATOR = "~";
 
     private static final WhitelistType whitelistTypePlaybackSpeed = WhitelistType.PLAYBACK_SPEED;
     private static final WhitelistType whitelistTypeSponsorBlock = WhitelistType.SPONSOR_BLOCK;
@@ -346,56 +356,133 @@ public class Whitelist {
         }
     }
 
+    /**
+     * Whitelisted channels of a whitelist type, by channel id.
+     * <p>
+     * Copy on write, so channels can be looked up on the playback path without locking,
+     * and the whitelist dialogs can iterate a snapshot while channels are added or removed.
+     */
+    private static final class WhitelistedChannels {
+        /**
+         * Setting the channels are saved to. Only modified while holding the lock of this instance,
+         * so concurrent changes are not lost.
+         */
+        private final StringSetting setting;
+
+        /**
+         * Unmodifiable, in the order the channels were added.
+         */
+        private volatile Map<String, VideoChannel> channels;
+
+        WhitelistedChannels(StringSetting setting, Map<String, VideoChannel> channels) {
+            this.setting = setting;
+            this.channels = Collections.unmodifiableMap(channels);
+        }
+
+        boolean contains(String channelId) {
+            return channels.containsKey(channelId);
+        }
+
+        Collection<VideoChannel> getChannels() {
+            return channels.values();
+        }
+
+        /**
+         * Adds the channel and appends it to the setting, instead of serializing all channels again.
+         *
+         * @return If the channel was added, or false if it was already whitelisted.
+         */
+        synchronized boolean add(VideoChannel channel) {
+            if (channels.containsKey(channel.getChannelId())) {
+                return false;
+            }
+            Map<String, VideoChannel> updated = new LinkedHashMap<>(channels);
+            updated.put(channel.getChannelId(), channel);
+            channels = Collections.unmodifiableMap(updated);
+
+            String serialized = setting.get();
+            String serializedChannel = channel.getChannelName() + SEPARATOR + channel.getChannelId();
+            setting.save(serialized.isEmpty()
+                    ? serializedChannel
+                    : serialized + SEPARATOR + serializedChannel);
+            return true;
+        }
+
+        /**
+         * Removes the channel and saves the remaining channels to the setting.
+         *
+         * @return The removed channel, or null if the channel was not whitelisted.
+         */
+        @Nullable
+        synchronized VideoChannel remove(String channelId) {
+            VideoChannel channel = channels.get(channelId);
+            if (channel != null) {
+                Map<String, VideoChannel> updated = new LinkedHashMap<>(channels);
+                updated.remove(channelId);
+                channels = Collections.unmodifiableMap(updated);
+
+                StringBuilder serialized = new StringBuilder();
+                for (VideoChannel remaining : updated.values()) {
+                    if (serialized.length() > 0) {
+                        serialized.append(SEPARATOR);
+                    }
+                    serialized.append(remaining.getChannelName()).append(SEPARATOR).append(remaining.getChannelId());
+                }
+                setting.save(serialized.toString());
+            }
+            return channel;
+        }
+    }
+
     /**
      * Parses the serialized whitelist data into a map of whitelist types and channels.
      */
-    private static Map<WhitelistType, ArrayList<VideoChannel>> parseWhitelist() {
+    private static Map<WhitelistType, WhitelistedChannels> parseWhitelist() {
         WhitelistType[] whitelistTypes = WhitelistType.values();
-        Map<WhitelistType, ArrayList<VideoChannel>> whitelistMap = new EnumMap<>(WhitelistType.class);
+        Map<WhitelistType, WhitelistedChannels> whitelistMap = new EnumMap<>(WhitelistType.class);
 
         for (WhitelistType whitelistType : whitelistTypes) {
-            String serializedChannels = whitelistType == WhitelistType.PLAYBACK_SPEED
-                    ? Settings.OVERLAY_BUTTON_WHITELIST_PLAYBACK_SPEED.get()
-                    : Settings.OVERLAY_BUTTON_WHITELIST_SPONSORBLOCK.get();
-            ArrayList<VideoChannel> channels = new ArrayList<>();
+            String serializedChannels = getSetting(whitelistType).get();
+            Map<String, VideoChannel> channels = new LinkedHashMap<>();
             if (!serializedChannels.isEmpty()) {
                 try {
-                    String[] parts = serializedChannels.split("~");
+                    String[] parts = serializedChannels.split(SEPARATOR);
                     for (int i = 0; i < parts.length - 1; i += 2) {
-                        channels.add(new VideoChannel(parts[i], parts[i + 1]));
+                        VideoChannel channel = new VideoChannel(parts[i], parts[i + 1]);
+                        channels.putIfAbsent(channel.getChannelId(), channel);
                     }
                 } catch (Exception ex) {
                     Logger.printException(() -> "parseWhitelist failure", ex);
                 }
             }
-            whitelistMap.put(whitelistType, channels);
+            whitelistMap.put(whitelistType, new WhitelistedChannels(getSetting(whitelistType), channels));
         }
         return whitelistMap;
     }
 
+    private static StringSetting getSetting(WhitelistType whitelistType) {
+        return whitelistType == WhitelistType.PLAYBACK_SPEED
+                ? Settings.OVERLAY_BUTTON_WHITELIST_PLAYBACK_SPEED
+                : Settings.OVERLAY_BUTTON_WHITELIST_SPONSORBLOCK;
+    }
+
     private static boolean isWhitelisted(WhitelistType whitelistType, String channelId) {
-        for (VideoChannel channel : getWhitelistedChannels(whitelistType)) {
-            if (channel.getChannelId().equals(channelId)) {
-                return true;
-            }
-        }
-        return false;
+        return whitelistMap.get(whitelistType).contains(channelId);
     }
 
     private static void addToWhitelist(WhitelistType whitelistType, String channelId, String channelName, Context context) {
         final VideoChannel channel = new VideoChannel(channelName, channelId);
-        ArrayList<VideoChannel> whitelisted = getWhitelistedChannels(whitelistType);
-        for (VideoChannel whitelistedChannel : whitelisted) {
-            if (whitelistedChannel.getChannelId().equals(channel.getChannelId()))
-                return;
-        }
-        whitelisted.add(channel);
         String friendlyName = whitelistType.getFriendlyName();
-        if (updateWhitelist(whitelistType, whitelisted)) {
-            showDialogOrToast(context, str("revanced_whitelist_added", channelName, friendlyName));
-        } else {
+        try {
+            if (!whitelistMap.get(whitelistType).add(channel)) {
+                return;
+            }
+        } catch (Exception ex) {
+            Logger.printException(() -> "addToWhitelist failure", ex);
             showToastShort(str("revanced_whitelist_add_failed", channelName, friendlyName));
+            return;
         }
+        showDialogOrToast(context, str("revanced_whitelist_added", channelName, friendlyName));
     }
 
     public static void removeFromWhitelist(WhitelistType whitelistType, String channelId) {
@@ -403,23 +490,19 @@ public class Whitelist {
     }
 
     public static void removeFromWhitelist(WhitelistType whitelistType, String channelId, Context context) {
-        ArrayList<VideoChannel> whitelisted = getWhitelistedChannels(whitelistType);
-        Iterator<VideoChannel> iterator = whitelisted.iterator();
-        String channelName = "";
-        while (iterator.hasNext()) {
-            VideoChannel channel = iterator.next();
-            if (channel.getChannelId().equals(channelId)) {
-                channelName = channel.getChannelName();
-                iterator.remove();
-                break;
-            }
-        }
         String friendlyName = whitelistType.getFriendlyName();
-        if (updateWhitelist(whitelistType, whitelisted)) {
-            showDialogOrToast(context, str("revanced_whitelist_removed", channelName, friendlyName));
-        } else {
-            showToastShort(str("revanced_whitelist_remove_failed", channelName, friendlyName));
+        final VideoChannel channel;
+        try {
+            channel = whitelistMap.get(whitelistType).remove(channelId);
+        } catch (Exception ex) {
+            Logger.printException(() -> "removeFromWhitelist failure", ex);
+            showToastShort(str("revanced_whitelist_remove_failed", "", friendlyName));
+            return;
         }
+        String channelName = channel == null
+                ? ""
+                : channel.getChannelName();
+        showDialogOrToast(context, str("revanced_whitelist_removed", channelName, friendlyName));
     }
 
     private static void showDialogOrToast(Context context, String message) {
@@ -446,30 +529,11 @@ public class Whitelist {
         dialogPair.first.show();
     }
 
-    private static boolean updateWhitelist(WhitelistType whitelistType, ArrayList<VideoChannel> channels) {
-        StringBuilder serialized = new StringBuilder();
-        for (VideoChannel channel : channels) {
-            if (serialized.length() > 0) {
-                serialized.append("~");
-            }
-            serialized.append(channel.getChannelName()).append("~").append(channel.getChannelId());
-        }
-        String serializedString = serialized.toString();
-        try {
-            if (whitelistType == WhitelistType.PLAYBACK_SPEED) {
-                Settings.OVERLAY_BUTTON_WHITELIST_PLAYBACK_SPEED.save(serializedString);
-            } else {
-                Settings.OVERLAY_BUTTON_WHITELIST_SPONSORBLOCK.save(serializedString);
-            }
-            return true;
-        } catch (Exception ex) {
-            Logger.printException(() -> "updateWhitelist failure", ex);
-            return false;
-        }
-    }
-
+    /**
+     * @return A snapshot of the whitelisted channels, in the order they were added.
+     */
     public static ArrayList<VideoChannel> getWhitelistedChannels(WhitelistType whitelistType) {
-        return whitelistMap.get(whitelistType);
+        return new ArrayList<>(whitelistMap.get(whitelistType).getChannels());
     }
 
     public enum WhitelistType {
@@ -23,6 +23,21 @@ internal object JSInterpret {
         }
     }
 
+    /**
+     * Same as [extractFunctionFromCode], but the function is compiled only once
+     * into the persistent V8 context under [funcName] and then invoked by name.
+     */
+    fun compileFunctionFromCode(funcName: String, argNames: List<String>, code: String): (List<String>) -> String? {
+        V8Runtime.instance().registerFunction(funcName, argNames, code)
+
+        return { args: List<String> ->
+            val runtime = V8Runtime.instance()
+            // Runtime may have been released in the meantime.
+            runtime.registerFunction(funcName, argNames, code)
+            runtime.callFunction(funcName, args)
+        }
+    }
+
     /**
      * yt_dlp.jsinterp.JSInterpreter.extract_function_code
      *
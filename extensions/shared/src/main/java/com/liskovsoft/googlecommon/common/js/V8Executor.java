@@ -0,0 +1,385 @@
+package com.liskovsoft.googlecommon.common.js;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.eclipsesource.v8.V8;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import app.revanced.extension.shared.utils.Logger;
+
+/**
+ * Executes all J2V8 scripts on one dedicated thread.
+ * <p>
+ * J2V8 binds a runtime to the thread that holds its locker, so calling it from the Cronet thread,
+ * the background pool and {@link CompletableFuture#runAsync} requires acquiring and releasing the locker
+ * around every script ('Invalid V8 thread access' otherwise).
+ * Instead, all work is queued as jobs and executed on one dedicated thread that creates and keeps the isolates.
+ * Jobs that are queued while another job is running are drained and executed together as one batch.
+ * <p>
+ * A job either runs in a new isolate that is released after the job ({@link #executeInNewRuntime(V8Job)}),
+ * or in the persistent isolate of an owner ({@link #execute(String, V8Job)}).
+ * Persistent isolates are not shared between owners, so releasing one owner does not affect the others.
+ */
+public final class V8Executor {
+
+    public interface V8Job<T> {
+        /**
+         * @param runtime Isolate of the job. Null only for jobs of the executor that do not need an isolate.
+         */
+        T run(V8 runtime) throws Exception;
+    }
+
+    private static final class QueuedJob<T> {
+        final V8Job<T> job;
+        /**
+         * Owner of the persistent isolate the job runs in, or null to run in a new isolate.
+         */
+        @Nullable
+        final String owner;
+        /**
+         * If the job uses an isolate. Jobs of the executor itself, such as releasing an isolate, do not.
+         */
+        final boolean needsRuntime;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long queuedTimeNanos = System.nanoTime();
+        /**
+         * If the job was terminated because the caller timed out.
+         */
+        @GuardedBy("runningJobLock")
+        boolean terminated;
+
+        QueuedJob(V8Job<T> job, @Nullable String owner) {
+            this(job, owner, true);
+        }
+
+        QueuedJob(V8Job<T> job, @Nullable String owner, boolean needsRuntime) {
+            this.job = job;
+            this.owner = owner;
+            this.needsRuntime = needsRuntime;
+        }
+    }
+
+    /**
+     * Maximum number of jobs that are executed in a single batch.
+     */
+    private static final int MAX_BATCH_SIZE = 32;
+
+    /**
+     * Maximum time a caller waits for a job, including the time the job is queued.
+     * A job still executing after this time is terminated.
+     */
+    private static final long MAX_MILLISECONDS_TO_WAIT_FOR_JOB = 30 * 1000L; // 30 seconds
+
+    private static final V8Executor INSTANCE = new V8Executor();
+
+    public static V8Executor instance() {
+        return INSTANCE;
+    }
+
+    private final LinkedBlockingQueue<QueuedJob<?>> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Persistent isolates by owner. Can only be accessed from {@link #workerThread}.
+     */
+    private final Map<String, V8> runtimes = new HashMap<>();
+
+    private final Object runningJobLock = new Object();
+
+    /**
+     * Job that is executing, and the isolate it is executing in.
+     */
+    @GuardedBy("runningJobLock")
+    @Nullable
+    private QueuedJob<?> runningJob;
+    @GuardedBy("runningJobLock")
+    @Nullable
+    private V8 runningRuntime;
+
+    @Nullable
+    private volatile Thread workerThread;
+
+    // Statistics. Written only by the worker thread.
+    private volatile long runtimesCreated;
+    private volatile long jobsExecuted;
+    private volatile long jobsFailed;
+    private volatile long jobsTerminated;
+    private volatile long batchesExecuted;
+    private volatile int maxBatchSize;
+    private volatile long totalWaitNanos;
+    private volatile long totalExecutionNanos;
+
+    private V8Executor() {
+    }
+
+    /**
+     * Queues a job on the V8 thread, using the persistent isolate of the owner.
+     */
+    public <T> CompletableFuture<T> submit(@NonNull String owner, @NonNull V8Job<T> job) {
+        return submitJob(new QueuedJob<>(job, owner)).future;
+    }
+
+    private <T> QueuedJob<T> submitJob(QueuedJob<T> queuedJob) {
+        queue.add(queuedJob);
+        startWorkerIfNeeded();
+        return queuedJob;
+    }
+
+    /**
+     * Runs a job in the persistent isolate of the owner and waits for the result.
+     * Globals defined by the job are kept for later jobs of the same owner,
+     * until the owner is released with {@link #release(String)}.
+     *
+     * @see #executeInNewRuntime(V8Job)
+     */
+    public <T> T execute(@NonNull String owner, @NonNull V8Job<T> job) {
+        return executeJob(new QueuedJob<>(job, owner));
+    }
+
+    /**
+     * Runs a job in a new isolate and waits for the result.
+     * The isolate is released after the job, so nothing defined by the job is visible to other jobs.
+     */
+    public <T> T executeInNewRuntime(@NonNull V8Job<T> job) {
+        return executeJob(new QueuedJob<>(job, null));
+    }
+
+    /**
+     * If called from the V8 thread itself, the job is executed immediately.
+     * Runtime exceptions thrown by the job (such as {@link com.eclipsesource.v8.V8ScriptExecutionException})
+     * are rethrown as is.
+     * If the job does not complete in {@link #MAX_MILLISECONDS_TO_WAIT_FOR_JOB}, it is terminated
+     * and a {@link RuntimeException} is thrown.
+     */
+    private <T> T executeJob(QueuedJob<T> queuedJob) {
+        if (Thread.currentThread() == workerThread) {
+            runJob(queuedJob);
+        } else {
+            submitJob(queuedJob);
+        }
+
+        try {
+            return queuedJob.future.get(MAX_MILLISECONDS_TO_WAIT_FOR_JOB, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(cause);
+        } catch (TimeoutException ex) {
+            terminate(queuedJob);
+            throw new RuntimeException("V8 job timed out", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Terminates the job if it is executing, or removes the job if it is still queued.
+     */
+    private void terminate(QueuedJob<?> queuedJob) {
+        queuedJob.future.cancel(false);
+
+        synchronized (runningJobLock) {
+            if (runningJob == queuedJob && runningRuntime != null) {
+                Logger.printInfo(() -> "Terminating V8 job that did not complete in time");
+                queuedJob.terminated = true;
+                runningRuntime.terminateExecution();
+            }
+        }
+    }
+
+    /**
+     * Releases the persistent isolate of the owner.
+     * A new isolate is created on the next job of the owner.
+     */
+    public void release(@NonNull String owner) {
+        submitJob(new QueuedJob<>(unused -> {
+            releaseRuntime(owner);
+            return null;
+        }, null, false));
+    }
+
+    /**
+     * Asks V8 to free as much memory as possible in the isolate of the owner.
+     * Useful after a large script, such as the player, was compiled.
+     */
+    public void lowMemoryNotification(@NonNull String owner) {
+        submit(owner, runtime -> {
+            runtime.lowMemoryNotification();
+            return null;
+        });
+    }
+
+    /**
+     * @return Summary of the queue and the time spent waiting and executing.
+     */
+    public String getExecutionStatistics() {
+        final long executed = jobsExecuted;
+        final long batches = batchesExecuted;
+
+        return "V8Executor{"
+                + "runtimesCreated=" + runtimesCreated
+                + ", jobsExecuted=" + executed
+                + ", jobsFailed=" + jobsFailed
+                + ", jobsTerminated=" + jobsTerminated
+                + ", queued=" + queue.size()
+                + ", batches=" + batches
+                + ", avgBatchSize=" + (batches == 0 ? 0 : (float) executed / batches)
+                + ", maxBatchSize=" + maxBatchSize
+                + ", avgWaitMs=" + (executed == 0 ? 0 : totalWaitNanos / executed / 1_000_000.0)
+                + ", avgExecutionMs=" + (executed == 0 ? 0 : totalExecutionNanos / executed / 1_000_000.0)
+                + "}";
+    }
+
+    /**
+     * Logs {@link #getExecutionStatistics()}, and the number of isolates and J2V8 object handles that are kept.
+     */
+    public void logExecutionStatistics() {
+        submitJob(new QueuedJob<>(unused -> {
+            final String statistics = getExecutionStatistics();
+            final int persistentRuntimes = runtimes.size();
+            int references = 0;
+            for (V8 runtime : runtimes.values()) {
+                references += runtime.getObjectReferenceCount();
+            }
+            final int objectReferences = references;
+            Logger.printDebug(() -> statistics + ", persistentRuntimes: " + persistentRuntimes
+                    + ", v8ObjectReferences: " + objectReferences);
+            return null;
+        }, null, false));
+    }
+
+    private synchronized void startWorkerIfNeeded() {
+        if (workerThread != null) {
+            return;
+        }
+
+        Thread thread = new Thread(this::workerLoop, "revanced-v8");
+        thread.setDaemon(true);
+        workerThread = thread;
+        thread.start();
+    }
+
+    private void workerLoop() {
+        final List<QueuedJob<?>> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                Logger.printDebug(() -> "V8Executor interrupted", ex);
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+            for (QueuedJob<?> queuedJob : batch) {
+                runJob(queuedJob);
+            }
+
+            final int batchSize = batch.size();
+            batchesExecuted++;
+            if (batchSize > maxBatchSize) {
+                maxBatchSize = batchSize;
+            }
+            batch.clear();
+        }
+
+        for (String owner : new ArrayList<>(runtimes.keySet())) {
+            releaseRuntime(owner);
+        }
+        synchronized (this) {
+            workerThread = null;
+        }
+    }
+
+    private <T> void runJob(QueuedJob<T> queuedJob) {
+        if (queuedJob.future.isDone()) {
+            return; // Caller timed out while the job was queued.
+        }
+
+        final long startTime = System.nanoTime();
+        totalWaitNanos += startTime - queuedJob.queuedTimeNanos;
+
+        final String owner = queuedJob.owner;
+        V8 runtime = null;
+        try {
+            if (queuedJob.needsRuntime) {
+                runtime = owner == null
+                        ? createRuntime()
+                        : getRuntime(owner);
+            }
+            synchronized (runningJobLock) {
+                runningJob = queuedJob;
+                runningRuntime = runtime;
+            }
+
+            queuedJob.future.complete(queuedJob.job.run(runtime));
+        } catch (Throwable ex) {
+            jobsFailed++;
+            queuedJob.future.completeExceptionally(ex);
+        } finally {
+            final boolean terminated;
+            synchronized (runningJobLock) {
+                terminated = queuedJob.terminated;
+                runningJob = null;
+                runningRuntime = null;
+            }
+
+            if (owner == null) {
+                releaseRuntime(runtime); // Null if the job did not need a runtime.
+            } else if (terminated) {
+                // Script state is unknown after termination.
+                jobsTerminated++;
+                releaseRuntime(owner);
+            }
+
+            totalExecutionNanos += System.nanoTime() - startTime;
+            jobsExecuted++;
+        }
+    }
+
+    private V8 createRuntime() {
+        runtimesCreated++;
+        return V8.createV8Runtime();
+    }
+
+    private V8 getRuntime(String owner) {
+        V8 runtime = runtimes.get(owner);
+        if (runtime == null || runtime.isReleased()) {
+            runtime = createRuntime();
+            runtimes.put(owner, runtime);
+        }
+        return runtime;
+    }
+
+    private void releaseRuntime(String owner) {
+        releaseRuntime(runtimes.remove(owner));
+    }
+
+    private static void releaseRuntime(@Nullable V8 runtime) {
+        if (runtime != null) {
+            try {
+                if (!runtime.isReleased()) {
+                    runtime.release(false);
+                }
+            } catch (Exception ex) {
+                Logger.printDebug(() -> "releaseRuntime failed", ex);
+            }
+        }
+    }
+}
@@ -3,16 +3,35 @@ package com.liskovsoft.googlecommon.common.js;
 import androidx.annotation.Nullable;
 
 import com.eclipsesource.v8.V8;
+import com.eclipsesource.v8.V8Array;
 import com.eclipsesource.v8.V8ResultUndefined;
 import com.eclipsesource.v8.V8ScriptExecutionException;
+import com.eclipsesource.v8.V8Value;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import app.revanced.extension.shared.utils.Logger;
 
+/**
+ * All scripts are executed on the thread of {@link V8Executor},
+ * so this class can be used from any thread.
+ * <p>
+ * Each evaluated script runs in a new isolate, so scripts cannot see each other's globals.
+ * Only functions registered with {@link #registerFunction} are kept, in an isolate of their own.
+ */
 public final class V8Runtime {
+    /**
+     * Owner of the {@link V8Executor} isolate that holds the registered functions.
+     */
+    private static final String FUNCTIONS_RUNTIME_OWNER = "V8Runtime";
     private static V8Runtime sInstance;
-    private V8 mRuntime;
+    /**
+     * Function name -> script that defines the function.
+     * Functions are defined again if the isolate was recreated in the meantime.
+     */
+    private final Map<String, String> mFunctionDefinitions = new ConcurrentHashMap<>();
 
     //static {
     //    // Fix? J2V8 native library not loaded (j2v8-android-arm_32/j2v8-android-arm_32)
@@ -31,10 +50,9 @@ public final class V8Runtime {
     }
 
     public static void unhold() {
-        // NOTE: using 'release' produces 'Invalid V8 thread access: the locker has been released!'
-        //if (sInstance != null) {
-        //    sInstance.mRuntime.release();
-        //}
+        if (sInstance != null) {
+            sInstance.releaseFunctions();
+        }
 
         sInstance = null;
     }
@@ -42,7 +60,7 @@ public final class V8Runtime {
     @Nullable
     public String evaluate(final String source) {
         try {
-            return evaluateSafe(source);
+            return evaluateWithErrors(source);
         } catch (V8ScriptExecutionException e) {
             Logger.printException(() -> "evaluate(String) failed", e);
         }
@@ -52,13 +70,13 @@ public final class V8Runtime {
 
     @Nullable
     public String evaluateWithErrors(final String source) throws V8ScriptExecutionException {
-        return evaluateSafe(source);
+        return V8Executor.instance().executeInNewRuntime(runtime -> runtime.executeStringScript(source));
     }
 
     @Nullable
     public String evaluate(final List<String> sources) {
         try {
-            return evaluateSafe(sources);
+            return evaluateWithErrors(sources);
         } catch (V8ScriptExecutionException e) {
             Logger.printException(() -> "evaluate(List) failed", e);
         }
@@ -68,73 +86,88 @@ public final class V8Runtime {
 
     @Nullable
     public String evaluateWithErrors(final List<String> sources) throws V8ScriptExecutionException {
-        return evaluateSafe(sources);
+        return V8Executor.instance().executeInNewRuntime(runtime -> {
+            String result = null;
+            for (String source : sources) {
+                try {
+                    result = runtime.executeStringScript(source);
+                } catch (V8ResultUndefined e) {
+                    // NOP
+                }
+            }
+            return result;
+        });
     }
 
     /**
-     * Not a thread safe. Possible 'Invalid V8 thread access' errors.
+     * Compiles the function once into the persistent runtime as a global function.
+     * Registering the same name again is a no-op.
+     *
+     * @param name     Global function name, must be a valid JavaScript identifier.
+     * @param argNames Function argument names.
+     * @param code     Function body.
      */
-    private String evaluateUnsafe(final String source) throws V8ScriptExecutionException {
-        String result = null;
-
-        try {
-            if (mRuntime == null) {
-                mRuntime = V8.createV8Runtime();
-            }
-            mRuntime.getLocker().acquire(); // Possible 'Invalid V8 thread access' errors
-            result = mRuntime.executeStringScript(source);
-        } finally {
-            if (mRuntime != null) {
-                mRuntime.getLocker().release(); // Possible 'Invalid V8 thread access' errors
-            }
+    public void registerFunction(final String name, final List<String> argNames, final String code)
+            throws V8ScriptExecutionException {
+        if (mFunctionDefinitions.containsKey(name)) {
+            return;
         }
 
-        return result;
+        final String definition = "var " + name + " = function (" + String.join(",", argNames) + ") { " + code + " };";
+        V8Executor.instance().execute(FUNCTIONS_RUNTIME_OWNER, runtime -> {
+            runtime.executeVoidScript(definition);
+            return null;
+        });
+        mFunctionDefinitions.put(name, definition);
     }
 
     /**
-     * Thread safe solution but performance a bit slow.
+     * Calls a function previously registered with {@link #registerFunction}.
      */
-    private String evaluateSafe(final String source) throws V8ScriptExecutionException {
-        V8 runtime = null;
-        String result;
-
-        try {
-            runtime = V8.createV8Runtime();
-            result = runtime.executeStringScript(source);
-        } finally {
-            if (runtime != null) {
-                runtime.release(false);
-                runtime.close();
-            }
-        }
+    @Nullable
+    public String callFunction(final String name, final List<String> args)
+            throws V8ScriptExecutionException {
+        final String definition = getDefinition(name);
 
-        return result;
+        return V8Executor.instance().execute(FUNCTIONS_RUNTIME_OWNER, runtime -> callFunction(runtime, name, definition, args));
     }
 
     /**
-     * Thread safe solution but performance a bit slow.
+     * Releases the isolate of all registered functions.
+     * Functions must be registered again before they can be called.
      */
-    private String evaluateSafe(final List<String> sources) throws V8ScriptExecutionException {
-        V8 runtime = null;
-        String result = null;
+    public void releaseFunctions() {
+        if (mFunctionDefinitions.isEmpty()) {
+            return;
+        }
+
+        mFunctionDefinitions.clear();
+        V8Executor.instance().release(FUNCTIONS_RUNTIME_OWNER);
+    }
+
+    private String getDefinition(final String name) {
+        final String definition = mFunctionDefinitions.get(name);
+        if (definition == null) {
+            throw new IllegalStateException("Function not registered: " + name);
+        }
+        return definition;
+    }
+
+    @Nullable
+    private static String callFunction(final V8 runtime, final String name, final String definition, final List<String> args) {
+        if (runtime.getType(name) == V8Value.UNDEFINED) {
+            // Isolate was recreated.
+            runtime.executeVoidScript(definition);
+        }
 
+        V8Array parameters = new V8Array(runtime);
         try {
-            runtime = V8.createV8Runtime();
-            for (String source : sources) {
-                try {
-                    result = runtime.executeStringScript(source);
-                } catch (V8ResultUndefined e) {
-                    // NOP
-                }
+            for (String arg : args) {
+                parameters.push(arg);
             }
+            return runtime.executeStringFunction(name, parameters);
         } finally {
-            if (runtime != null) {
-                runtime.release(false);
-                runtime.close();
-            }
+            parameters.close();
         }
-
-        return result;
     }
 }
@@ -1,7 +1,8 @@
 package com.liskovsoft.youtubeapi.app.nsigsolver.impl
 
-import com.eclipsesource.v8.V8
 import com.eclipsesource.v8.V8ScriptExecutionException
+import com.eclipsesource.v8.V8Value
+import com.liskovsoft.googlecommon.common.js.V8Executor
 import com.liskovsoft.youtubeapi.app.nsigsolver.common.loadScript
 import com.liskovsoft.youtubeapi.app.nsigsolver.provider.JsChallengeProviderError
 import com.liskovsoft.youtubeapi.app.nsigsolver.runtime.JsRuntimeChalBaseJCP
@@ -16,7 +17,12 @@ internal object V8ChallengeProvider : JsRuntimeChalBaseJCP() {
         "${libPrefix}meriyah.bundle.min.js",
         "${libPrefix}astring.bundle.min.js"
     )
-    private var v8Runtime: V8? = null
+    /**
+     * Set once the solver scripts are loaded into the isolate of [RUNTIME_OWNER].
+     * [runV8] loads them again if the isolate was recreated in the meantime.
+     */
+    @Volatile
+    private var warmedUp = false
 
     override fun iterScriptSources(): Sequence<Pair<ScriptSource, (ScriptType) -> Script?>> =
         sequence {
@@ -43,28 +49,34 @@ internal object V8ChallengeProvider : JsRuntimeChalBaseJCP() {
 
     private fun runV8(stdin: String): String {
         try {
-            v8Runtime?.locker?.acquire()
-            return v8Runtime?.executeStringScript(stdin)
-                ?: throw JsChallengeProviderError("V8 runtime error: empty response")
+            return V8Executor.instance().execute(RUNTIME_OWNER) { runtime ->
+                if (runtime.getType(SOLVER_FUNCTION_NAME) == V8Value.UNDEFINED) {
+                    // Isolate was recreated since the warmup.
+                    runtime.executeVoidScript(constructCommonStdin())
+                }
+                runtime.executeStringScript(stdin)
+            } ?: throw JsChallengeProviderError("V8 runtime error: empty response")
         } catch (e: V8ScriptExecutionException) {
             throw JsChallengeProviderError("V8 runtime error", e)
-        } finally {
-            try {
-                v8Runtime?.locker?.release()
-            } catch (_: Exception) {
-            }
         }
     }
 
     fun warmup() {
-        if (v8Runtime == null) {
-            v8Runtime = V8.createV8Runtime()
-            runV8(constructCommonStdin()) // ignore result, just warm up
+        if (!warmedUp) {
+            runV8("\"\";") // loads the solver scripts, ignore result, just warm up
+            warmedUp = true
         }
     }
 
     fun shutdown() {
-        v8Runtime?.release(false)
-        v8Runtime = null
+        warmedUp = false
+        V8Executor.instance().release(RUNTIME_OWNER)
     }
+
+    private const val SOLVER_FUNCTION_NAME = "jsc"
+
+    /**
+     * Owner of the [V8Executor] isolate that holds the solver scripts.
+     */
+    private const val RUNTIME_OWNER = "V8ChallengeProvider"
 }
\ No newline at end of file
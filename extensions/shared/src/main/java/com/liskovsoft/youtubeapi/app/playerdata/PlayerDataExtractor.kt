@@ -3,6 +3,7 @@ package com.liskovsoft.youtubeapi.app.playerdata
 import app.revanced.extension.shared.utils.Logger
 import com.eclipsesource.v8.V8ScriptExecutionException
 import com.liskovsoft.googlecommon.common.js.JSInterpret
+import com.liskovsoft.googlecommon.common.js.V8Runtime
 import com.liskovsoft.youtubeapi.app.nsigsolver.impl.V8ChallengeProvider
 import com.liskovsoft.youtubeapi.app.nsigsolver.provider.ChallengeInput
 import com.liskovsoft.youtubeapi.app.nsigsolver.provider.JsChallengeRequest
@@ -12,7 +13,23 @@ internal class PlayerDataExtractor(val playerJS: String, val ejs: Boolean) {
     private var mNFuncCode: Pair<List<String>, String>? = null
     private var mSigFuncCode: Pair<List<String>, String>? = null
 
-    private var nSigTmp: Pair<String, String?>? = null
+    /**
+     * Functions are compiled once per player version, so the name is derived from the player.
+     */
+    private val playerId = Integer.toHexString(playerJS.hashCode())
+    private val nFuncName = "nSigFunc_$playerId"
+    private val sigFuncName = "sigFunc_$playerId"
+    private var mNFunc: ((List<String>) -> String?)? = null
+    private var mSigFunc: ((List<String>) -> String?)? = null
+
+    /**
+     * Streaming urls of the same video and of recently played videos share the same 'n' parameter.
+     */
+    private val nSigCache = object : LinkedHashMap<String, String>(NSIG_CACHE_SIZE, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, String>?): Boolean {
+            return size > NSIG_CACHE_SIZE
+        }
+    }
     private var initialized: Boolean = false
 
     init {
@@ -21,6 +38,8 @@ internal class PlayerDataExtractor(val playerJS: String, val ejs: Boolean) {
 
             if (ejs) {
                 V8ChallengeProvider.setPlayerJS(playerJS)
+            } else {
+                releasePreviousPlayerFunctions(playerId)
             }
 
             fetchAllData()
@@ -29,11 +48,17 @@ internal class PlayerDataExtractor(val playerJS: String, val ejs: Boolean) {
     }
 
     fun extractNSig(nParam: String): String? {
-        if (nSigTmp?.first == nParam) return nSigTmp?.second
+        synchronized(nSigCache) {
+            nSigCache[nParam]?.let { return it }
+        }
 
         val nSig = extractNSigReal(nParam)
 
-        nSigTmp = Pair(nParam, nSig)
+        if (nSig != null) {
+            synchronized(nSigCache) {
+                nSigCache[nParam] = nSig
+            }
+        }
 
         return nSig
     }
@@ -49,7 +74,9 @@ internal class PlayerDataExtractor(val playerJS: String, val ejs: Boolean) {
         } else {
             val funcCode = mSigFuncCode ?: return null
 
-            val func = JSInterpret.extractFunctionFromCode(funcCode.first, funcCode.second)
+            val func = mSigFunc
+                ?: JSInterpret.compileFunctionFromCode(sigFuncName, funcCode.first, funcCode.second)
+                    .also { mSigFunc = it }
 
             return func(listOf(sParam))
         }
@@ -65,7 +92,9 @@ internal class PlayerDataExtractor(val playerJS: String, val ejs: Boolean) {
         } else {
             val funcCode = mNFuncCode ?: return null
 
-            val func = JSInterpret.extractFunctionFromCode(funcCode.first, funcCode.second)
+            val func = mNFunc
+                ?: JSInterpret.compileFunctionFromCode(nFuncName, funcCode.first, funcCode.second)
+                    .also { mNFunc = it }
 
             return func(listOf(nParam))
         }
@@ -133,4 +162,27 @@ internal class PlayerDataExtractor(val playerJS: String, val ejs: Boolean) {
             }
         }
     }
-}
\ No newline at end of file
+
+    private companion object {
+        private const val NSIG_CACHE_SIZE = 50
+
+        /**
+         * Player of the functions that are registered in [V8Runtime].
+         */
+        private var registeredPlayerId: String? = null
+
+        /**
+         * Functions are registered per player version. Releases the functions of the previous player
+         * when a new player is used, so functions of old players are not kept until the app is closed.
+         */
+        @Synchronized
+        private fun releasePreviousPlayerFunctions(playerId: String) {
+            val previousPlayerId = registeredPlayerId
+            registeredPlayerId = playerId
+            if (previousPlayerId != null && previousPlayerId != playerId) {
+                Logger.printDebug { "Releasing functions of previous player: $previousPlayerId" }
+                V8Runtime.instance().releaseFunctions()
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package app.revanced.extension.shared.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TrieSearchTest {
+
+    private static final int RANDOM_ITERATIONS = 200;
+    private static final int SEARCHES_PER_ITERATION = 50;
+
+    /**
+     * Small alphabet, so patterns share prefixes and collide in the children tables.
+     */
+    private static final String ALPHABET = "abcdefgh|./_";
+
+    /**
+     * Alphabet with characters outside of ASCII, which are not in the direct lookup table of the root node.
+     * As UTF-8 bytes, these are also negative byte values.
+     */
+    private static final String NON_ASCII_ALPHABET = "abc|\u00e9\u00fc\u0100\u4e2d";
+
+    /**
+     * Callback that records each match into the list passed as the callback parameter.
+     * Some matches halt the search, so the order the callbacks are called in is also verified.
+     */
+    private static TrieSearch.TriePatternMatchedCallback<String> recordingCallback(int patternId) {
+        return (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+            //noinspection unchecked
+            List<String> matches = (List<String>) callbackParameter;
+            matches.add(patternId + "@" + matchedStartIndex + ":" + matchedLength);
+            return (patternId + matchedStartIndex) % 7 == 0;
+        };
+    }
+
+    private static String randomText(Random random, int maxLength) {
+        return randomText(random, maxLength, ALPHABET);
+    }
+
+    private static String randomText(Random random, int maxLength, String alphabet) {
+        final int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static List<String> randomPatterns(Random random) {
+        return randomPatterns(random, ALPHABET);
+    }
+
+    private static List<String> randomPatterns(Random random, String alphabet) {
+        final int count = 1 + random.nextInt(60);
+        List<String> patterns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (!patterns.isEmpty() && random.nextInt(8) == 0) {
+                // Duplicate patterns must call their callbacks in order of insertion.
+                patterns.add(patterns.get(random.nextInt(patterns.size())));
+            } else {
+                patterns.add(randomText(random, 10, alphabet));
+            }
+        }
+        return patterns;
+    }
+
+    private static List<TrieSearch.TriePatternMatchedCallback<String>> callbacks(int count) {
+        List<TrieSearch.TriePatternMatchedCallback<String>> callbacks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Some patterns always match without a callback.
+            callbacks.add(i % 11 == 10 ? null : recordingCallback(i));
+        }
+        return callbacks;
+    }
+
+    private static void assertSameSearchResults(String message, Random random,
+                                                StringTrieSearch expected, StringTrieSearch actual) {
+        for (int i = 0; i < SEARCHES_PER_ITERATION; i++) {
+            String text = randomText(random, 40);
+            List<String> expectedMatches = new ArrayList<>();
+            List<String> actualMatches = new ArrayList<>();
+
+            final boolean expectedResult = expected.matches(text, expectedMatches);
+            final boolean actualResult = actual.matches(text, actualMatches);
+
+            assertEquals(message + " result of: " + text, expectedResult, actualResult);
+            assertEquals(message + " callbacks of: " + text, expectedMatches, actualMatches);
+        }
+    }
+
+    /**
+     * Building a tree from a list in a single pass must give the same results
+     * and the same callback order as adding the patterns one by one.
+     */
+    @Test
+    public void addPatternsListMatchesAddingOneByOne() {
+        Random random = new Random(32);
+
+        for (int iteration = 0; iteration < RANDOM_ITERATIONS; iteration++) {
+            List<String> patterns = randomPatterns(random);
+            List<TrieSearch.TriePatternMatchedCallback<String>> callbacks = callbacks(patterns.size());
+
+            StringTrieSearch oneByOne = new StringTrieSearch();
+            for (int i = 0; i < patterns.size(); i++) {
+                TrieSearch.TriePatternMatchedCallback<String> callback = callbacks.get(i);
+                if (callback == null) {
+                    oneByOne.addPattern(patterns.get(i));
+                } else {
+                    oneByOne.addPattern(patterns.get(i), callback);
+                }
+            }
+
+            StringTrieSearch singlePass = new StringTrieSearch();
+            singlePass.addPatterns(patterns, callbacks);
+
+            assertEquals(oneByOne.numberOfPatterns(), singlePass.numberOfPatterns());
+            assertSameSearchResults("Iteration " + iteration, random, oneByOne, singlePass);
+        }
+    }
+
+    /**
+     * Patterns added to a tree that was already built and searched
+     * must give the same results as a tree built with all patterns at once.
+     */
+    @Test
+    public void addPatternsAfterSearching() {
+        Random random = new Random(320);
+
+        for (int iteration = 0; iteration < RANDOM_ITERATIONS; iteration++) {
+            List<String> patterns = randomPatterns(random);
+            List<TrieSearch.TriePatternMatchedCallback<String>> callbacks = callbacks(patterns.size());
+            final int split = random.nextInt(patterns.size() + 1);
+
+            StringTrieSearch incremental = new StringTrieSearch();
+            incremental.addPatterns(patterns.subList(0, split), callbacks.subList(0, split));
+            incremental.matches(randomText(random, 40), new ArrayList<String>());
+            incremental.addPatterns(patterns.subList(split, patterns.size()),
+                    callbacks.subList(split, callbacks.size()));
+
+            StringTrieSearch singlePass = new StringTrieSearch();
+            singlePass.addPatterns(patterns, callbacks);
+
+            assertSameSearchResults("Iteration " + iteration, random, singlePass, incremental);
+        }
+    }
+
+    /**
+     * Reference search that compares every pattern at every index, without a tree.
+     *
+     * @return All matches, as pattern index, start index and length.
+     */
+    private static Set<String> referenceMatches(List<byte[]> patterns, byte[] text) {
+        Set<String> matches = new HashSet<>();
+        for (int start = 0; start < text.length; start++) {
+            for (int patternId = 0; patternId < patterns.size(); patternId++) {
+                byte[] pattern = patterns.get(patternId);
+                if (pattern.length == 0 || start + pattern.length > text.length) {
+                    continue;
+                }
+                boolean matched = true;
+                for (int i = 0; i < pattern.length; i++) {
+                    if (text[start + i] != pattern[i]) {
+                        matched = false;
+                        break;
+                    }
+                }
+                if (matched) {
+                    matches.add(patternId + "@" + start + ":" + pattern.length);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Searching the compact layout of the tree must find exactly the same matches as comparing
+     * every pattern at every index, as the node graph did before it was replaced by the compact layout.
+     * Uses byte patterns with non-ASCII characters, so both the direct and the hashed root lookup are used.
+     */
+    @Test
+    public void compactTrieMatchesReferenceSearch() {
+        Random random = new Random(33);
+
+        for (int iteration = 0; iteration < RANDOM_ITERATIONS; iteration++) {
+            String alphabet = iteration % 2 == 0 ? ALPHABET : NON_ASCII_ALPHABET;
+            List<byte[]> patterns = new ArrayList<>();
+            for (String pattern : randomPatterns(random, alphabet)) {
+                patterns.add(pattern.getBytes(StandardCharsets.UTF_8));
+            }
+
+            // Callbacks never halt, so every match is reported.
+            ByteTrieSearch search = new ByteTrieSearch();
+            for (int i = 0; i < patterns.size(); i++) {
+                final int patternId = i;
+                search.addPattern(patterns.get(i), (textSearched, matchedStartIndex, matchedLength, callbackParameter) -> {
+                    //noinspection unchecked
+                    Set<String> matches = (Set<String>) callbackParameter;
+                    assertTrue("Duplicate match", matches.add(patternId + "@" + matchedStartIndex + ":" + matchedLength));
+                    return false;
+                });
+            }
+
+            for (int i = 0; i < SEARCHES_PER_ITERATION; i++) {
+                byte[] text = randomText(random, 40, alphabet).getBytes(StandardCharsets.UTF_8);
+                Set<String> matches = new HashSet<>();
+                search.matches(text, matches);
+
+                assertEquals("Iteration " + iteration + " matches of: " + new String(text, StandardCharsets.UTF_8),
+                        referenceMatches(patterns, text), matches);
+            }
+        }
+    }
+
+    /**
+     * A tree with a single pattern has a leaf on the root node, which is searched without the root lookup.
+     */
+    @Test
+    public void singlePatternTree() {
+        StringTrieSearch search = new StringTrieSearch("\u00e9t\u00e9");
+
+        assertTrue(search.matches("l'\u00e9t\u00e9"));
+        assertFalse(search.matches("\u00e9t"));
+        assertFalse(search.matches(""));
+    }
+}
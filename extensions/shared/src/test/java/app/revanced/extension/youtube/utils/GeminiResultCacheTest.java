@@ -0,0 +1,225 @@
+package app.revanced.extension.youtube.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Pair;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import app.revanced.extension.youtube.utils.GeminiResultCache.Result;
+import app.revanced.extension.youtube.utils.GeminiResultCache.ResultType;
+
+@RunWith(RobolectricTestRunner.class)
+public class GeminiResultCacheTest {
+
+    private static final String VIDEO_ID = "dQw4w9WgXcQ";
+    private static final String SHORT_URL = "https://youtu.be/" + VIDEO_ID;
+    private static final String WATCH_URL = "https://www.youtube.com/watch?v=" + VIDEO_ID;
+    private static final String LANGUAGE = "en";
+    private static final String MODEL = "gemini-2.0-flash";
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("gemini-result-cache").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        directory.delete();
+    }
+
+    private File[] resultFiles() {
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        return files;
+    }
+
+    private File onlyResultFile() {
+        File[] files = resultFiles();
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private static String repeat(char character, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(character);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void textRoundTrip() {
+        GeminiResultCache cache = new GeminiResultCache(directory, Long.MAX_VALUE);
+        // Longer than DataOutputStream.writeUTF allows, and with characters outside of ASCII.
+        String text = repeat('é', 40_000) + " 中文 😀";
+
+        cache.putText(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL, 12, text);
+
+        Result result = cache.get(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL);
+        assertNotNull(result);
+        assertEquals(12, result.timeSeconds);
+        assertEquals(text, result.text);
+        assertNull(result.subtitles);
+
+        assertNull(cache.get(ResultType.TRANSCRIPTION, SHORT_URL, LANGUAGE, MODEL));
+        assertNull(cache.get(ResultType.SUMMARY, SHORT_URL, "de", MODEL));
+        assertNull(cache.get(ResultType.SUMMARY, SHORT_URL, LANGUAGE, "other-model"));
+    }
+
+    @Test
+    public void subtitlesRoundTrip() {
+        GeminiResultCache cache = new GeminiResultCache(directory, Long.MAX_VALUE);
+        TreeMap<Long, Pair<Long, String>> subtitles = new TreeMap<>();
+        subtitles.put(0L, new Pair<>(1500L, "First line"));
+        subtitles.put(1500L, new Pair<>(4000L, "Zweite Zeile üäö"));
+        subtitles.put(4000L, new Pair<>(4200L, ""));
+        subtitles.put(Long.MAX_VALUE - 1, new Pair<>(Long.MAX_VALUE, "Last"));
+
+        cache.putSubtitles(SHORT_URL, LANGUAGE, MODEL, 30, subtitles);
+
+        Result result = cache.get(ResultType.SUBTITLES, SHORT_URL, LANGUAGE, MODEL);
+        assertNotNull(result);
+        assertEquals(30, result.timeSeconds);
+        assertNull(result.text);
+        assertNotNull(result.subtitles);
+        assertEquals(new ArrayList<>(subtitles.keySet()), new ArrayList<>(result.subtitles.keySet()));
+        for (Map.Entry<Long, Pair<Long, String>> entry : subtitles.entrySet()) {
+            Pair<Long, String> loaded = result.subtitles.get(entry.getKey());
+            assertEquals(entry.getValue().first, loaded.first);
+            assertEquals(entry.getValue().second, loaded.second);
+        }
+    }
+
+    @Test
+    public void resultsAreKeyedByVideoId() {
+        GeminiResultCache cache = new GeminiResultCache(directory, Long.MAX_VALUE);
+        cache.putText(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL, 1, "Summary");
+
+        Result result = cache.get(ResultType.SUMMARY, WATCH_URL + "&t=42s", LANGUAGE, MODEL);
+        assertNotNull(result);
+        assertEquals("Summary", result.text);
+        assertNull(cache.get(ResultType.SUMMARY, "https://youtu.be/aaaaaaaaaaa", LANGUAGE, MODEL));
+    }
+
+    @Test
+    public void videoIdOfUrl() {
+        assertEquals(VIDEO_ID, GeminiResultCache.getVideoId(SHORT_URL));
+        assertEquals(VIDEO_ID, GeminiResultCache.getVideoId(SHORT_URL + "?si=abc"));
+        assertEquals(VIDEO_ID, GeminiResultCache.getVideoId(WATCH_URL));
+        assertEquals(VIDEO_ID, GeminiResultCache.getVideoId("https://m.youtube.com/watch?feature=share&v=" + VIDEO_ID));
+        assertEquals(VIDEO_ID, GeminiResultCache.getVideoId("https://www.youtube.com/shorts/" + VIDEO_ID));
+        assertEquals("not a video url", GeminiResultCache.getVideoId("not a video url"));
+    }
+
+    @Test
+    public void corruptFileIsIgnoredAndDeleted() throws IOException {
+        GeminiResultCache cache = new GeminiResultCache(directory, Long.MAX_VALUE);
+        cache.putText(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL, 1, repeat('a', 1000));
+
+        File file = onlyResultFile();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(file.length() / 2);
+        }
+
+        assertNull(cache.get(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL));
+        assertFalse(file.exists());
+
+        // A new result can be saved again.
+        cache.putText(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL, 2, "Summary");
+        Result result = cache.get(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL);
+        assertNotNull(result);
+        assertEquals("Summary", result.text);
+    }
+
+    @Test
+    public void fileOfDifferentFormatIsIgnored() throws IOException {
+        GeminiResultCache cache = new GeminiResultCache(directory, Long.MAX_VALUE);
+        cache.putText(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL, 1, "Summary");
+
+        File file = onlyResultFile();
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(file))) {
+            output.writeInt(0); // Format version that was never used.
+            output.writeUTF("Some other content");
+        }
+
+        assertNull(cache.get(ResultType.SUMMARY, SHORT_URL, LANGUAGE, MODEL));
+    }
+
+    /**
+     * @return The file the result was saved to.
+     */
+    private File putSummary(GeminiResultCache cache, String videoUrl, String text) {
+        List<File> before = Arrays.asList(resultFiles());
+        cache.putText(ResultType.SUMMARY, videoUrl, LANGUAGE, MODEL, 1, text);
+        for (File file : resultFiles()) {
+            if (!before.contains(file)) {
+                return file;
+            }
+        }
+        throw new AssertionError("No file saved for: " + videoUrl);
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreDeleted() {
+        final String text = repeat('a', 1000);
+        final String[] urls = {
+                "https://youtu.be/aaaaaaaaaaa",
+                "https://youtu.be/bbbbbbbbbbb",
+                "https://youtu.be/ccccccccccc",
+                "https://youtu.be/ddddddddddd",
+        };
+
+        // Room for 3 results, but not 4.
+        GeminiResultCache cache = new GeminiResultCache(directory, 3500);
+        File[] files = new File[urls.length];
+        // Last used times are set explicitly, as file times can have a resolution of seconds.
+        final long lastUsed = System.currentTimeMillis() - 60_000;
+        for (int i = 0; i < 3; i++) {
+            files[i] = putSummary(cache, urls[i], text);
+            assertTrue(files[i].setLastModified(lastUsed + i * 1000L));
+        }
+
+        // Using the oldest result makes it the most recently used.
+        assertNotNull(cache.get(ResultType.SUMMARY, urls[0], LANGUAGE, MODEL));
+        files[3] = putSummary(cache, urls[3], text);
+
+        assertEquals(3, resultFiles().length);
+        assertTrue(files[0].exists());
+        assertFalse(files[1].exists());
+        assertTrue(files[2].exists());
+        assertTrue(files[3].exists());
+        assertNull(cache.get(ResultType.SUMMARY, urls[1], LANGUAGE, MODEL));
+        assertNotNull(cache.get(ResultType.SUMMARY, urls[0], LANGUAGE, MODEL));
+    }
+}
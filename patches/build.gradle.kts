@@ -15,6 +15,8 @@ patches {
 dependencies {
     // Used by JsonGenerator.
     implementation(libs.gson)
+
+    testImplementation(libs.junit)
 }
 
 tasks {
@@ -5,6 +5,7 @@ import app.revanced.patches.music.utils.compatibility.Constants.COMPATIBLE_PACKA
 import app.revanced.patches.music.utils.patch.PatchList.ENABLE_DEBUG_LOGGING
 import app.revanced.patches.music.utils.settings.CategoryType
 import app.revanced.patches.music.utils.settings.ResourceUtils.updatePatchStatus
+import app.revanced.patches.music.utils.settings.addPreferenceWithIntent
 import app.revanced.patches.music.utils.settings.addSwitchPreference
 import app.revanced.patches.music.utils.settings.settingsPatch
 
@@ -38,6 +39,10 @@ val debuggingPatch = resourcePatch(
             "false",
             "revanced_debug"
         )
+        addPreferenceWithIntent(
+            CategoryType.MISC,
+            "revanced_litho_layout_thread_pool_size"
+        )
 
         updatePatchStatus(ENABLE_DEBUG_LOGGING)
 
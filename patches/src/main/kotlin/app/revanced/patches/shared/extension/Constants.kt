@@ -12,6 +12,7 @@ internal object Constants {
     const val EXTENSION_PATCH_STATUS_CLASS_DESCRIPTOR = "$PATCHES_PATH/PatchStatus;"
     const val EXTENSION_SETTING_CLASS_DESCRIPTOR = "$EXTENSION_PATH/settings/Setting;"
     const val EXTENSION_UTILS_CLASS_DESCRIPTOR = "$EXTENSION_UTILS_PATH/Utils;"
+    const val EXTENSION_RESOURCE_IDENTIFIERS_CLASS_DESCRIPTOR = "$EXTENSION_UTILS_PATH/ResourceIdentifiers;"
     const val EXTENSION_THEME_UTILS_CLASS_DESCRIPTOR =
         "$EXTENSION_UTILS_PATH/BaseThemeUtils;"
 }
\ No newline at end of file
@@ -10,10 +10,17 @@ import app.revanced.patcher.patch.PatchException
 import app.revanced.patcher.patch.bytecodePatch
 import app.revanced.patcher.util.proxy.mutableTypes.encodedValue.MutableLongEncodedValue
 import app.revanced.patches.shared.extension.Constants.EXTENSION_PATCH_STATUS_CLASS_DESCRIPTOR
+import app.revanced.patches.shared.extension.Constants.EXTENSION_RESOURCE_IDENTIFIERS_CLASS_DESCRIPTOR
 import app.revanced.patches.shared.extension.Constants.EXTENSION_UTILS_CLASS_DESCRIPTOR
+import app.revanced.patches.shared.mapping.getResourceId
+import app.revanced.patches.shared.mapping.isResourceMappingLoaded
+import app.revanced.util.findMethodOrThrow
 import app.revanced.util.findMethodsOrThrow
 import app.revanced.util.returnEarly
+import com.android.tools.smali.dexlib2.Opcode
 import com.android.tools.smali.dexlib2.iface.Method
+import com.android.tools.smali.dexlib2.iface.instruction.ReferenceInstruction
+import com.android.tools.smali.dexlib2.iface.reference.StringReference
 import com.android.tools.smali.dexlib2.immutable.value.ImmutableLongEncodedValue
 import java.util.jar.Manifest
 
@@ -34,6 +41,13 @@ fun sharedExtensionPatch(
     }
 
     finalize {
+        // Resource ids of the app are known now, so the extension does not have to look them up by name.
+        if (isResourceMappingLoaded()) {
+            findMethodOrThrow(EXTENSION_RESOURCE_IDENTIFIERS_CLASS_DESCRIPTOR) {
+                name == "patchedIdentifiers"
+            }.returnEarly(getExtensionResourceIdentifiers())
+        }
+
         findMethodsOrThrow(EXTENSION_PATCH_STATUS_CLASS_DESCRIPTOR).apply {
             find { method -> method.name == "PatchedTime" }
                 ?.replaceInstruction(
@@ -62,6 +76,48 @@ fun sharedExtensionPatch(
     }
 }
 
+private const val EXTENSION_CLASS_PREFIX = "Lapp/revanced/extension/"
+
+/**
+ * Resource types the extension looks up by name.
+ */
+private val EXTENSION_RESOURCE_TYPES = listOf(
+    "anim", "array", "attr", "bool", "color", "dimen", "drawable", "font", "id",
+    "integer", "layout", "menu", "mipmap", "raw", "string", "style", "xml",
+)
+
+/**
+ * @return Ids of the app resources with a name used as a string constant by the extension,
+ *         in the format `type/name=hexId;` read by the extension.
+ *         Resources added by patches have no id yet and are still looked up at runtime.
+ */
+private fun BytecodePatchContext.getExtensionResourceIdentifiers(): String {
+    val names = HashSet<String>()
+
+    classes.forEach { classDef ->
+        if (!classDef.type.startsWith(EXTENSION_CLASS_PREFIX)) return@forEach
+
+        classDef.methods.forEach { method ->
+            method.implementation?.instructions?.forEach { instruction ->
+                if (instruction.opcode == Opcode.CONST_STRING || instruction.opcode == Opcode.CONST_STRING_JUMBO) {
+                    names.add(((instruction as ReferenceInstruction).reference as StringReference).string)
+                }
+            }
+        }
+    }
+
+    return buildString {
+        names.sorted().forEach { name ->
+            EXTENSION_RESOURCE_TYPES.forEach { type ->
+                val id = getResourceId(type, name)
+                if (id != -1L) {
+                    append(type).append('/').append(name).append('=').append(id.toString(16)).append(';')
+                }
+            }
+        }
+    }
+}
+
 @Suppress("CONTEXT_RECEIVERS_DEPRECATED")
 class ExtensionHook internal constructor(
     val fingerprint: Fingerprint,
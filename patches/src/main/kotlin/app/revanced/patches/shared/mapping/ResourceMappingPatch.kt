@@ -1,7 +1,7 @@
 package app.revanced.patches.shared.mapping
 
 import app.revanced.patcher.patch.resourcePatch
-import org.w3c.dom.Element
+import app.revanced.util.XmlStreamUtils
 
 data class ResourceElement(val type: String, val name: String, val id: Long)
 
@@ -11,6 +11,11 @@ private fun setResourceId(type: String, name: String, id: Long) {
     resourceMappings[type + name] = ResourceElement(type, name, id)
 }
 
+/**
+ * @return If [resourceMappingPatch] has been executed, and resource ids can be looked up.
+ */
+fun isResourceMappingLoaded() = ::resourceMappings.isInitialized
+
 fun getResourceId(resourceType: ResourceType, name: String) =
     getResourceId(resourceType.value, name)
 
@@ -24,20 +29,19 @@ val resourceMappingPatch = resourcePatch(
     description = "resourceMappingPatch"
 ) {
     execute {
-        document(get("res/values/public.xml").inputStream()).use { document ->
-            val resources = document.documentElement.childNodes
-            val resourcesLength = resources.length
-            resourceMappings = HashMap<String, ResourceElement>(2 * resourcesLength)
+        val publicXml = get("res/values/public.xml")
 
-            for (i in 0 until resourcesLength) {
-                val node = resources.item(i) as? Element ?: continue
-                if (node.nodeName != "public") continue
+        XmlStreamUtils.timed("Reading public.xml") {
+            // Each <public> element is roughly 80 bytes.
+            resourceMappings = HashMap<String, ResourceElement>(2 * (publicXml.length() / 80).toInt())
 
-                val nameAttribute = node.getAttribute("name")
-                if (nameAttribute.startsWith("APKTOOL")) continue
+            // Streamed, as public.xml has tens of thousands of elements.
+            XmlStreamUtils.forEachElement(publicXml.inputStream().buffered(), "public") { attributes, _ ->
+                val nameAttribute = attributes.getValue("name")
+                if (nameAttribute.startsWith("APKTOOL")) return@forEachElement
 
-                val typeAttribute = node.getAttribute("type")
-                val id = node.getAttribute("id").substring(2).toLong(16)
+                val typeAttribute = attributes.getValue("type")
+                val id = attributes.getValue("id").substring(2).toLong(16)
 
                 setResourceId(typeAttribute, nameAttribute, id)
             }
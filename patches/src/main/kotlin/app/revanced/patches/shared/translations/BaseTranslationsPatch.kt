@@ -2,17 +2,17 @@ package app.revanced.patches.shared.translations
 
 import app.revanced.patcher.patch.PatchException
 import app.revanced.patcher.patch.ResourcePatchContext
-import app.revanced.util.FilesCompat
 import app.revanced.util.doRecursively
+import app.revanced.util.XmlRewriter
+import app.revanced.util.XmlStreamUtils
+import app.revanced.util.bundledResourceExists
+import app.revanced.util.copyFilesInParallel
 import app.revanced.util.inputStreamFromBundledResource
 import org.w3c.dom.Element
 import org.w3c.dom.Node
+import org.xml.sax.Attributes
 import java.io.File
-import javax.xml.parsers.DocumentBuilderFactory
-import javax.xml.transform.OutputKeys
-import javax.xml.transform.TransformerFactory
-import javax.xml.transform.dom.DOMSource
-import javax.xml.transform.stream.StreamResult
+import java.io.InputStream
 
 // Array of all possible app languages.
 val APP_LANGUAGES = arrayOf(
@@ -177,29 +177,30 @@ private fun ResourcePatchContext.copyStringsXml(
     )
 
     val resourceDirectory = get("res")
+    val copies = LinkedHashMap<File, () -> InputStream?>()
+
     languageArray.forEach { language ->
         val sourceLanguage = languageMap[language] ?: language
+        val resourceFile = "$language/strings.xml"
 
-        inputStreamFromBundledResource(
-            "$sourceDirectory/translations",
-            "$language/strings.xml"
-        )?.let { inputStream ->
+        if (bundledResourceExists("$sourceDirectory/translations", resourceFile)) {
             val directory = "values-$sourceLanguage-v21"
             val valuesV21Directory = resourceDirectory.resolve(directory)
             if (!valuesV21Directory.isDirectory) valuesV21Directory.mkdirs()
 
-            FilesCompat.copy(
-                inputStream,
-                resourceDirectory.resolve("$directory/strings.xml")
-            )
+            copies[resourceDirectory.resolve("$directory/strings.xml")] = {
+                inputStreamFromBundledResource("$sourceDirectory/translations", resourceFile)
+            }
         }
     }
+
+    copyFilesInParallel(copies)
 }
 
 /**
  * Updates the contents of the destination strings.xml file by merging it with the source strings.xml file.
  *
- * This function reads both source and destination XML files, compares each <string> element by their
+ * This function streams both source and destination XML files, compares each <string> element by their
  * unique "name" attribute, and if a match is found, it replaces the content in the destination file with
  * the content from the source file.
  *
@@ -207,45 +208,21 @@ private fun ResourcePatchContext.copyStringsXml(
  * @param destinationFile The destination strings.xml file to be updated with values from the source file.
  */
 private fun updateStringsXml(sourceFile: File, destinationFile: File) {
-    val documentBuilderFactory = DocumentBuilderFactory.newInstance()
-    val documentBuilder = documentBuilderFactory.newDocumentBuilder()
-
-    // Parse the source and destination XML files into Document objects
-    val sourceDoc = documentBuilder.parse(sourceFile)
-    val destinationDoc = documentBuilder.parse(destinationFile)
-
-    val sourceStrings = sourceDoc.getElementsByTagName("string")
-    val destinationStrings = destinationDoc.getElementsByTagName("string")
+    // Text content of the <string> elements of the source file by their "name" attribute
+    val sourceMap = HashMap<String, String>()
 
-    // Create a map to store the <string> elements from the source document by their "name" attribute
-    val sourceMap = mutableMapOf<String, Node>()
-
-    // Populate the map with nodes from the source document
-    for (i in 0 until sourceStrings.length) {
-        val node = sourceStrings.item(i)
-        val name = node.attributes.getNamedItem("name").nodeValue
-        sourceMap[name] = node
-    }
+    XmlStreamUtils.timed("Updating ${destinationFile.path}") {
+        XmlStreamUtils.forEachElement(sourceFile.inputStream().buffered(), "string") { attributes, textContent ->
+            sourceMap[attributes.getValue("name")] = textContent
+        }
 
-    // Update the destination document with values from the source document
-    for (i in 0 until destinationStrings.length) {
-        val node = destinationStrings.item(i)
-        val name = node.attributes.getNamedItem("name").nodeValue
-        if (sourceMap.containsKey(name)) {
-            node.textContent = sourceMap[name]?.textContent
+        // Update the destination file with values from the source file.
+        // Everything else, including the formatting, is written back unchanged.
+        XmlStreamUtils.rewrite(destinationFile) { writer ->
+            object : XmlRewriter(writer) {
+                override fun replaceContent(depth: Int, qName: String, attributes: Attributes) =
+                    if (qName == "string") sourceMap[attributes.getValue("name")] else null
+            }
         }
     }
-
-    /**
-     * Prepare the transformer for writing the updated document back to the file.
-     * The transformer is configured to indent the output XML for better readability.
-     */
-    val transformerFactory = TransformerFactory.newInstance()
-    val transformer = transformerFactory.newTransformer()
-    transformer.setOutputProperty(OutputKeys.INDENT, "yes")
-    transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2")
-
-    val domSource = DOMSource(destinationDoc)
-    val streamResult = StreamResult(destinationFile)
-    transformer.transform(domSource, streamResult)
 }
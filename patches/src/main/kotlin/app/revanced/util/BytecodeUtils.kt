@@ -27,6 +27,7 @@ import app.revanced.util.Utils.printWarn
 import com.android.tools.smali.dexlib2.AccessFlags
 import com.android.tools.smali.dexlib2.Opcode
 import com.android.tools.smali.dexlib2.Opcode.*
+import com.android.tools.smali.dexlib2.iface.ClassDef
 import com.android.tools.smali.dexlib2.iface.Method
 import com.android.tools.smali.dexlib2.iface.MethodParameter
 import com.android.tools.smali.dexlib2.iface.instruction.FiveRegisterInstruction
@@ -37,7 +38,6 @@ import com.android.tools.smali.dexlib2.iface.instruction.RegisterRangeInstructio
 import com.android.tools.smali.dexlib2.iface.instruction.ThreeRegisterInstruction
 import com.android.tools.smali.dexlib2.iface.instruction.TwoRegisterInstruction
 import com.android.tools.smali.dexlib2.iface.instruction.WideLiteralInstruction
-import com.android.tools.smali.dexlib2.iface.instruction.formats.Instruction31i
 import com.android.tools.smali.dexlib2.iface.reference.FieldReference
 import com.android.tools.smali.dexlib2.iface.reference.MethodReference
 import com.android.tools.smali.dexlib2.iface.reference.Reference
@@ -46,7 +46,10 @@ import com.android.tools.smali.dexlib2.immutable.ImmutableField
 import com.android.tools.smali.dexlib2.immutable.ImmutableMethod
 import com.android.tools.smali.dexlib2.immutable.ImmutableMethodImplementation
 import com.android.tools.smali.dexlib2.util.MethodUtil
+import java.util.Collections
 import java.util.EnumSet
+import java.util.IdentityHashMap
+import java.util.WeakHashMap
 
 const val REGISTER_TEMPLATE_REPLACEMENT: String = "REGISTER_INDEX"
 
@@ -647,27 +650,15 @@ fun BytecodePatchContext.replaceLiteralInstructionCall(
     originalLiteral: Long,
     replaceLiteral: Long
 ) {
-    classes.forEach { classDef ->
-        classDef.methods.forEach { method ->
-            method.implementation.apply {
-                this?.instructions?.forEachIndexed { _, instruction ->
-                    if (instruction.opcode != CONST)
-                        return@forEachIndexed
-                    if ((instruction as Instruction31i).wideLiteral != originalLiteral)
-                        return@forEachIndexed
-
-                    proxy(classDef)
-                        .mutableClass
-                        .findMutableMethodOf(method).apply {
-                            val index = indexOfFirstLiteralInstructionOrThrow(originalLiteral)
-                            val register =
-                                (instruction as OneRegisterInstruction).registerA
-
-                            replaceInstruction(index, "const v$register, $replaceLiteral")
-                        }
-                }
+    getLiteralInstructions(originalLiteral, CONST).forEach { literalInstruction ->
+        proxy(literalInstruction.classDef)
+            .mutableClass
+            .findMutableMethodOf(literalInstruction.method).apply {
+                val index = indexOfFirstLiteralInstructionOrThrow(originalLiteral)
+                val register = (literalInstruction.instruction as OneRegisterInstruction).registerA
+
+                replaceInstruction(index, "const v$register, $replaceLiteral")
             }
-        }
     }
 }
 
@@ -675,30 +666,18 @@ fun BytecodePatchContext.replaceLiteralInstructionCall(
     literal: Long,
     smaliInstruction: String
 ) {
-    classes.forEach { classDef ->
-        classDef.methods.forEach { method ->
-            method.implementation.apply {
-                this?.instructions?.forEachIndexed { _, instruction ->
-                    if (instruction.opcode != CONST)
-                        return@forEachIndexed
-                    if ((instruction as Instruction31i).wideLiteral != literal)
-                        return@forEachIndexed
-
-                    proxy(classDef)
-                        .mutableClass
-                        .findMutableMethodOf(method).apply {
-                            val index = indexOfFirstLiteralInstructionOrThrow(literal)
-                            val register =
-                                (instruction as OneRegisterInstruction).registerA.toString()
-
-                            addInstructions(
-                                index + 1,
-                                smaliInstruction.replace(REGISTER_TEMPLATE_REPLACEMENT, register)
-                            )
-                        }
-                }
+    getLiteralInstructions(literal, CONST).forEach { literalInstruction ->
+        proxy(literalInstruction.classDef)
+            .mutableClass
+            .findMutableMethodOf(literalInstruction.method).apply {
+                val index = indexOfFirstLiteralInstructionOrThrow(literal)
+                val register = (literalInstruction.instruction as OneRegisterInstruction).registerA.toString()
+
+                addInstructions(
+                    index + 1,
+                    smaliInstruction.replace(REGISTER_TEMPLATE_REPLACEMENT, register)
+                )
             }
-        }
     }
 }
 
@@ -921,18 +900,124 @@ fun BytecodePatchContext.forEachLiteralValueInstruction(
     literal: Long,
     block: MutableMethod.(literalInstructionIndex: Int) -> Unit,
 ) {
-    classes.forEach { classDef ->
-        classDef.methods.forEach { method ->
-            method.implementation?.instructions?.forEachIndexed { index, instruction ->
-                if (instruction.opcode == CONST &&
-                    (instruction as WideLiteralInstruction).wideLiteral == literal
-                ) {
-                    val mutableMethod = proxy(classDef).mutableClass.findMutableMethodOf(method)
-                    block.invoke(mutableMethod, index)
+    getLiteralInstructions(literal, CONST).forEach { literalInstruction ->
+        val mutableMethod = proxy(literalInstruction.classDef)
+            .mutableClass
+            .findMutableMethodOf(literalInstruction.method)
+        block.invoke(mutableMethod, literalInstruction.index)
+    }
+}
+
+/**
+ * A literal instruction of the original app classes.
+ *
+ * @param index The index of the instruction in the original method.
+ */
+private class LiteralInstruction(
+    val classDef: ClassDef,
+    val method: Method,
+    val index: Int,
+    val instruction: WideLiteralInstruction,
+)
+
+/**
+ * Literal instructions of the app by their literal value, in class, method and instruction order.
+ * Built in a single pass over all classes, so finding the instructions of a literal
+ * does not scan every method again.
+ *
+ * Includes all [CONST] instructions, and all other literal instructions with a value that cannot be
+ * encoded in 16 bits. Small values are used by countless instructions, such as `const/4 v0, 0x0`.
+ *
+ * Does not reference the [BytecodePatchContext], so the index can be collected with the context.
+ */
+private class LiteralInstructionIndex {
+    /**
+     * Classes that are indexed. Classes may still be added after the index is built,
+     * such as by merging the extension, and are then indexed by [update].
+     */
+    private val indexedClasses: MutableSet<ClassDef> = Collections.newSetFromMap(IdentityHashMap())
+
+    private val instructions = HashMap<Long, MutableList<LiteralInstruction>>()
+
+    /**
+     * Incremented every time [update] indexes classes that were added.
+     */
+    var generation = 0
+        private set
+
+    /**
+     * Number of classes when the index was last updated. Classes are only ever added to the pool,
+     * so the pool is not walked again until its size changes.
+     */
+    private var indexedClassCount = -1
+
+    /**
+     * Indexes all classes that are not yet indexed, if classes were added since the last update.
+     */
+    fun update(classes: Collection<ClassDef>) {
+        val classCount = classes.size
+        if (classCount == indexedClassCount) return
+        indexedClassCount = classCount
+
+        var classesAdded = false
+        classes.forEach { classDef ->
+            if (!indexedClasses.add(classDef)) return@forEach
+            classesAdded = true
+
+            classDef.methods.forEach { method ->
+                method.implementation?.instructions?.forEachIndexed { index, instruction ->
+                    if (instruction is WideLiteralInstruction &&
+                        (instruction.opcode == CONST || !isSmallLiteral(instruction.wideLiteral))
+                    ) {
+                        instructions.getOrPut(instruction.wideLiteral) { ArrayList(1) }
+                            .add(LiteralInstruction(classDef, method, index, instruction))
+                    }
                 }
             }
         }
+        if (classesAdded) generation++
+    }
+
+    operator fun get(literal: Long): List<LiteralInstruction> =
+        instructions[literal] ?: emptyList()
+
+    companion object {
+        fun isSmallLiteral(literal: Long) =
+            literal >= Short.MIN_VALUE && literal <= Short.MAX_VALUE
+    }
+}
+
+/**
+ * Index of each patching session. Weak keys, so the classes of a session are not kept after patching.
+ */
+private val literalInstructionIndexes = WeakHashMap<BytecodePatchContext, LiteralInstructionIndex>()
+
+private fun BytecodePatchContext.getLiteralInstructionIndex(): LiteralInstructionIndex =
+    synchronized(literalInstructionIndexes) {
+        literalInstructionIndexes.getOrPut(this) { LiteralInstructionIndex() }.also { index ->
+            index.update(classes)
+        }
     }
+
+/**
+ * @return A number that changes whenever classes are added to the context, such as by merging the extension.
+ */
+internal fun BytecodePatchContext.classesGeneration(): Int =
+    getLiteralInstructionIndex().generation
+
+private fun BytecodePatchContext.getLiteralInstructions(literal: Long, opcode: Opcode) =
+    getLiteralInstructionIndex()[literal].filter { it.instruction.opcode == opcode }
+
+/**
+ * Find the classes with a method containing the given literal value, see [containsLiteralInstruction].
+ *
+ * @return The classes in the order of [BytecodePatchContext.classes],
+ *         or null if the literal value is too common to be indexed.
+ */
+internal fun BytecodePatchContext.findClassesWithLiteralOrNull(literal: Long): List<ClassDef>? {
+    if (LiteralInstructionIndex.isSmallLiteral(literal)) return null
+
+    return getLiteralInstructionIndex()[literal].mapTo(LinkedHashSet()) { it.classDef }.toList()
 }
 
 context(BytecodePatchContext)
@@ -9,10 +9,14 @@ import app.revanced.util.Utils.printWarn
 import org.w3c.dom.Element
 import org.w3c.dom.Node
 import org.w3c.dom.NodeList
+import org.xml.sax.Attributes
 import java.io.File
 import java.io.InputStream
 import java.nio.file.Files
-import java.nio.file.StandardCopyOption
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
 
 private val classLoader = object {}.javaClass.classLoader
 
@@ -108,6 +112,8 @@ fun ResourcePatchContext.copyAdaptiveIcon(
     mipmapDirectories: List<String>,
     adaptiveIconMonoChromeFileName: String? = null,
 ) {
+    val copies = LinkedHashMap<File, () -> InputStream?>()
+
     mapOf(
         adaptiveIconBackgroundFileName to getAdaptiveIconBackgroundResourceFile(),
         adaptiveIconForegroundFileName to getAdaptiveIconForegroundResourceFile()
@@ -115,10 +121,8 @@ fun ResourcePatchContext.copyAdaptiveIcon(
         if (oldIconResourceFile != newIconResourceFile) {
             mipmapDirectories.forEach {
                 val mipmapDirectory = get("res").resolve(it)
-                FilesCompat.copy(
-                    mipmapDirectory.resolve("$oldIconResourceFile.png"),
-                    mipmapDirectory.resolve("$newIconResourceFile.png")
-                )
+                val sourceFile = mipmapDirectory.resolve("$oldIconResourceFile.png")
+                copies[mipmapDirectory.resolve("$newIconResourceFile.png")] = { sourceFile.inputStream() }
             }
         }
     }
@@ -127,11 +131,12 @@ fun ResourcePatchContext.copyAdaptiveIcon(
         adaptiveIconMonoChromeFileName != getAdaptiveIconMonoChromeResourceFile()
     ) {
         val drawableDirectory = get("res").resolve("drawable")
-        FilesCompat.copy(
-            drawableDirectory.resolve("$adaptiveIconMonoChromeFileName.xml"),
-            drawableDirectory.resolve("${getAdaptiveIconMonoChromeResourceFile()}.xml")
-        )
+        val sourceFile = drawableDirectory.resolve("$adaptiveIconMonoChromeFileName.xml")
+        copies[drawableDirectory.resolve("${getAdaptiveIconMonoChromeResourceFile()}.xml")] =
+            { sourceFile.inputStream() }
     }
+
+    copyFilesInParallel(copies)
 }
 
 fun ResourcePatchContext.appendAppVersion(appVersion: String) {
@@ -258,18 +263,20 @@ fun ResourcePatchContext.removeStringsElements(
     paths: Array<String>,
     replacements: Array<String>
 ) {
-    paths.forEach { path ->
-        val resourceDirectory = get("res")
-        val targetXmlPath = resourceDirectory.resolve(path).resolve("strings.xml")
+    val resourceDirectory = get("res")
+    val names = replacements.toHashSet()
 
-        if (targetXmlPath.exists()) {
-            val targetXml = get("res/$path/strings.xml")
+    XmlStreamUtils.timed("Removing ${names.size} strings from ${paths.size} files") {
+        paths.forEach { path ->
+            val targetXml = resourceDirectory.resolve(path).resolve("strings.xml")
+            if (!targetXml.exists()) return@forEach
 
-            replacements.forEach replacementsLoop@{ replacement ->
-                targetXml.writeText(
-                    targetXml.readText()
-                        .replaceFirst(""" {4}<string name="$replacement".+""".toRegex(), "")
-                )
+            // Each file is read and written once, instead of once for every string.
+            XmlStreamUtils.rewrite(targetXml) { writer ->
+                object : XmlRewriter(writer) {
+                    override fun keepElement(depth: Int, qName: String, attributes: Attributes) =
+                        depth != 2 || qName != "string" || attributes.getValue("name") !in names
+                }
             }
         }
     }
@@ -292,6 +299,7 @@ fun ResourcePatchContext.copyResources(
     vararg resources: ResourceGroup,
 ) {
     val resourceDirectory = get("res")
+    val copies = LinkedHashMap<File, () -> InputStream?>()
 
     for (resourceGroup in resources) {
         resourceGroup.resources.forEach { resource ->
@@ -299,17 +307,16 @@ fun ResourcePatchContext.copyResources(
             val targetDirectory = resourceDirectory.resolve(resourceDirectoryName)
             if (!targetDirectory.isDirectory) targetDirectory.mkdirs()
             val resourceFile = "$resourceDirectoryName/$resource"
-            inputStreamFromBundledResource(
-                sourceResourceDirectory,
-                resourceFile
-            )?.let { inputStream ->
-                FilesCompat.copy(
-                    inputStream,
-                    resourceDirectory.resolve(resourceFile),
+            copies[resourceDirectory.resolve(resourceFile)] = {
+                inputStreamFromBundledResource(
+                    sourceResourceDirectory,
+                    resourceFile
                 )
             }
         }
     }
+
+    copyFilesInParallel(copies)
 }
 
 /**
@@ -323,6 +330,8 @@ fun ResourcePatchContext.copyResourcesWithRename(
     resourceMap: Map<String, String>
 ) {
     val targetResourceDirectory = this["res"]
+    val resourceFile = "drawable/icon.xml"
+    val copies = LinkedHashMap<File, () -> InputStream?>()
 
     for ((title, pathData) in resourceMap) {
         // Check if pathData is another title
@@ -330,14 +339,20 @@ fun ResourcePatchContext.copyResourcesWithRename(
             continue // Skip copying if the pathData is another title
         }
 
-        val resourceFile = "drawable/icon.xml"
-        val inputStream = inputStreamFromBundledResource(sourceResourceDirectory, resourceFile)!!
-        val targetFile = targetResourceDirectory.resolve("drawable/$title.xml").toPath()
+        copies[targetResourceDirectory.resolve("drawable/$title.xml")] = {
+            inputStreamFromBundledResourceOrThrow(sourceResourceDirectory, resourceFile)
+        }
+    }
+
+    copyFilesInParallel(copies)
 
-        Files.copy(inputStream, targetFile, StandardCopyOption.REPLACE_EXISTING)
+    for ((title, pathData) in resourceMap) {
+        if (resourceMap.containsKey(pathData)) {
+            continue
+        }
 
         // Update the XML with the new path data
-        document(targetFile.toString()).use { document ->
+        document(targetResourceDirectory.resolve("drawable/$title.xml").toString()).use { document ->
             updatePathData(document, pathData)
         }
     }
@@ -384,12 +399,88 @@ fun ResourcePatchContext.removeResources(
     }
 }
 
+/**
+ * Maximum number of threads used by [copyFilesInParallel].
+ */
+private val maxCopyThreads = Runtime.getRuntime().availableProcessors().coerceIn(1, 8)
+
+/**
+ * Threads of [copyFilesInParallel], shared by all calls.
+ * Idle threads are stopped after a few seconds, and are daemon threads,
+ * so no threads are left running after patching.
+ */
+private val copyExecutor by lazy {
+    ThreadPoolExecutor(
+        maxCopyThreads,
+        maxCopyThreads,
+        5,
+        TimeUnit.SECONDS,
+        LinkedBlockingQueue(),
+    ) { runnable ->
+        Thread(runnable, "copy-files").apply { isDaemon = true }
+    }.apply { allowCoreThreadTimeOut(true) }
+}
+
+/**
+ * Copies independent files using a bounded number of threads.
+ *
+ * A target file that already has the same content as its source is not written again,
+ * so patching an already patched resource directory leaves the files untouched.
+ *
+ * All copies are attempted even if some fail. The exception of the first failed copy
+ * in the iteration order of [copies] is then thrown, with the other exceptions suppressed,
+ * so the reported error does not depend on the thread scheduling.
+ *
+ * @param copies Target files mapped to a function opening the source.
+ *               If the function returns null, the target file is not written.
+ */
+internal fun copyFilesInParallel(copies: Map<File, () -> InputStream?>) {
+    if (copies.size <= 1) {
+        copies.forEach { (target, source) -> source()?.let { copyIfChanged(it, target) } }
+        return
+    }
+
+    val futures = copies.map { (target, source) ->
+        copyExecutor.submit { source()?.let { copyIfChanged(it, target) } }
+    }
+
+    val exceptions = futures.mapNotNull { future ->
+        try {
+            future.get()
+            null
+        } catch (ex: ExecutionException) {
+            ex.cause ?: ex
+        }
+    }
+
+    exceptions.firstOrNull()?.let { exception ->
+        exceptions.drop(1).forEach(exception::addSuppressed)
+        throw exception
+    }
+}
+
+/**
+ * Copies the input stream to the file, unless the file already has the same content.
+ */
+private fun copyIfChanged(source: InputStream, target: File) {
+    val bytes = source.use { it.readBytes() }
+    if (target.length() == bytes.size.toLong() && target.isFile && target.readBytes().contentEquals(bytes)) {
+        return
+    }
+    target.writeBytes(bytes)
+}
+
 internal fun inputStreamFromBundledResourceOrThrow(
     sourceResourceDirectory: String,
     resourceFile: String,
 ) = classLoader.getResourceAsStream("$sourceResourceDirectory/$resourceFile")
     ?: throw PatchException("Could not find $resourceFile")
 
+internal fun bundledResourceExists(
+    sourceResourceDirectory: String,
+    resourceFile: String,
+) = classLoader.getResource("$sourceResourceDirectory/$resourceFile") != null
+
 internal fun inputStreamFromBundledResource(
     sourceResourceDirectory: String,
     resourceFile: String,
@@ -416,13 +507,32 @@ fun ResourcePatchContext.copyXmlNode(
     resourceDirectory,
     targetResource
 )?.let { inputStream ->
-    val outputPath = "res/$targetResource"
-    if (get(outputPath).exists()) {
-        // Copy nodes from the resources node to the real resource node
-        elementTag.copyXmlNode(
-            document(inputStream),
-            document(outputPath),
-        ).close()
+    val outputFile = get("res/$targetResource")
+    if (outputFile.exists()) {
+        val content = XmlStreamUtils.getElementContent(inputStream, elementTag)
+            ?: throw PatchException("Element not found: $elementTag")
+
+        // Copy nodes from the resources node to the real resource node,
+        // without parsing the real resource file into a DOM.
+        XmlStreamUtils.rewrite(outputFile) { writer ->
+            object : XmlRewriter(writer) {
+                private var elementDepth = -1
+                private var inserted = false
+
+                override fun keepElement(depth: Int, qName: String, attributes: Attributes): Boolean {
+                    if (elementDepth < 0 && qName == elementTag) elementDepth = depth
+                    return true
+                }
+
+                override fun insertBeforeEndTag(depth: Int, qName: String): String? {
+                    if (inserted || depth != elementDepth || qName != elementTag) return null
+                    inserted = true
+                    return content
+                }
+            }
+        }
+    } else {
+        inputStream.close()
     }
 }
 
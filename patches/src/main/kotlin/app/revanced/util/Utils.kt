@@ -10,6 +10,9 @@ internal object Utils {
 
     private val logger = Logger.getLogger(this::class.java.name)
 
+    internal fun printDebug(msg: String) =
+        logger.fine(msg)
+
     internal fun printInfo(msg: String) =
         logger.info(msg)
 
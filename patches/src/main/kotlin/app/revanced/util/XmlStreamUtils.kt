@@ -0,0 +1,379 @@
+package app.revanced.util
+
+import org.xml.sax.Attributes
+import org.xml.sax.ext.DefaultHandler2
+import org.xml.sax.helpers.AttributesImpl
+import org.xml.sax.helpers.DefaultHandler
+import java.io.File
+import java.io.InputStream
+import java.io.StringWriter
+import java.io.Writer
+import javax.xml.parsers.SAXParser
+import javax.xml.parsers.SAXParserFactory
+import kotlin.system.measureTimeMillis
+
+/**
+ * Streaming XML functions for large resource files, such as strings.xml of every language or public.xml.
+ *
+ * Unlike [app.revanced.patcher.patch.ResourcePatchContext.document], no DOM is built,
+ * so a file is processed with roughly constant memory regardless of its size.
+ * SAX is used instead of StAX, because StAX is not available on Android (ReVanced Manager).
+ */
+internal object XmlStreamUtils {
+    private const val LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler"
+    private const val NAMESPACE_PREFIXES_FEATURE = "http://xml.org/sax/features/namespace-prefixes"
+
+    private val saxParserFactory = SAXParserFactory.newInstance().apply {
+        isValidating = false
+        try {
+            // Report prefixed names and xmlns declarations as attributes, so they are written back as is.
+            isNamespaceAware = true
+            setFeature(NAMESPACE_PREFIXES_FEATURE, true)
+        } catch (_: Exception) {
+            // Without namespace support, xmlns declarations are reported as regular attributes.
+            isNamespaceAware = false
+        }
+    }
+
+    /**
+     * Factories are not guaranteed to be thread safe, but parsers created by them can be used independently.
+     */
+    private fun newSAXParser(): SAXParser =
+        synchronized(saxParserFactory) { saxParserFactory.newSAXParser() }
+
+    private fun parse(inputStream: InputStream, handler: DefaultHandler) {
+        val parser = newSAXParser()
+        if (handler is DefaultHandler2) {
+            try {
+                // Report comments and CDATA sections.
+                parser.setProperty(LEXICAL_HANDLER_PROPERTY, handler)
+            } catch (_: Exception) {
+                // Not supported by the parser, comments are dropped.
+            }
+        }
+        parser.parse(inputStream, handler)
+    }
+
+    /**
+     * Calls [action] for every element with the given tag name.
+     *
+     * @param inputStream The XML to read. Closed after reading.
+     * @param tagName The tag name of the elements.
+     * @param action Function called with the attributes and the text content of the element.
+     *               The attributes are only valid during the call.
+     */
+    fun forEachElement(
+        inputStream: InputStream,
+        tagName: String,
+        action: (attributes: Attributes, textContent: String) -> Unit,
+    ) {
+        val handler = object : DefaultHandler() {
+            private val textContent = StringBuilder()
+            private var attributes: Attributes? = null
+            private var elementDepth = 0
+
+            override fun startElement(uri: String?, localName: String?, qName: String, attributes: Attributes) {
+                if (elementDepth > 0) {
+                    elementDepth++
+                } else if (qName == tagName) {
+                    // Copy, as the parser reuses the attributes of the start tag.
+                    this.attributes = AttributesImpl(attributes)
+                    textContent.setLength(0)
+                    elementDepth = 1
+                }
+            }
+
+            override fun characters(ch: CharArray, start: Int, length: Int) {
+                if (elementDepth > 0) textContent.appendRange(ch, start, start + length)
+            }
+
+            override fun endElement(uri: String?, localName: String?, qName: String) {
+                if (elementDepth > 0 && --elementDepth == 0) {
+                    action(attributes!!, textContent.toString())
+                }
+            }
+        }
+
+        inputStream.use { parse(it, handler) }
+    }
+
+    /**
+     * Writes the content of the first element with the given tag name to a string,
+     * excluding the start and end tag of the element itself.
+     *
+     * @param inputStream The XML to read. Closed after reading.
+     * @param tagName The tag name of the element.
+     * @return The content of the element, or null if the element was not found.
+     */
+    fun getElementContent(inputStream: InputStream, tagName: String): String? {
+        val content = StringWriter()
+        val handler = XmlRewriter(content, contentOfTagName = tagName)
+        inputStream.use { parse(it, handler) }
+        return if (handler.contentFound) content.toString() else null
+    }
+
+    /**
+     * Rewrites the file by streaming it through [rewriter].
+     * The result is written to a temporary file first, which then replaces the original file.
+     *
+     * @param file The file to rewrite.
+     * @param rewriter Function returning the [XmlRewriter] that writes to the given output.
+     */
+    fun rewrite(file: File, rewriter: (Writer) -> XmlRewriter) {
+        val temporaryFile = File(file.parentFile, file.name + ".tmp")
+        try {
+            temporaryFile.bufferedWriter(Charsets.UTF_8).use { writer ->
+                val handler = rewriter(writer)
+                file.inputStream().buffered().use { parse(it, handler) }
+            }
+            if (!file.delete() || !temporaryFile.renameTo(file)) {
+                FilesCompat.copy(temporaryFile, file)
+            }
+        } finally {
+            temporaryFile.delete()
+        }
+    }
+
+    /**
+     * Runs [block] and logs how long it took.
+     */
+    fun <T> timed(description: String, block: () -> T): T {
+        val result: T
+        val time = measureTimeMillis { result = block() }
+        Utils.printDebug("$description took ${time}ms")
+        return result
+    }
+}
+
+/**
+ * SAX handler writing the parsed document back as XML, including comments and CDATA sections.
+ * Subclasses can override the open functions to remove elements, replace their content
+ * or insert content before an end tag, while everything else is left unchanged.
+ *
+ * Whitespace before a removed element is also removed, so no empty lines are left behind.
+ *
+ * @param output Where the XML is written to.
+ * @param contentOfTagName If set, only the content of the first element with this tag name is written,
+ *                         without the XML declaration and the element itself.
+ */
+internal open class XmlRewriter(
+    private val output: Writer,
+    private val contentOfTagName: String? = null,
+) : DefaultHandler2() {
+    private var depth = 0
+
+    /**
+     * Depth of the element of which the content is not written, or -1 if none.
+     */
+    private var skippedDepth = -1
+
+    /**
+     * If the end tag of the element at [skippedDepth] is written.
+     */
+    private var skippedEndTagWritten = false
+
+    /**
+     * If '>' of the last start tag is not yet written, so the element can still be closed with '/>'.
+     */
+    private var startTagOpen = false
+
+    private var inCData = false
+
+    private val pendingWhitespace = StringBuilder()
+
+    /**
+     * Depth of the element with [contentOfTagName], -1 if not yet found, or 0 if the element has ended.
+     */
+    private var contentDepth = if (contentOfTagName == null) 0 else -1
+
+    /**
+     * If the element with [contentOfTagName] was found.
+     */
+    var contentFound = false
+        private set
+
+    private val isWriting
+        get() = skippedDepth < 0 && (contentOfTagName == null || contentDepth in 1..depth)
+
+    /**
+     * @return If the element and its content should be kept.
+     */
+    protected open fun keepElement(depth: Int, qName: String, attributes: Attributes) = true
+
+    /**
+     * @return Text that replaces the content of the element, or null to keep the content.
+     */
+    protected open fun replaceContent(depth: Int, qName: String, attributes: Attributes): String? = null
+
+    /**
+     * @return Raw XML inserted just before the end tag of the element, or null to insert nothing.
+     */
+    protected open fun insertBeforeEndTag(depth: Int, qName: String): CharSequence? = null
+
+    override fun startDocument() {
+        if (contentOfTagName == null) output.append("""<?xml version="1.0" encoding="utf-8"?>""").append('\n')
+    }
+
+    override fun startElement(uri: String?, localName: String?, qName: String, attributes: Attributes) {
+        depth++
+
+        if (contentDepth < 0 && qName == contentOfTagName) {
+            contentDepth = depth
+            contentFound = true
+            return
+        }
+        if (!isWriting) return
+
+        if (!keepElement(depth, qName, attributes)) {
+            pendingWhitespace.setLength(0)
+            skippedDepth = depth
+            skippedEndTagWritten = false
+            return
+        }
+
+        closeStartTag()
+        flushWhitespace()
+        output.append('<').append(qName)
+        for (i in 0 until attributes.length) {
+            output.append(' ').append(attributes.getQName(i)).append("=\"")
+            appendEscaped(attributes.getValue(i), true)
+            output.append('"')
+        }
+        startTagOpen = true
+
+        replaceContent(depth, qName, attributes)?.let { text ->
+            closeStartTag()
+            appendEscaped(text, false)
+            skippedDepth = depth
+            skippedEndTagWritten = true
+        }
+    }
+
+    override fun endElement(uri: String?, localName: String?, qName: String) {
+        if (depth == skippedDepth) {
+            skippedDepth = -1
+            if (skippedEndTagWritten) appendEndTag(qName)
+        } else if (depth == contentDepth) {
+            contentDepth = 0
+        } else if (isWriting) {
+            insertBeforeEndTag(depth, qName)?.takeIf { it.isNotEmpty() }?.let { content ->
+                // Inserted content brings its own indentation,
+                // the pending whitespace is kept for the end tag.
+                closeStartTag()
+                output.append(content)
+            }
+            appendEndTag(qName)
+        }
+        depth--
+    }
+
+    private fun appendEndTag(qName: String) {
+        if (startTagOpen && pendingWhitespace.isEmpty()) {
+            // Only an element without any content is closed with '/>'.
+            // Whitespace content is kept, as it can be the value of the element.
+            startTagOpen = false
+            output.append("/>")
+        } else {
+            closeStartTag()
+            flushWhitespace()
+            output.append("</").append(qName).append('>')
+        }
+    }
+
+    override fun characters(ch: CharArray, start: Int, length: Int) {
+        if (!isWriting) return
+
+        if (inCData) {
+            output.write(ch, start, length)
+            return
+        }
+
+        var whitespace = true
+        for (i in start until start + length) {
+            if (!ch[i].isWhitespace()) {
+                whitespace = false
+                break
+            }
+        }
+
+        // Whitespace is not written if only followed by removed elements.
+        if (whitespace) {
+            pendingWhitespace.appendRange(ch, start, start + length)
+            return
+        }
+
+        closeStartTag()
+        flushWhitespace()
+        appendEscaped(String(ch, start, length), false)
+    }
+
+    override fun ignorableWhitespace(ch: CharArray, start: Int, length: Int) =
+        characters(ch, start, length)
+
+    override fun processingInstruction(target: String, data: String?) {
+        if (!isWriting) return
+        closeStartTag()
+        flushWhitespace()
+        output.append("<?").append(target)
+        if (!data.isNullOrEmpty()) output.append(' ').append(data)
+        output.append("?>")
+    }
+
+    override fun comment(ch: CharArray, start: Int, length: Int) {
+        if (!isWriting) return
+        closeStartTag()
+        flushWhitespace()
+        output.write("<!--")
+        output.write(ch, start, length)
+        output.write("-->")
+    }
+
+    override fun startCDATA() {
+        if (!isWriting) return
+        closeStartTag()
+        flushWhitespace()
+        output.append("<![CDATA[")
+        inCData = true
+    }
+
+    override fun endCDATA() {
+        if (!inCData) return
+        output.append("]]>")
+        inCData = false
+    }
+
+    override fun endDocument() {
+        if (contentOfTagName == null) {
+            flushWhitespace()
+            output.append('\n')
+        }
+    }
+
+    private fun closeStartTag() {
+        if (startTagOpen) {
+            startTagOpen = false
+            output.append('>')
+        }
+    }
+
+    private fun flushWhitespace() {
+        if (pendingWhitespace.isNotEmpty()) {
+            output.append(pendingWhitespace)
+            pendingWhitespace.setLength(0)
+        }
+    }
+
+    private fun appendEscaped(text: String, attribute: Boolean) {
+        for (char in text) {
+            when (char) {
+                '&' -> output.append("&amp;")
+                '<' -> output.append("&lt;")
+                '>' -> output.append("&gt;")
+                '"' -> if (attribute) output.append("&quot;") else output.append(char)
+                '\n' -> if (attribute) output.append("&#10;") else output.append(char)
+                '\t' -> if (attribute) output.append("&#9;") else output.append(char)
+                else -> output.append(char)
+            }
+        }
+    }
+}
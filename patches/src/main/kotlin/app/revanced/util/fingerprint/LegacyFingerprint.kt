@@ -11,7 +11,10 @@ import app.revanced.patcher.patch.BytecodePatchContext
 import app.revanced.patcher.patch.PatchException
 import app.revanced.patcher.util.proxy.mutableTypes.MutableClass
 import app.revanced.patcher.util.proxy.mutableTypes.MutableMethod
+import app.revanced.util.Utils
+import app.revanced.util.classesGeneration
 import app.revanced.util.containsLiteralInstruction
+import app.revanced.util.findClassesWithLiteralOrNull
 import app.revanced.util.indexOfFirstInstructionOrThrow
 import app.revanced.util.indexOfFirstLiteralInstruction
 import app.revanced.util.injectLiteralInstructionViewCall
@@ -19,17 +22,104 @@ import com.android.tools.smali.dexlib2.Opcode
 import com.android.tools.smali.dexlib2.iface.ClassDef
 import com.android.tools.smali.dexlib2.iface.Method
 import com.android.tools.smali.dexlib2.iface.instruction.OneRegisterInstruction
+import java.util.WeakHashMap
+import java.util.concurrent.ConcurrentHashMap
 
 private val String.exception
     get() = PatchException("Failed to resolve $this")
 
+/**
+ * Resolves legacy fingerprints once per patching session.
+ *
+ * Fingerprints with literals but without strings are only matched against the classes containing
+ * one of the literals, instead of every class. Fingerprints with strings are already
+ * looked up by their strings by the patcher.
+ * Fingerprints that do not match are remembered, so they are not matched against every class again.
+ */
+private object LegacyFingerprintResolver {
+    /**
+     * Literals of fingerprints without strings.
+     */
+    private val fingerprintLiterals = ConcurrentHashMap<Fingerprint, List<Long>>()
+
+    /**
+     * Results of a patching session.
+     */
+    private class Results {
+        /**
+         * [classesGeneration] when the unresolved fingerprints were last matched.
+         */
+        var classesGeneration = -1
+        val resolvedFingerprints = HashSet<Fingerprint>()
+        val unresolvedFingerprints = HashSet<Fingerprint>()
+    }
+
+    /**
+     * Results of each patching session. Weak keys, so the classes of a session are not kept after patching.
+     */
+    private val sessionResults = WeakHashMap<BytecodePatchContext, Results>()
+
+    fun registerLiterals(fingerprint: Fingerprint, literals: List<Long>) {
+        fingerprintLiterals[fingerprint] = literals
+    }
+
+    /**
+     * @return If the fingerprint matches a method.
+     */
+    fun resolve(context: BytecodePatchContext, name: String, fingerprint: Fingerprint): Boolean {
+        val results = synchronized(sessionResults) {
+            sessionResults.getOrPut(context) { Results() }
+        }
+        // Classes can be added during patching, so a fingerprint may match later on.
+        val classesGeneration = context.classesGeneration()
+        if (results.classesGeneration != classesGeneration) {
+            results.classesGeneration = classesGeneration
+            results.unresolvedFingerprints.clear()
+        }
+
+        if (fingerprint in results.resolvedFingerprints) return true
+        if (fingerprint in results.unresolvedFingerprints) return false
+
+        val startTime = System.nanoTime()
+        val resolved = with(context) {
+            val candidateClasses = fingerprintLiterals[fingerprint]?.firstNotNullOfOrNull { literal ->
+                findClassesWithLiteralOrNull(literal)
+            }
+
+            if (candidateClasses != null) {
+                // The match is memoized by the fingerprint.
+                candidateClasses.any { classDef -> fingerprint.matchOrNull(classDef) != null }
+            } else {
+                fingerprint.methodOrNull != null
+            }
+        }
+        val time = "%.1f".format((System.nanoTime() - startTime) / 1_000_000.0)
+
+        if (resolved) {
+            results.resolvedFingerprints.add(fingerprint)
+            Utils.printDebug("Resolved $name in ${time}ms")
+        } else {
+            results.unresolvedFingerprints.add(fingerprint)
+            Utils.printDebug("Could not resolve $name in ${time}ms")
+        }
+        return resolved
+    }
+}
+
+/**
+ * @return The fingerprint, or null if it does not match any method.
+ */
+context(BytecodePatchContext)
+private fun Pair<String, Fingerprint>.resolveOrNull(): Fingerprint? =
+    if (LegacyFingerprintResolver.resolve(this@BytecodePatchContext, first, second)) second else null
+
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.resolvable(): Boolean =
-    second.methodOrNull != null
+    resolveOrNull() != null
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.definingClassOrThrow(): String =
-    second.classDefOrNull?.type ?: throw first.exception
+    resolveOrNull()?.classDefOrNull?.type ?: throw first.exception
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.matchOrThrow(): Match =
@@ -37,7 +127,7 @@ internal fun Pair<String, Fingerprint>.matchOrThrow(): Match =
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.matchOrThrow(parentFingerprint: Pair<String, Fingerprint>): Match {
-    val parentClassDef = parentFingerprint.second.classDefOrNull
+    val parentClassDef = parentFingerprint.resolveOrNull()?.classDefOrNull
         ?: throw parentFingerprint.first.exception
     return second.matchOrNull(parentClassDef)
         ?: throw first.exception
@@ -45,13 +135,13 @@ internal fun Pair<String, Fingerprint>.matchOrThrow(parentFingerprint: Pair<Stri
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.matchOrNull(): Match? =
-    second.classDefOrNull?.let {
+    resolveOrNull()?.classDefOrNull?.let {
         second.matchOrNull(it)
     }
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.matchOrNull(parentFingerprint: Pair<String, Fingerprint>): Match? =
-    parentFingerprint.second.classDefOrNull?.let { parentClassDef ->
+    parentFingerprint.resolveOrNull()?.classDefOrNull?.let { parentClassDef ->
         second.matchOrNull(parentClassDef)
     }
 
@@ -61,7 +151,7 @@ internal fun Pair<String, Fingerprint>.methodOrNull(): MutableMethod? =
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.methodOrThrow(): MutableMethod =
-    second.methodOrNull ?: throw first.exception
+    resolveOrNull()?.methodOrNull ?: throw first.exception
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.methodOrThrow(parentFingerprint: Pair<String, Fingerprint>): MutableMethod =
@@ -69,7 +159,7 @@ internal fun Pair<String, Fingerprint>.methodOrThrow(parentFingerprint: Pair<Str
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.originalMethodOrThrow(): Method =
-    second.originalMethodOrNull ?: throw first.exception
+    resolveOrNull()?.originalMethodOrNull ?: throw first.exception
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.originalMethodOrThrow(parentFingerprint: Pair<String, Fingerprint>): Method =
@@ -77,7 +167,7 @@ internal fun Pair<String, Fingerprint>.originalMethodOrThrow(parentFingerprint:
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.mutableClassOrThrow(): MutableClass =
-    second.classDefOrNull ?: throw first.exception
+    resolveOrNull()?.classDefOrNull ?: throw first.exception
 
 context(BytecodePatchContext)
 internal fun Pair<String, Fingerprint>.methodCall() =
@@ -172,6 +262,10 @@ internal fun legacyFingerprint(
 
             return@custom true
         }
+    }.also { fingerprint ->
+        if (literals != null && strings == null) {
+            LegacyFingerprintResolver.registerLiterals(fingerprint, literals)
+        }
     }
 )
 
@@ -0,0 +1,203 @@
+package app.revanced.util
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+import org.w3c.dom.Element
+import org.xml.sax.Attributes
+import java.io.File
+import java.io.StringWriter
+import java.io.Writer
+import javax.xml.parsers.DocumentBuilderFactory
+import javax.xml.transform.OutputKeys
+import javax.xml.transform.TransformerFactory
+import javax.xml.transform.dom.DOMSource
+import javax.xml.transform.stream.StreamResult
+import kotlin.system.measureNanoTime
+
+class XmlStreamUtilsTest {
+    private fun rewriteFile(xml: String, rewriter: (Writer) -> XmlRewriter = { XmlRewriter(it) }): String {
+        val file = File.createTempFile("xml-stream-utils", ".xml")
+        try {
+            file.writeText(xml)
+            XmlStreamUtils.rewrite(file, rewriter)
+            return file.readText()
+        } finally {
+            file.delete()
+        }
+    }
+
+    @Test
+    fun unchangedDocumentIsWrittenBackAsIs() {
+        val xml = """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<resources xmlns:tools="http://schemas.android.com/tools" xmlns:xliff="urn:oasis:names:tc:xliff:document:1.2">
+            |    <!-- Comment -->
+            |    <string name="a" tools:ignore="MissingTranslation">A &amp; &lt;b&gt;</string>
+            |    <string name="b">Count: <xliff:g id="count">%d</xliff:g></string>
+            |    <string name="c"><![CDATA[<b>bold</b>]]></string>
+            |    <string name="empty"/>
+            |</resources>
+            |
+        """.trimMargin()
+
+        assertEquals(xml, rewriteFile(xml))
+    }
+
+    @Test
+    fun whitespaceContentIsKept() {
+        val xml = """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<resources>
+            |    <string name="space"> </string>
+            |    <string name="newline">
+            |</string>
+            |</resources>
+            |
+        """.trimMargin()
+
+        assertEquals(xml, rewriteFile(xml))
+    }
+
+    @Test
+    fun removedElementsLeaveNoEmptyLines() {
+        val xml = """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<resources>
+            |    <string name="a">A</string>
+            |    <string name="b">B</string>
+            |    <string name="c">C</string>
+            |</resources>
+            |
+        """.trimMargin()
+        val expected = """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<resources>
+            |    <string name="a">A</string>
+            |    <string name="c">C</string>
+            |</resources>
+            |
+        """.trimMargin()
+
+        val actual = rewriteFile(xml) { writer ->
+            object : XmlRewriter(writer) {
+                override fun keepElement(depth: Int, qName: String, attributes: Attributes) =
+                    attributes.getValue("name") != "b"
+            }
+        }
+        assertEquals(expected, actual)
+    }
+
+    @Test
+    fun contentIsReplacedAndInserted() {
+        val xml = """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<resources>
+            |    <string name="a">A</string>
+            |</resources>
+            |
+        """.trimMargin()
+        val expected = """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<resources>
+            |    <string name="a">&lt;replaced&gt;</string>
+            |    <string name="b">B</string>
+            |</resources>
+            |
+        """.trimMargin()
+
+        val actual = rewriteFile(xml) { writer ->
+            object : XmlRewriter(writer) {
+                override fun replaceContent(depth: Int, qName: String, attributes: Attributes) =
+                    if (qName == "string") "<replaced>" else null
+
+                override fun insertBeforeEndTag(depth: Int, qName: String) =
+                    if (depth == 1) "\n    <string name=\"b\">B</string>" else null
+            }
+        }
+        assertEquals(expected, actual)
+    }
+
+    /**
+     * Whitespace before the end tag of the element is not part of the content,
+     * so inserted content can be followed by the indentation of the target end tag.
+     */
+    @Test
+    fun elementContentAndForEachElement() {
+        val xml = """
+            |<resources xmlns:xliff="urn:oasis:names:tc:xliff:document:1.2">
+            |    <string name="a">A</string>
+            |    <string name="b">B <xliff:g id="x">%s</xliff:g></string>
+            |</resources>
+        """.trimMargin()
+
+        assertEquals(
+            """
+            |
+            |    <string name="a">A</string>
+            |    <string name="b">B <xliff:g id="x">%s</xliff:g></string>
+            """.trimMargin(),
+            XmlStreamUtils.getElementContent(xml.byteInputStream(), "resources"),
+        )
+        assertNull(XmlStreamUtils.getElementContent(xml.byteInputStream(), "missing"))
+
+        val values = LinkedHashMap<String, String>()
+        XmlStreamUtils.forEachElement(xml.byteInputStream(), "string") { attributes, textContent ->
+            values[attributes.getValue("name")] = textContent
+        }
+        assertEquals(mapOf("a" to "A", "b" to "B %s"), values)
+    }
+
+    /**
+     * Removes every other string of a large strings.xml, with the streaming rewrite and with a DOM,
+     * checks both give the same strings and prints how long each took.
+     */
+    @Test
+    fun largeFileMatchesDom() {
+        val stringCount = 20_000
+        val xml = buildString {
+            append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<resources>\n")
+            for (i in 0 until stringCount) {
+                append("    <string name=\"string_").append(i).append("\">Value ").append(i).append(" &amp; more</string>\n")
+            }
+            append("</resources>\n")
+        }
+        val removed = (0 until stringCount step 2).map { "string_$it" }.toHashSet()
+
+        lateinit var streamed: String
+        val streamTime = measureNanoTime {
+            streamed = rewriteFile(xml) { writer ->
+                object : XmlRewriter(writer) {
+                    override fun keepElement(depth: Int, qName: String, attributes: Attributes) =
+                        depth != 2 || attributes.getValue("name") !in removed
+                }
+            }
+        }
+
+        lateinit var dom: String
+        val domTime = measureNanoTime {
+            val document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(xml.byteInputStream())
+            val strings = document.getElementsByTagName("string")
+            for (i in strings.length - 1 downTo 0) {
+                val element = strings.item(i) as Element
+                if (element.getAttribute("name") in removed) element.parentNode.removeChild(element)
+            }
+            dom = StringWriter().also { output ->
+                TransformerFactory.newInstance().newTransformer().apply {
+                    setOutputProperty(OutputKeys.ENCODING, "utf-8")
+                }.transform(DOMSource(document), StreamResult(output))
+            }.toString()
+        }
+
+        fun strings(xml: String) = LinkedHashMap<String, String>().also { values ->
+            XmlStreamUtils.forEachElement(xml.byteInputStream(), "string") { attributes, textContent ->
+                values[attributes.getValue("name")] = textContent
+            }
+        }
+        val expected = strings(dom)
+        assertEquals(stringCount / 2, expected.size)
+        assertEquals(expected, strings(streamed))
+
+        println("Removing ${removed.size} of $stringCount strings: stream ${streamTime / 1_000_000}ms, DOM ${domTime / 1_000_000}ms")
+    }
+}